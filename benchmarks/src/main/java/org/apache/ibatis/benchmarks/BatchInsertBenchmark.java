@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures inserting posts through the batch executor, the inserted rows are rolled back after every batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchInsertBenchmark {
+
+  @Param({"100", "1000"})
+  public int rows;
+
+  @Param({"false", "true"})
+  public boolean multiRowInsert;
+
+  private SqlSessionFactory sqlSessionFactory;
+  private Post[] posts;
+
+  @Setup
+  public void setup() throws SQLException {
+    Configuration configuration = BenchmarkDatabase.newConfiguration("batchInsert");
+    configuration.setMultiRowInsertEnabled(multiRowInsert);
+    sqlSessionFactory = BenchmarkDatabase.newSqlSessionFactory(configuration);
+    posts = new Post[rows];
+    for (int i = 0; i < rows; i++) {
+      posts[i] = BenchmarkDatabase.newPost(i + 1);
+    }
+  }
+
+  @Benchmark
+  public int insertBatch() {
+    try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BlogMapper mapper = session.getMapper(BlogMapper.class);
+      for (Post post : posts) {
+        mapper.insertPost(post);
+      }
+      int flushed = session.flushStatements().size();
+      session.rollback(true);
+      return flushed;
+    }
+  }
+
+}
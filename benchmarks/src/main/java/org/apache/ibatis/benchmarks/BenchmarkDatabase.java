@@ -0,0 +1,134 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+/**
+ * An in-memory HSQLDB database with authors, blogs and posts shared by the benchmarks.
+ */
+public final class BenchmarkDatabase {
+
+  public static final int AUTHORS = 20;
+  public static final int BLOGS = 100;
+  public static final int POSTS_PER_BLOG = 10;
+
+  private BenchmarkDatabase() {
+    // 只有静态方法，禁止实例化
+  }
+
+  /**
+   * Creates a pooled data source on a new in-memory database filled with the benchmark data.
+   *
+   * @param name
+   *          the database name, each benchmark uses its own database
+   * @return the data source
+   * @throws SQLException
+   *           if the database can not be created
+   */
+  public static PooledDataSource newDataSource(String name) throws SQLException {
+    PooledDataSource dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:" + name, "sa", "");
+    try (Connection conn = dataSource.getConnection()) {
+      createSchema(conn);
+    }
+    return dataSource;
+  }
+
+  /**
+   * Creates a configuration with the benchmark mappers on a new in-memory database.
+   *
+   * @param name
+   *          the database name
+   * @return the configuration, settings may still be changed before building a session factory
+   * @throws SQLException
+   *           if the database can not be created
+   */
+  public static Configuration newConfiguration(String name) throws SQLException {
+    Environment environment = new Environment("benchmark", new JdbcTransactionFactory(), newDataSource(name));
+    Configuration configuration = new Configuration(environment);
+    configuration.addMapper(BlogMapper.class);
+    configuration.addMapper(CachedBlogMapper.class);
+    return configuration;
+  }
+
+  public static SqlSessionFactory newSqlSessionFactory(Configuration configuration) {
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  /**
+   * Creates a post that does not collide with the posts of the benchmark data, the id must be positive.
+   */
+  public static Post newPost(int id) {
+    Post post = new Post();
+    post.setId(BLOGS * POSTS_PER_BLOG + id);
+    post.setBlogId(id % BLOGS + 1);
+    post.setSubject("subject " + id);
+    post.setBody("body of the post " + id);
+    return post;
+  }
+
+  private static void createSchema(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("drop table post if exists");
+      stmt.execute("drop table blog if exists");
+      stmt.execute("drop table author if exists");
+      stmt.execute("create table author (id int primary key, name varchar(100))");
+      stmt.execute("create table blog (id int primary key, title varchar(100), author_id int)");
+      stmt.execute("create table post (id int primary key, blog_id int, subject varchar(100), body varchar(1000))");
+    }
+    try (PreparedStatement ps = conn.prepareStatement("insert into author (id, name) values (?, ?)")) {
+      for (int i = 1; i <= AUTHORS; i++) {
+        ps.setInt(1, i);
+        ps.setString(2, "author" + i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    try (PreparedStatement ps = conn.prepareStatement("insert into blog (id, title, author_id) values (?, ?, ?)")) {
+      for (int i = 1; i <= BLOGS; i++) {
+        ps.setInt(1, i);
+        ps.setString(2, "blog" + i);
+        ps.setInt(3, i % AUTHORS + 1);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    try (PreparedStatement ps = conn.prepareStatement("insert into post (id, blog_id, subject, body) values (?, ?, ?, ?)")) {
+      for (int i = 1; i <= BLOGS * POSTS_PER_BLOG; i++) {
+        ps.setInt(1, i);
+        ps.setInt(2, (i - 1) / POSTS_PER_BLOG + 1);
+        ps.setString(3, "post" + i);
+        ps.setString(4, "body of the post " + i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    if (!conn.getAutoCommit()) {
+      conn.commit();
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+
+public interface BlogMapper {
+
+  Blog selectBlog(@Param("id") int id);
+
+  List<Blog> selectBlogs();
+
+  List<Blog> selectBlogsWithPosts();
+
+  List<Blog> selectBlogsWithPostsWithoutIds();
+
+  List<Blog> selectLazyBlogs();
+
+  List<Blog> findBlogs(BlogQuery query);
+
+  Author selectAuthor(int id);
+
+  int insertPost(Post post);
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a select answered by the first level (session) cache and by the second level (namespace) cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheBenchmark {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private SqlSession sqlSession;
+  private BlogMapper mapper;
+
+  @Setup
+  public void setup() throws SQLException {
+    Configuration configuration = BenchmarkDatabase.newConfiguration("cache");
+    sqlSessionFactory = BenchmarkDatabase.newSqlSessionFactory(configuration);
+    sqlSession = sqlSessionFactory.openSession();
+    mapper = sqlSession.getMapper(BlogMapper.class);
+    mapper.selectBlog(1);
+    // 提交后查询结果才会放入二级缓存
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(CachedBlogMapper.class).selectBlog(1);
+      session.commit();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    sqlSession.close();
+  }
+
+  @Benchmark
+  public Blog firstLevelCacheHit() {
+    return mapper.selectBlog(1);
+  }
+
+  /**
+   * Includes opening and closing a session, as a second level cache hit is only useful across sessions.
+   */
+  @Benchmark
+  public Blog secondLevelCacheHit() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      return session.getMapper(CachedBlogMapper.class).selectBlog(1);
+    }
+  }
+
+}
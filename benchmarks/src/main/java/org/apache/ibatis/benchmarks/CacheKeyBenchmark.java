@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building and comparing cache keys the way the executor builds query keys and the result set handler builds
+ * the row keys of nested result maps. {@link ResultMappingBenchmark} measures the same row keys end to end.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheKeyBenchmark {
+
+  private static final String STATEMENT_ID = "org.apache.ibatis.benchmarks.BlogMapper.selectBlogsWithPosts";
+  private static final String SQL = "select id, title, author_id from blog where id = ?";
+
+  private CacheKey queryKey;
+  private CacheKey rowKey;
+  private CacheKey parentRowKey;
+  // 和 DefaultResultSetHandler 的 nestedResultObjects 一样，以组合后的行键查找已经创建的嵌套对象
+  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+
+  @Setup
+  public void setup() {
+    queryKey = newQueryKey(1);
+    rowKey = newRowKey(1);
+    parentRowKey = newRowKey(1);
+    for (int i = 1; i <= BenchmarkDatabase.POSTS_PER_BLOG; i++) {
+      nestedResultObjects.put(combineKeys(newPostRowKey(i), parentRowKey), i);
+    }
+  }
+
+  @Benchmark
+  public boolean queryKey() {
+    return newQueryKey(1).equals(queryKey);
+  }
+
+  @Benchmark
+  public boolean rowKey() {
+    return newRowKey(1).equals(rowKey);
+  }
+
+  @Benchmark
+  public Object combinedRowKey() {
+    return nestedResultObjects.get(combineKeys(newPostRowKey(BenchmarkDatabase.POSTS_PER_BLOG), parentRowKey));
+  }
+
+  private static CacheKey newQueryKey(int id) {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.update(STATEMENT_ID);
+    cacheKey.update(0);
+    cacheKey.update(Integer.MAX_VALUE);
+    cacheKey.update(SQL);
+    cacheKey.update(id);
+    cacheKey.update("benchmark");
+    return cacheKey;
+  }
+
+  private static CacheKey newRowKey(int id) {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.update("mapper_resultMap[blogWithPostsMap]");
+    cacheKey.update("ID");
+    cacheKey.update(Integer.valueOf(id));
+    return cacheKey;
+  }
+
+  private static CacheKey newPostRowKey(int id) {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.update("mapper_resultMap[blogWithPostsMap_collection[posts]]");
+    cacheKey.update("P_ID");
+    cacheKey.update(Integer.valueOf(id));
+    return cacheKey;
+  }
+
+  /**
+   * 和 DefaultResultSetHandler.combineKeys 相同，嵌套的行键复制后追加父对象的行键
+   */
+  private static CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
+    try {
+      CacheKey combinedKey = rowKey.clone();
+      combinedKey.update(parentRowKey);
+      return combinedKey;
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generation of a dynamic SQL statement with {@code <where>}, {@code <if>} and {@code <foreach>}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicSqlBenchmark {
+
+  @Param({"0", "64"})
+  public int dynamicSqlPlanCacheSize;
+
+  private MappedStatement mappedStatement;
+  private BlogQuery query;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlPlanCacheSize(dynamicSqlPlanCacheSize);
+    configuration.addMapper(BlogMapper.class);
+    mappedStatement = configuration.getMappedStatement("org.apache.ibatis.benchmarks.BlogMapper.findBlogs");
+    query = new BlogQuery();
+    query.setTitle("blog%");
+    query.setAuthorIds(Arrays.asList(1, 2, 3, 4, 5));
+  }
+
+  @Benchmark
+  public BoundSql getBoundSql() {
+    return mappedStatement.getBoundSql(query);
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures selecting the blogs with a lazy loaded author and then loading every author.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LazyLoadingBenchmark {
+
+  private SqlSession sqlSession;
+  private BlogMapper mapper;
+
+  @Setup
+  public void setup() throws SQLException {
+    Configuration configuration = BenchmarkDatabase.newConfiguration("lazyLoading");
+    configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    configuration.setAggressiveLazyLoading(false);
+    sqlSession = BenchmarkDatabase.newSqlSessionFactory(configuration).openSession();
+    mapper = sqlSession.getMapper(BlogMapper.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    sqlSession.close();
+  }
+
+  @Benchmark
+  public int selectAndLoadAuthors() {
+    List<Blog> blogs = mapper.selectLazyBlogs();
+    int loaded = 0;
+    for (Blog blog : blogs) {
+      if (blog.getAuthor() != null) {
+        loaded++;
+      }
+    }
+    return loaded;
+  }
+
+}
@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.binding.MapperProxyFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the mapper proxy dispatch alone, the session returns a constant instead of querying the database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperProxyBenchmark {
+
+  private static final Blog BLOG = new Blog();
+
+  private BlogMapper mapper;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new Configuration();
+    configuration.addMapper(BlogMapper.class);
+    SqlSession sqlSession = (SqlSession) Proxy.newProxyInstance(SqlSession.class.getClassLoader(),
+        new Class<?>[] {SqlSession.class},
+        (proxy, method, args) -> "getConfiguration".equals(method.getName()) ? configuration : BLOG);
+    mapper = new MapperProxyFactory<>(BlogMapper.class).newInstance(sqlSession);
+  }
+
+  @Benchmark
+  public Blog selectOne() {
+    return mapper.selectBlog(1);
+  }
+
+}
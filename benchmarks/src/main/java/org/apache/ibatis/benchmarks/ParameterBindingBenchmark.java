@@ -0,0 +1,83 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures binding the parameters of an insert to a prepared statement, with and without compiled parameter binders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParameterBindingBenchmark {
+
+  @Param({"false", "true"})
+  public boolean compiledParameterBinders;
+
+  private Connection connection;
+  private PreparedStatement statement;
+  private MappedStatement mappedStatement;
+  private BoundSql boundSql;
+  private Post post;
+
+  @Setup
+  public void setup() throws SQLException {
+    Configuration configuration = BenchmarkDatabase.newConfiguration("parameterBinding");
+    configuration.setCompiledParameterBindersEnabled(compiledParameterBinders);
+    mappedStatement = configuration.getMappedStatement("org.apache.ibatis.benchmarks.BlogMapper.insertPost");
+    post = BenchmarkDatabase.newPost(1);
+    boundSql = mappedStatement.getBoundSql(post);
+    connection = configuration.getEnvironment().getDataSource().getConnection();
+    statement = connection.prepareStatement(boundSql.getSql());
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    statement.close();
+    connection.close();
+  }
+
+  @Benchmark
+  public PreparedStatement setParameters() {
+    new DefaultParameterHandler(mappedStatement, post, boundSql).setParameters(statement);
+    return statement;
+  }
+
+}
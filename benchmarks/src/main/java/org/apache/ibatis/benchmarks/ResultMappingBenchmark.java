@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures mapping all the blogs with a flat result map and with a nested result map joining authors and posts.
+ * Without ids the row keys of the nested result map are built from every mapped column.
+ * The local cache is scoped to the statement so every call reads the result set.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultMappingBenchmark {
+
+  @Param({"simple", "nested", "nestedWithoutIds"})
+  public String resultMap;
+
+  @Param({"false", "true"})
+  public boolean compiledRowMappers;
+
+  private SqlSession sqlSession;
+  private String statement;
+
+  @Setup
+  public void setup() throws SQLException {
+    Configuration configuration = BenchmarkDatabase.newConfiguration("resultMapping");
+    configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    configuration.setCompiledRowMappersEnabled(compiledRowMappers);
+    sqlSession = BenchmarkDatabase.newSqlSessionFactory(configuration).openSession();
+    if ("simple".equals(resultMap)) {
+      statement = "org.apache.ibatis.benchmarks.BlogMapper.selectBlogs";
+    } else if ("nested".equals(resultMap)) {
+      statement = "org.apache.ibatis.benchmarks.BlogMapper.selectBlogsWithPosts";
+    } else {
+      statement = "org.apache.ibatis.benchmarks.BlogMapper.selectBlogsWithPostsWithoutIds";
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    sqlSession.close();
+  }
+
+  @Benchmark
+  public List<Blog> selectList() {
+    return sqlSession.selectList(statement);
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -63,4 +63,21 @@ public @interface Many {
    */
   FetchType fetchType() default FetchType.DEFAULT;
 
+  /**
+   * Returns the statement id that retrieves the collections of many parent rows at once. The statement receives the list of
+   * column values, and {@link #batchKeyProperty()} is used to assign the results back to their parents.
+   *
+   * @return the statement id
+   * @since 3.5.7
+   */
+  String batchSelect() default "";
+
+  /**
+   * Returns the property of the results of {@link #batchSelect()} that holds the column value of the parent row.
+   *
+   * @return the property name
+   * @since 3.5.7
+   */
+  String batchKeyProperty() default "";
+
 }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -101,6 +101,27 @@ public @interface Options {
    */
   int timeout() default -1;
 
+  /**
+   * Returns the maximum number of calls the batch executor buffers for this statement before it flushes.
+   *
+   * @return the batch size, 0 or less to use the default batch size of the configuration
+   * @since 3.5.7
+   */
+  int batchSize() default -1;
+
+  /**
+   * Returns whether the rows of a select are read in streaming mode.
+   * <p>
+   * The streaming hint registered for the database id is applied to the statement and the fetch size adapts to the
+   * observed row width and row count. When a {@link org.apache.ibatis.session.ResultHandler} or a
+   * {@link org.apache.ibatis.cursor.Cursor} is used, a nested result map is handled as if {@code resultOrdered} was
+   * set and does not retain the previous rows.
+   *
+   * @return {@code true} if streaming; {@code false} if otherwise
+   * @since 3.5.7
+   */
+  boolean streaming() default false;
+
   /**
    * Returns whether use the generated keys feature supported by JDBC 3.0
    *
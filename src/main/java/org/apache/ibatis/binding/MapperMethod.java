@@ -21,10 +21,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.reactive.CursorPublisher;
+import org.apache.ibatis.cursor.reactive.Publisher;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -35,6 +39,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 /**
  * @author Clinton Begin
@@ -59,6 +64,49 @@ public class MapperMethod {
     this.command = new SqlCommand(config, mapperInterface, method);
     // 方法签名
     this.method = new MethodSignature(config, mapperInterface, method);
+    if (this.method.returnsPublisher() && command.getType() != SqlCommandType.SELECT) {
+      throw new BindingException("Mapper method '" + command.getName() + "' returns a Publisher but is not a select statement.");
+    }
+  }
+
+  /**
+   * Returns whether the mapper method is asynchronous, see {@link MethodSignature#returnsFuture()}.
+   *
+   * @return {@code true} if the method returns a {@code CompletableFuture} or a {@code CompletionStage}
+   * @since 3.5.7
+   */
+  public boolean returnsFuture() {
+    return method.returnsFuture();
+  }
+
+  /**
+   * Returns whether the mapper method streams its rows, see {@link MethodSignature#returnsPublisher()}.
+   *
+   * @return {@code true} if the method returns a {@link Publisher}
+   * @since 3.5.7
+   */
+  public boolean returnsPublisher() {
+    return method.returnsPublisher();
+  }
+
+  /**
+   * Creates the publisher returned by a mapper method that {@link #returnsPublisher() returns a Publisher}. The rows are
+   * read through a cursor in a session of its own, on the given executor.
+   *
+   * @param <T> the item type
+   * @param sqlSessionFactory
+   *          the factory of the session that reads the rows
+   * @param executor
+   *          the executor that fetches the rows
+   * @param args
+   *          the arguments of the mapper method
+   * @return the publisher
+   * @since 3.5.7
+   */
+  public <T> Publisher<T> executeForPublisher(SqlSessionFactory sqlSessionFactory, java.util.concurrent.Executor executor, Object[] args) {
+    Object param = method.convertArgsToSqlCommandParam(args);
+    RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+    return new CursorPublisher<>(sqlSessionFactory, command.getName(), param, rowBounds, executor);
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
@@ -334,6 +382,10 @@ public class MapperMethod {
     private final boolean returnsCursor;
     // 返回值类型为 Optional
     private final boolean returnsOptional;
+    // 返回值类型为 CompletableFuture 或 CompletionStage，此时其他属性都按照其中的值类型计算
+    private final boolean returnsFuture;
+    // 返回值类型为 Publisher
+    private final boolean returnsPublisher;
     // 返回值类型
     private final Class<?> returnType;
     // mapKey的值
@@ -349,15 +401,21 @@ public class MapperMethod {
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       // 首先获取方法的返回值类型
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
+      // 如果是异步方法，则取出 CompletableFuture 中的值类型
+      this.returnsFuture = isFutureType(method.getReturnType());
+      if (returnsFuture) {
+        resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+          ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+      }
       if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
       } else if (resolvedReturnType instanceof ParameterizedType) {
         this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
       } else {
-        this.returnType = method.getReturnType();
+        this.returnType = returnsFuture ? Object.class : method.getReturnType();
       }
-      // 是否返回的是 void
-      this.returnsVoid = void.class.equals(this.returnType);
+      // 是否返回的是 void，异步方法可以用 CompletableFuture<Void> 表示没有返回值
+      this.returnsVoid = void.class.equals(this.returnType) || (returnsFuture && Void.class.equals(this.returnType));
       // 是否返回的是集合或数组
       this.returnsMany =
         configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
@@ -365,6 +423,13 @@ public class MapperMethod {
       this.returnsCursor = Cursor.class.equals(this.returnType);
       // 是否返回的是 optional
       this.returnsOptional = Optional.class.equals(this.returnType);
+      // 是否返回的是 Publisher
+      this.returnsPublisher = Publisher.class.equals(this.returnType);
+      if (returnsFuture && (returnsCursor || returnsPublisher)) {
+        // 游标会随着异步方法的会话一起关闭
+        throw new BindingException("Mapper method '" + mapperInterface.getName() + "." + method.getName()
+          + "' can not return a " + this.returnType.getSimpleName() + " asynchronously.");
+      }
       // 得到 MapKey
       this.mapKey = getMapKey(method);
       // 如果存在 MapKey 说明返回值类型是 Map
@@ -455,6 +520,40 @@ public class MapperMethod {
       return returnsOptional;
     }
 
+    /**
+     * Returns whether the return type is {@code java.util.concurrent.CompletableFuture} or
+     * {@code java.util.concurrent.CompletionStage}. The other properties of the signature then describe the value type
+     * of the future.
+     *
+     * @return {@code true}, if the method is executed asynchronously
+     * @since 3.5.7
+     */
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
+    /**
+     * Returns whether the return type is {@link Publisher}, the rows are then streamed from a cursor.
+     *
+     * @return {@code true}, if return type is {@link Publisher}
+     * @since 3.5.7
+     */
+    public boolean returnsPublisher() {
+      return returnsPublisher;
+    }
+
+    /**
+     * Returns whether the given return type makes a mapper method asynchronous.
+     *
+     * @param type
+     *          the declared return type
+     * @return {@code true} if the type is {@code CompletableFuture} or {@code CompletionStage}
+     * @since 3.5.7
+     */
+    public static boolean isFutureType(Class<?> type) {
+      return CompletableFuture.class.equals(type) || CompletionStage.class.equals(type);
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
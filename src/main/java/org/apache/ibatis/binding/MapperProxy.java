@@ -23,9 +23,14 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 
 /**
  * @author Clinton Begin
@@ -138,8 +143,14 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
           }
         } else {
           // 如果不是默认方法，说明是一个需要映射的方法，即我们常用的 userMapper.getById 这种。
-          return new PlainMethodInvoker(
-            new MapperMethod(mapperInterface, method, sqlSession.getConfiguration()));
+          MapperMethod mapperMethod = new MapperMethod(mapperInterface, method, sqlSession.getConfiguration());
+          // 返回 CompletableFuture 或者 Publisher 的方法在其他线程中执行
+          if (mapperMethod.returnsFuture()) {
+            return new AsyncMethodInvoker(mapperMethod);
+          } else if (mapperMethod.returnsPublisher()) {
+            return new PublisherMethodInvoker(mapperMethod);
+          }
+          return new PlainMethodInvoker(mapperMethod);
         }
       });
     } catch (RuntimeException re) {
@@ -203,6 +214,57 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
     }
   }
 
+  /**
+   * 用来执行 Mapper 中返回 CompletableFuture 的映射方法
+   * <p>
+   * 每次调用都会在线程池中打开一个新的会话，执行完成后提交并关闭，所以不会参与创建 Mapper 的会话的事务
+   */
+  private static class AsyncMethodInvoker implements MapperMethodInvoker {
+
+    private final MapperMethod mapperMethod;
+
+    public AsyncMethodInvoker(MapperMethod mapperMethod) {
+      super();
+      this.mapperMethod = mapperMethod;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args, SqlSession sqlSession) {
+      final Configuration configuration = sqlSession.getConfiguration();
+      final SqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+      return CompletableFuture.supplyAsync(() -> {
+        try (SqlSession session = sqlSessionFactory.openSession()) {
+          Object result = mapperMethod.execute(session, args);
+          session.commit();
+          return result;
+        }
+      }, asyncExecutor(configuration));
+    }
+  }
+
+  /**
+   * 用来执行 Mapper 中返回 Publisher 的映射方法，在订阅者请求数据时才会在线程池中打开会话和游标
+   */
+  private static class PublisherMethodInvoker implements MapperMethodInvoker {
+
+    private final MapperMethod mapperMethod;
+
+    public PublisherMethodInvoker(MapperMethod mapperMethod) {
+      super();
+      this.mapperMethod = mapperMethod;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args, SqlSession sqlSession) {
+      final Configuration configuration = sqlSession.getConfiguration();
+      return mapperMethod.executeForPublisher(new DefaultSqlSessionFactory(configuration), asyncExecutor(configuration), args);
+    }
+  }
+
+  private static Executor asyncExecutor(Configuration configuration) {
+    return configuration.getAsyncExecutor() == null ? configuration.getDefaultAsyncExecutor() : configuration.getAsyncExecutor();
+  }
+
   /**
    * 通过反射执行 Mapper 中的默认方法，或者是 Object 的方法
    */
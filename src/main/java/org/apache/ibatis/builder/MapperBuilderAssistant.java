@@ -296,7 +296,9 @@ public class MapperBuilderAssistant extends BaseBuilder {
     String keyColumn,
     String databaseId,
     LanguageDriver lang,
-    String resultSets) {
+    String resultSets,
+    Integer batchSize,
+    boolean streaming) {
 
     if (unresolvedCacheRef) {
       throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -310,6 +312,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
       .resource(resource)
       .fetchSize(fetchSize)
       .timeout(timeout)
+      .batchSize(batchSize)
       .statementType(statementType)
       .keyGenerator(keyGenerator)
       .keyProperty(keyProperty)
@@ -317,6 +320,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
       .databaseId(databaseId)
       .lang(lang)
       .resultOrdered(resultOrdered)
+      .streaming(streaming)
       .resultSets(resultSets)
       .resultMaps(getStatementResultMaps(resultMap, resultType, id))
       .resultSetType(resultSetType)
@@ -334,6 +338,81 @@ public class MapperBuilderAssistant extends BaseBuilder {
     return statement;
   }
 
+  /**
+   * Backward compatibility signature 'addMappedStatement'.
+   *
+   * @param id             the id
+   * @param sqlSource      the sql source
+   * @param statementType  the statement type
+   * @param sqlCommandType the sql command type
+   * @param fetchSize      the fetch size
+   * @param timeout        the timeout
+   * @param parameterMap   the parameter map
+   * @param parameterType  the parameter type
+   * @param resultMap      the result map
+   * @param resultType     the result type
+   * @param resultSetType  the result set type
+   * @param flushCache     the flush cache
+   * @param useCache       the use cache
+   * @param resultOrdered  the result ordered
+   * @param keyGenerator   the key generator
+   * @param keyProperty    the key property
+   * @param keyColumn      the key column
+   * @param databaseId     the database id
+   * @param lang           the lang
+   * @param resultSets     the result sets
+   * @param batchSize      the batch size
+   * @return the mapped statement
+   */
+  public MappedStatement addMappedStatement(String id, SqlSource sqlSource, StatementType statementType,
+    SqlCommandType sqlCommandType, Integer fetchSize, Integer timeout, String parameterMap, Class<?> parameterType,
+    String resultMap, Class<?> resultType, ResultSetType resultSetType, boolean flushCache, boolean useCache,
+    boolean resultOrdered, KeyGenerator keyGenerator, String keyProperty, String keyColumn, String databaseId,
+    LanguageDriver lang, String resultSets, Integer batchSize) {
+    return addMappedStatement(
+      id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+      parameterMap, parameterType, resultMap, resultType, resultSetType,
+      flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+      keyColumn, databaseId, lang, resultSets, batchSize, false);
+  }
+
+  /**
+   * Backward compatibility signature 'addMappedStatement'.
+   *
+   * @param id             the id
+   * @param sqlSource      the sql source
+   * @param statementType  the statement type
+   * @param sqlCommandType the sql command type
+   * @param fetchSize      the fetch size
+   * @param timeout        the timeout
+   * @param parameterMap   the parameter map
+   * @param parameterType  the parameter type
+   * @param resultMap      the result map
+   * @param resultType     the result type
+   * @param resultSetType  the result set type
+   * @param flushCache     the flush cache
+   * @param useCache       the use cache
+   * @param resultOrdered  the result ordered
+   * @param keyGenerator   the key generator
+   * @param keyProperty    the key property
+   * @param keyColumn      the key column
+   * @param databaseId     the database id
+   * @param lang           the lang
+   * @param resultSets     the result sets
+   * @return the mapped statement
+   */
+  public MappedStatement addMappedStatement(String id, SqlSource sqlSource, StatementType statementType,
+    SqlCommandType sqlCommandType, Integer fetchSize, Integer timeout, String parameterMap, Class<?> parameterType,
+    String resultMap, Class<?> resultType, ResultSetType resultSetType, boolean flushCache, boolean useCache,
+    boolean resultOrdered, KeyGenerator keyGenerator, String keyProperty, String keyColumn, String databaseId,
+    LanguageDriver lang, String resultSets) {
+    return addMappedStatement(
+      id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+      parameterMap, parameterType, resultMap, resultType, resultSetType,
+      flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+      keyColumn, databaseId, lang, resultSets, null);
+  }
+
   /**
    * Backward compatibility signature 'addMappedStatement'.
    *
@@ -465,6 +544,35 @@ public class MapperBuilderAssistant extends BaseBuilder {
     String resultSet,
     String foreignColumn,
     boolean lazy) {
+    return buildResultMapping(resultType, property, column, javaType, jdbcType, nestedSelect, nestedResultMap,
+      notNullColumn, columnPrefix, typeHandler, flags, resultSet, foreignColumn, lazy, null, null);
+  }
+
+  /**
+   * Builds a result mapping whose nested select can be loaded for many parent rows at once.
+   *
+   * @param batchSelect      the statement that loads the nested results of a list of column values
+   * @param batchKeyProperty the property of the nested results that holds the column value of the parent
+   * @return the result mapping
+   * @since 3.5.7
+   */
+  public ResultMapping buildResultMapping(
+    Class<?> resultType,
+    String property,
+    String column,
+    Class<?> javaType,
+    JdbcType jdbcType,
+    String nestedSelect,
+    String nestedResultMap,
+    String notNullColumn,
+    String columnPrefix,
+    Class<? extends TypeHandler<?>> typeHandler,
+    List<ResultFlag> flags,
+    String resultSet,
+    String foreignColumn,
+    boolean lazy,
+    String batchSelect,
+    String batchKeyProperty) {
     // 要设置的 Java 类型
     Class<?> javaTypeClass = resolveResultJavaType(resultType, property, javaType);
     // 得到类型处理器
@@ -488,6 +596,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
       .columnPrefix(columnPrefix)
       .foreignColumn(foreignColumn)
       .lazy(lazy)
+      .batchSelectId(applyCurrentNamespace(batchSelect, true))
+      .batchKeyProperty(batchKeyProperty)
       .build();
   }
 
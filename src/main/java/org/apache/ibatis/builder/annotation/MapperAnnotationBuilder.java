@@ -57,6 +57,7 @@ import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.annotations.TypeDiscriminator;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.UpdateProvider;
+import org.apache.ibatis.binding.MapperMethod.MethodSignature;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
@@ -64,6 +65,7 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.reactive.Publisher;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -370,6 +372,8 @@ public class MapperAnnotationBuilder {
       // 初始化配置参数，如果有 Options 注解，则注解中的配置优先级更高
       Integer fetchSize = null;
       Integer timeout = null;
+      Integer batchSize = null;
+      boolean streaming = false;
       StatementType statementType = StatementType.PREPARED;
       ResultSetType resultSetType = configuration.getDefaultResultSetType();
       boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
@@ -386,6 +390,8 @@ public class MapperAnnotationBuilder {
           options.fetchSize() > -1 || options.fetchSize() == Integer.MIN_VALUE ? options.fetchSize()
             : null; //issue #348
         timeout = options.timeout() > -1 ? options.timeout() : null;
+        batchSize = options.batchSize() > 0 ? options.batchSize() : null;
+        streaming = options.streaming();
         statementType = options.statementType();
         if (options.resultSetType() != ResultSetType.DEFAULT) {
           resultSetType = options.resultSetType();
@@ -426,7 +432,9 @@ public class MapperAnnotationBuilder {
         statementAnnotation.getDatabaseId(),
         languageDriver,
         // ResultSets
-        options != null ? nullOrEmpty(options.resultSets()) : null);
+        options != null ? nullOrEmpty(options.resultSets()) : null,
+        batchSize,
+        streaming);
     });
   }
 
@@ -462,6 +470,12 @@ public class MapperAnnotationBuilder {
   private Class<?> getReturnType(Method method) {
     Class<?> returnType = method.getReturnType();
     Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+    if (MethodSignature.isFutureType(returnType)) {
+      // 异步方法按照 CompletableFuture 中的值类型解析
+      returnType = Object.class;
+      resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+        ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+    }
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
@@ -477,7 +491,8 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+          || Publisher.class.isAssignableFrom(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
@@ -542,7 +557,9 @@ public class MapperAnnotationBuilder {
         flags,
         null,
         null,
-        isLazy(result));
+        isLazy(result),
+        batchSelectId(result),
+        batchKeyProperty(result));
       resultMappings.add(resultMapping);
     }
   }
@@ -584,6 +601,28 @@ public class MapperAnnotationBuilder {
     return nestedSelect;
   }
 
+  private String batchSelectId(Result result) {
+    String batchSelect = result.one().batchSelect();
+    if (batchSelect.length() < 1) {
+      batchSelect = result.many().batchSelect();
+    }
+    if (batchSelect.length() < 1) {
+      return null;
+    }
+    if (!batchSelect.contains(".")) {
+      batchSelect = type.getName() + "." + batchSelect;
+    }
+    return batchSelect;
+  }
+
+  private String batchKeyProperty(Result result) {
+    String batchKeyProperty = result.one().batchKeyProperty();
+    if (batchKeyProperty.length() < 1) {
+      batchKeyProperty = result.many().batchKeyProperty();
+    }
+    return nullOrEmpty(batchKeyProperty);
+  }
+
   private boolean isLazy(Result result) {
     boolean isLazy = configuration.isLazyLoadingEnabled();
     if (result.one().select().length() > 0 && FetchType.DEFAULT != result.one().fetchType()) {
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -38,12 +39,14 @@ import org.apache.ibatis.reflection.DefaultReflectorFactory;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.ParallelBatchCommitMode;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
 
@@ -116,6 +119,8 @@ public class XMLConfigBuilder extends BaseBuilder {
       loadCustomLogImpl(settings);
       // 解析并加载 <typeAliases> 节点
       typeAliasesElement(root.evalNode("typeAliases"));
+      // 加载用户设置的语句指标监听器
+      loadStatementMetricsListener(settings);
       // 解析并加载 <plugins> 节点
       pluginElement(root.evalNode("plugins"));
 
@@ -180,6 +185,13 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setLogImpl(logImpl);
   }
 
+  private void loadStatementMetricsListener(Properties props) throws Exception {
+    Class<? extends StatementMetricsListener> listenerType = resolveClass(props.getProperty("statementMetricsListener"));
+    if (listenerType != null) {
+      configuration.setStatementMetricsListener(listenerType.getDeclaredConstructor().newInstance());
+    }
+  }
+
   private void typeAliasesElement(XNode parent) {
     if (parent != null) {
       for (XNode child : parent.getChildren()) {
@@ -271,6 +283,9 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.valueOf(props.getProperty("autoMappingUnknownColumnBehavior", "NONE")));
     configuration.setCacheEnabled(booleanValueOf(props.getProperty("cacheEnabled"), true));
     configuration.setProxyFactory((ProxyFactory) createInstance(props.getProperty("proxyFactory")));
+    if (props.getProperty("invokerFactory") != null) {
+      configuration.setInvokerFactory((InvokerFactory) createInstance(props.getProperty("invokerFactory")));
+    }
     configuration.setLazyLoadingEnabled(booleanValueOf(props.getProperty("lazyLoadingEnabled"), false));
     configuration.setAggressiveLazyLoading(booleanValueOf(props.getProperty("aggressiveLazyLoading"), false));
     configuration.setMultipleResultSetsEnabled(booleanValueOf(props.getProperty("multipleResultSetsEnabled"), true));
@@ -279,6 +294,15 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setDefaultBatchSize(integerValueOf(props.getProperty("defaultBatchSize"), null));
+    configuration.setMaxBatchBufferedBytes(longValueOf(props.getProperty("maxBatchBufferedBytes"), 0L));
+    configuration.setRetainBatchParameterObjects(booleanValueOf(props.getProperty("retainBatchParameterObjects"), true));
+    configuration.setMultiRowInsertEnabled(booleanValueOf(props.getProperty("multiRowInsertEnabled"), false));
+    configuration.setMaxParametersPerStatement(integerValueOf(props.getProperty("maxParametersPerStatement"), 2000));
+    configuration.setParallelBatchThreads(integerValueOf(props.getProperty("parallelBatchThreads"), 4));
+    configuration.setNestedSelectBatchSize(integerValueOf(props.getProperty("nestedSelectBatchSize"), 100));
+    configuration.setStreamingFetchBufferSize(integerValueOf(props.getProperty("streamingFetchBufferSize"), 1024 * 1024));
+    configuration.setParallelBatchCommitMode(ParallelBatchCommitMode.valueOf(props.getProperty("parallelBatchCommitMode", "PER_CONNECTION")));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
@@ -294,6 +318,13 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setLogPrefix(props.getProperty("logPrefix"));
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
     configuration.setShrinkWhitespacesInSql(booleanValueOf(props.getProperty("shrinkWhitespacesInSql"), false));
+    configuration.setDynamicSqlPlanCacheSize(integerValueOf(props.getProperty("dynamicSqlPlanCacheSize"), 0));
+    configuration.setCompiledExpressionsEnabled(booleanValueOf(props.getProperty("compiledExpressionsEnabled"), false));
+    configuration.setCompiledRowMappersEnabled(booleanValueOf(props.getProperty("compiledRowMappersEnabled"), false));
+    configuration.setCompiledRowMapperCacheSize(integerValueOf(props.getProperty("compiledRowMapperCacheSize"), 1024));
+    configuration.setCompiledParameterBindersEnabled(booleanValueOf(props.getProperty("compiledParameterBindersEnabled"), false));
+    configuration.setComposedPluginsEnabled(booleanValueOf(props.getProperty("composedPluginsEnabled"), false));
+    configuration.setBatchReorderingEnabled(booleanValueOf(props.getProperty("batchReorderingEnabled"), false));
     configuration.setDefaultSqlProviderType(resolveClass(props.getProperty("defaultSqlProviderType")));
   }
 
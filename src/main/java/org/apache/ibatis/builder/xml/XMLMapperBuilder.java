@@ -460,13 +460,16 @@ public class XMLMapperBuilder extends BaseBuilder {
     // 是否开启懒加载
     boolean lazy = "lazy".equals(context
       .getStringAttribute("fetchType", configuration.isLazyLoadingEnabled() ? "lazy" : "eager"));
+    // 批量加载的嵌套查询，以及子对象中保存父对象 column 值的属性
+    String batchSelect = context.getStringAttribute("batchSelect");
+    String batchKeyProperty = context.getStringAttribute("batchKeyProperty");
     Class<?> javaTypeClass = resolveClass(javaType);
     Class<? extends TypeHandler<?>> typeHandlerClass = resolveClass(typeHandler);
     JdbcType jdbcTypeEnum = resolveJdbcType(jdbcType);
     return builderAssistant
       .buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect,
         nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resultSet,
-        foreignColumn, lazy);
+        foreignColumn, lazy, batchSelect, batchKeyProperty);
   }
 
   private String processNestedResultMappings(XNode context, List<ResultMapping> resultMappings,
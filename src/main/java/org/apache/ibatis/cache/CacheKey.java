@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -16,8 +16,7 @@
 package org.apache.ibatis.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import org.apache.ibatis.reflection.ArrayUtil;
@@ -27,7 +26,7 @@ import org.apache.ibatis.reflection.ArrayUtil;
  */
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1146682552656046210L;
+  private static final long serialVersionUID = -1940426375183208052L;
 
   public static final CacheKey NULL_CACHE_KEY = new CacheKey() {
 
@@ -36,6 +35,16 @@ public class CacheKey implements Cloneable, Serializable {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
 
+    @Override
+    public void update(int value) {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
+
+    @Override
+    public void update(long value) {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
+
     @Override
     public void updateAll(Object[] objects) {
       throw new CacheException("Not allowed to update a null cache key instance.");
@@ -50,6 +59,10 @@ public class CacheKey implements Cloneable, Serializable {
    * 默认的 HashCode
    */
   private static final int DEFAULT_HASHCODE = 17;
+  /**
+   * 默认能容纳的对象个数
+   */
+  private static final int DEFAULT_CAPACITY = 8;
 
   // 当前 cacheKey 的乘数
   private final int multiplier;
@@ -59,35 +72,69 @@ public class CacheKey implements Cloneable, Serializable {
   private long checksum;
   // 由多少个对象组成
   private int count;
-  // 存储所有请求参数对象
-  private List<Object> updateList;
+  // 存储所有请求参数对象，int 和 long 类型的值存储为 Primitive 标记，值保存在 primitives 的相同位置
+  private Object[] components;
+  // int 和 long 类型的值，第一次更新这两种类型的值时才会创建
+  private long[] primitives;
 
   public CacheKey() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty cache key that can hold the given number of objects without growing.
+   *
+   * @param initialCapacity
+   *          the expected number of updates
+   * @since 3.5.7
+   */
+  public CacheKey(int initialCapacity) {
     this.hashcode = DEFAULT_HASHCODE;
     this.multiplier = DEFAULT_MULTIPLIER;
     this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.components = new Object[Math.max(initialCapacity, 1)];
   }
 
   public CacheKey(Object[] objects) {
-    this();
+    this(objects.length);
     updateAll(objects);
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
-    int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
-
-    count++;
-    checksum += baseHashCode;
-    baseHashCode *= count;
+    // 包装类型和基本类型使用相同的存储方式，保证两种方式更新得到的 cacheKey 相等
+    if (object instanceof Integer) {
+      update(((Integer) object).intValue());
+    } else if (object instanceof Long) {
+      update(((Long) object).longValue());
+    } else {
+      append(object, 0, object == null ? 1 : ArrayUtil.hashCode(object));
+    }
+  }
 
-    hashcode = multiplier * hashcode + baseHashCode;
+  /**
+   * Updates the key with an int value without boxing it. Equivalent to updating with an {@link Integer}.
+   *
+   * @param value
+   *          the value
+   * @since 3.5.7
+   */
+  public void update(int value) {
+    append(Primitive.INT, value, Integer.hashCode(value));
+  }
 
-    updateList.add(object);
+  /**
+   * Updates the key with a long value without boxing it. Equivalent to updating with a {@link Long}.
+   *
+   * @param value
+   *          the value
+   * @since 3.5.7
+   */
+  public void update(long value) {
+    append(Primitive.LONG, value, Long.hashCode(value));
   }
 
   public void updateAll(Object[] objects) {
@@ -96,6 +143,27 @@ public class CacheKey implements Cloneable, Serializable {
     }
   }
 
+  private void append(Object component, long primitive, int baseHashCode) {
+    if (count == components.length) {
+      components = Arrays.copyOf(components, count << 1);
+    }
+    if (component instanceof Primitive) {
+      if (primitives == null) {
+        primitives = new long[components.length];
+      } else if (primitives.length < components.length) {
+        primitives = Arrays.copyOf(primitives, components.length);
+      }
+      primitives[count] = primitive;
+    }
+    components[count] = component;
+
+    count++;
+    checksum += baseHashCode;
+    baseHashCode *= count;
+
+    hashcode = multiplier * hashcode + baseHashCode;
+  }
+
   @Override
   public boolean equals(Object object) {
     if (this == object) {
@@ -117,10 +185,15 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
-      if (!ArrayUtil.equals(thisObject, thatObject)) {
+    final Object[] thatComponents = cacheKey.components;
+    for (int i = 0; i < count; i++) {
+      Object thisObject = components[i];
+      Object thatObject = thatComponents[i];
+      if (thisObject instanceof Primitive) {
+        if (thisObject != thatObject || primitives[i] != cacheKey.primitives[i]) {
+          return false;
+        }
+      } else if (!ArrayUtil.equals(thisObject, thatObject)) {
         return false;
       }
     }
@@ -137,15 +210,28 @@ public class CacheKey implements Cloneable, Serializable {
     StringJoiner returnValue = new StringJoiner(":");
     returnValue.add(String.valueOf(hashcode));
     returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    for (int i = 0; i < count; i++) {
+      returnValue.add(components[i] instanceof Primitive ? String.valueOf(primitives[i]) : ArrayUtil.toString(components[i]));
+    }
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    // 多留一个位置，克隆后通常还会再更新一次（例如合并嵌套结果的 cacheKey）
+    clonedCacheKey.components = Arrays.copyOf(components, count + 1);
+    if (primitives != null) {
+      clonedCacheKey.primitives = Arrays.copyOf(primitives, count + 1);
+    }
     return clonedCacheKey;
   }
 
+  /**
+   * 基本类型值的标记
+   */
+  private enum Primitive {
+    INT, LONG
+  }
+
 }
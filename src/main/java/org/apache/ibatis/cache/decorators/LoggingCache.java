@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -29,9 +31,15 @@ public class LoggingCache implements Cache {
   // 日志记录工具
   private final Log log;
   private final Cache delegate;
-  // 请求次数
-  protected int requests = 0;
+  // 请求次数，不使用 SynchronizedCache 装饰时也可能被多个线程同时访问，用 LongAdder 计数而不加锁
+  private final LongAdder requestCounter = new LongAdder();
   // 缓存命中次数
+  private final LongAdder hitCounter = new LongAdder();
+  /** @deprecated Use {@link #getRequestCount()}. */
+  @Deprecated
+  protected int requests = 0;
+  /** @deprecated Use {@link #getHitCount()}. */
+  @Deprecated
   protected int hits = 0;
 
   public LoggingCache(Cache delegate) {
@@ -56,10 +64,10 @@ public class LoggingCache implements Cache {
 
   @Override
   public Object getObject(Object key) {
-    requests++;
     final Object value = delegate.getObject(key);
+    requestCounter.increment();
     if (value != null) {
-      hits++;
+      hitCounter.increment();
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -67,6 +75,32 @@ public class LoggingCache implements Cache {
     return value;
   }
 
+  /**
+   * Returns the number of {@link #getObject(Object)} calls so far.
+   *
+   * @return the request count
+   * @since 3.5.7
+   */
+  @SuppressWarnings("deprecation")
+  public long getRequestCount() {
+    long count = requestCounter.sum();
+    requests = (int) count;
+    return count;
+  }
+
+  /**
+   * Returns the number of {@link #getObject(Object)} calls that found a value.
+   *
+   * @return the hit count
+   * @since 3.5.7
+   */
+  @SuppressWarnings("deprecation")
+  public long getHitCount() {
+    long count = hitCounter.sum();
+    hits = (int) count;
+    return count;
+  }
+
   @Override
   public Object removeObject(Object key) {
     return delegate.removeObject(key);
@@ -88,7 +122,9 @@ public class LoggingCache implements Cache {
   }
 
   private double getHitRatio() {
-    return (double) hits / (double) requests;
+    // 先读命中数再读请求数，并发时比例也不会超过 1
+    long hitCount = hitCounter.sum();
+    return (double) hitCount / (double) requestCounter.sum();
   }
 
 }
@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+/**
+ * 把缓存的值编码为字节数组的编解码器，用于 {@link OffHeapCache}。
+ * <p>
+ * 实现类必须是线程安全的，并且有一个无参的构造方法。
+ *
+ * @since 3.5.7
+ */
+public interface CacheCodec {
+
+  /**
+   * Encodes a cached value, which may be null.
+   *
+   * @param value
+   *          the value
+   * @return the encoded value
+   */
+  byte[] encode(Object value);
+
+  /**
+   * Decodes a value encoded by {@link #encode(Object)}, it must return a new copy on every call.
+   *
+   * @param bytes
+   *          the encoded value
+   * @return the value
+   */
+  Object decode(byte[] bytes);
+
+}
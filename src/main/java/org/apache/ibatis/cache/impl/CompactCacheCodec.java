@@ -0,0 +1,577 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * 紧凑的二进制编解码器。
+ * <p>
+ * 常用的值类型、常用的集合以及普通的 JavaBean 直接按字段写出，类名在一次编码中只写一次，数字使用变长编码。
+ * 其他对象（JDK 中的其他类型、定义了 writeReplace、readResolve、writeObject、readObject 的类，例如延迟加载的代理对象）
+ * 回退到 Java 序列化。和 {@link SerializableCacheCodec} 一样，只能编码实现了 {@link Serializable} 的对象。
+ *
+ * @since 3.5.7
+ */
+public class CompactCacheCodec implements CacheCodec {
+
+  private static final byte NULL = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte SHORT = 5;
+  private static final byte BYTE = 6;
+  private static final byte CHAR = 7;
+  private static final byte FLOAT = 8;
+  private static final byte DOUBLE = 9;
+  private static final byte STRING = 10;
+  private static final byte BIG_DECIMAL = 11;
+  private static final byte BIG_INTEGER = 12;
+  private static final byte DATE = 13;
+  private static final byte SQL_DATE = 14;
+  private static final byte SQL_TIME = 15;
+  private static final byte TIMESTAMP = 16;
+  private static final byte BYTES = 17;
+  private static final byte ENUM = 18;
+  private static final byte COLLECTION = 19;
+  private static final byte MAP = 20;
+  private static final byte BEAN = 21;
+  private static final byte REFERENCE = 22;
+  private static final byte JAVA = 23;
+
+  // 可以直接按元素写出的集合类型
+  private static final List<Class<?>> SIMPLE_COLLECTIONS = Arrays.asList(ArrayList.class, LinkedList.class,
+      HashSet.class, LinkedHashSet.class, HashMap.class, LinkedHashMap.class);
+
+  private final SerializableCacheCodec fallback = new SerializableCacheCodec();
+  private final Map<Class<?>, ClassInfo> classInfos = new ConcurrentHashMap<>();
+  private final Map<String, ClassInfo> classInfosByName = new ConcurrentHashMap<>();
+
+  @Override
+  public byte[] encode(Object value) {
+    Output out = new Output();
+    out.writeObject(value);
+    return out.toByteArray();
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    try {
+      return new Input(bytes).readObject();
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private ClassInfo getClassInfo(Class<?> type) {
+    return classInfos.computeIfAbsent(type, ClassInfo::new);
+  }
+
+  private ClassInfo getClassInfo(String name) {
+    ClassInfo info = classInfosByName.get(name);
+    if (info == null) {
+      try {
+        info = getClassInfo(Resources.classForName(name));
+      } catch (ClassNotFoundException e) {
+        throw new CacheException("Error deserializing object.  Cause: " + e, e);
+      }
+      classInfosByName.put(name, info);
+    }
+    return info;
+  }
+
+  private static boolean isJdkClass(Class<?> type) {
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("jdk.");
+  }
+
+  /**
+   * 类的编码方式，以及按字段写出时需要的构造方法和字段
+   */
+  private static final class ClassInfo {
+    final Class<?> type;
+    final byte kind;
+    Constructor<?> constructor;
+    Field[] fields;
+
+    ClassInfo(Class<?> type) {
+      this.type = type;
+      if (Enum.class.isAssignableFrom(type)) {
+        kind = ENUM;
+      } else if (SIMPLE_COLLECTIONS.contains(type)) {
+        kind = Map.class.isAssignableFrom(type) ? MAP : COLLECTION;
+        constructor = findConstructor(type);
+      } else if (isBean(type)) {
+        kind = BEAN;
+        constructor = findConstructor(type);
+        fields = findFields(type);
+      } else {
+        kind = JAVA;
+      }
+    }
+
+    private static boolean isBean(Class<?> type) {
+      if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type) || type.isArray()
+          || !Reflector.canControlMemberAccessible()) {
+        return false;
+      }
+      for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+        if (isJdkClass(c) || hasSerializationMethods(c)) {
+          return false;
+        }
+      }
+      try {
+        type.getDeclaredConstructor();
+        return true;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+
+    private static boolean hasSerializationMethods(Class<?> type) {
+      for (Method method : type.getDeclaredMethods()) {
+        String name = method.getName();
+        if ("writeReplace".equals(name) || "readResolve".equals(name) || "readObjectNoData".equals(name)) {
+          return true;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 1 && (("writeObject".equals(name) && parameterTypes[0] == ObjectOutputStream.class)
+            || ("readObject".equals(name) && parameterTypes[0] == ObjectInputStream.class))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+      try {
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor;
+      } catch (Exception e) {
+        throw new CacheException("Could not access the default constructor of " + type + ". Cause: " + e, e);
+      }
+    }
+
+    private static Field[] findFields(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      return fields.toArray(new Field[0]);
+    }
+
+    Object newInstance() throws ReflectiveOperationException {
+      return constructor.newInstance();
+    }
+  }
+
+  /**
+   * 编码时使用的输出缓冲区，每次编码创建一个
+   */
+  private final class Output {
+    private byte[] buf = new byte[64];
+    private int pos;
+    // 已经写出的对象，用于处理重复引用和循环引用
+    private final Map<Object, Integer> handles = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buf, pos);
+    }
+
+    void writeObject(Object value) {
+      if (value == null) {
+        writeByte(NULL);
+      } else if (value instanceof String) {
+        writeByte(STRING);
+        writeString((String) value);
+      } else if (value instanceof Integer) {
+        writeByte(INT);
+        writeVarLong((Integer) value);
+      } else if (value instanceof Long) {
+        writeByte(LONG);
+        writeVarLong((Long) value);
+      } else if (value instanceof Boolean) {
+        writeByte((Boolean) value ? TRUE : FALSE);
+      } else if (value instanceof BigDecimal) {
+        BigDecimal decimal = (BigDecimal) value;
+        writeByte(BIG_DECIMAL);
+        writeVarLong(decimal.scale());
+        writeBytes(decimal.unscaledValue().toByteArray());
+      } else if (value instanceof Double) {
+        writeByte(DOUBLE);
+        writeFixedLong(Double.doubleToRawLongBits((Double) value));
+      } else if (value instanceof java.sql.Timestamp) {
+        java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+        writeByte(TIMESTAMP);
+        writeVarLong(timestamp.getTime());
+        writeVarLong(timestamp.getNanos());
+      } else if (value.getClass() == java.sql.Date.class) {
+        writeByte(SQL_DATE);
+        writeVarLong(((Date) value).getTime());
+      } else if (value.getClass() == java.sql.Time.class) {
+        writeByte(SQL_TIME);
+        writeVarLong(((Date) value).getTime());
+      } else if (value.getClass() == Date.class) {
+        writeByte(DATE);
+        writeVarLong(((Date) value).getTime());
+      } else if (value instanceof Short) {
+        writeByte(SHORT);
+        writeVarLong((Short) value);
+      } else if (value instanceof Byte) {
+        writeByte(BYTE);
+        writeByte((Byte) value);
+      } else if (value instanceof Character) {
+        writeByte(CHAR);
+        writeVarLong((Character) value);
+      } else if (value instanceof Float) {
+        writeByte(FLOAT);
+        writeFixedLong(Float.floatToRawIntBits((Float) value));
+      } else if (value instanceof BigInteger) {
+        writeByte(BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (value instanceof byte[]) {
+        writeByte(BYTES);
+        writeBytes((byte[]) value);
+      } else if (value instanceof Enum) {
+        writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(((Enum<?>) value).name());
+      } else {
+        writeReference(value);
+      }
+    }
+
+    private void writeReference(Object value) {
+      Integer handle = handles.get(value);
+      if (handle != null) {
+        writeByte(REFERENCE);
+        writeVarLong(handle);
+        return;
+      }
+      if (!(value instanceof Serializable)) {
+        throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + value);
+      }
+      ClassInfo info = getClassInfo(value.getClass());
+      if (info.kind == JAVA) {
+        writeByte(JAVA);
+        writeBytes(fallback.encode(value));
+        return;
+      }
+      handles.put(value, handles.size());
+      writeByte(info.kind);
+      writeClass(info.type);
+      if (info.kind == COLLECTION) {
+        Collection<?> collection = (Collection<?>) value;
+        writeVarLong(collection.size());
+        for (Object element : collection) {
+          writeObject(element);
+        }
+      } else if (info.kind == MAP) {
+        Map<?, ?> map = (Map<?, ?>) value;
+        writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeObject(entry.getKey());
+          writeObject(entry.getValue());
+        }
+      } else {
+        try {
+          for (Field field : info.fields) {
+            writeField(field, value);
+          }
+        } catch (IllegalAccessException e) {
+          throw new CacheException("Error serializing object.  Cause: " + e, e);
+        }
+      }
+    }
+
+    private void writeField(Field field, Object target) throws IllegalAccessException {
+      Class<?> type = field.getType();
+      if (type == int.class) {
+        writeVarLong(field.getInt(target));
+      } else if (type == long.class) {
+        writeVarLong(field.getLong(target));
+      } else if (type == boolean.class) {
+        writeByte(field.getBoolean(target) ? TRUE : FALSE);
+      } else if (type == double.class) {
+        writeFixedLong(Double.doubleToRawLongBits(field.getDouble(target)));
+      } else if (type == float.class) {
+        writeFixedLong(Float.floatToRawIntBits(field.getFloat(target)));
+      } else if (type == short.class) {
+        writeVarLong(field.getShort(target));
+      } else if (type == byte.class) {
+        writeByte(field.getByte(target));
+      } else if (type == char.class) {
+        writeVarLong(field.getChar(target));
+      } else {
+        writeObject(field.get(target));
+      }
+    }
+
+    private void writeClass(Class<?> type) {
+      Integer id = classIds.get(type);
+      if (id != null) {
+        writeVarLong(id + 1);
+      } else {
+        classIds.put(type, classIds.size());
+        writeVarLong(0);
+        writeString(type.getName());
+      }
+    }
+
+    private void writeString(String value) {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buf, pos, bytes.length);
+      pos += bytes.length;
+    }
+
+    private void writeByte(int value) {
+      ensureCapacity(1);
+      buf[pos++] = (byte) value;
+    }
+
+    /**
+     * ZigZag 变长编码，绝对值小的数字占用的字节少
+     */
+    private void writeVarLong(long value) {
+      long v = (value << 1) ^ (value >> 63);
+      ensureCapacity(10);
+      while ((v & ~0x7FL) != 0) {
+        buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      buf[pos++] = (byte) v;
+    }
+
+    private void writeFixedLong(long value) {
+      ensureCapacity(8);
+      for (int i = 0; i < 8; i++) {
+        buf[pos++] = (byte) (value >>> (i << 3));
+      }
+    }
+
+    private void ensureCapacity(int length) {
+      if (pos + length > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + length));
+      }
+    }
+  }
+
+  /**
+   * 解码时使用的输入
+   */
+  private final class Input {
+    private final byte[] buf;
+    private int pos;
+    private final List<Object> handles = new ArrayList<>();
+    private final List<ClassInfo> classes = new ArrayList<>();
+
+    Input(byte[] buf) {
+      this.buf = buf;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Object readObject() throws ReflectiveOperationException {
+      byte tag = buf[pos++];
+      switch (tag) {
+        case NULL:
+          return null;
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case INT:
+          return (int) readVarLong();
+        case LONG:
+          return readVarLong();
+        case SHORT:
+          return (short) readVarLong();
+        case BYTE:
+          return buf[pos++];
+        case CHAR:
+          return (char) readVarLong();
+        case FLOAT:
+          return Float.intBitsToFloat((int) readFixedLong());
+        case DOUBLE:
+          return Double.longBitsToDouble(readFixedLong());
+        case STRING:
+          return readString();
+        case BIG_DECIMAL:
+          int scale = (int) readVarLong();
+          return new BigDecimal(new BigInteger(readBytes()), scale);
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case DATE:
+          return new Date(readVarLong());
+        case SQL_DATE:
+          return new java.sql.Date(readVarLong());
+        case SQL_TIME:
+          return new java.sql.Time(readVarLong());
+        case TIMESTAMP:
+          java.sql.Timestamp timestamp = new java.sql.Timestamp(readVarLong());
+          timestamp.setNanos((int) readVarLong());
+          return timestamp;
+        case BYTES:
+          return readBytes();
+        case ENUM:
+          return Enum.valueOf((Class) readClass().type, readString());
+        case REFERENCE:
+          return handles.get((int) readVarLong());
+        case JAVA:
+          return fallback.decode(readBytes());
+        case COLLECTION: {
+          Collection<Object> collection = (Collection<Object>) readClass().newInstance();
+          handles.add(collection);
+          int size = (int) readVarLong();
+          for (int i = 0; i < size; i++) {
+            collection.add(readObject());
+          }
+          return collection;
+        }
+        case MAP: {
+          Map<Object, Object> map = (Map<Object, Object>) readClass().newInstance();
+          handles.add(map);
+          int size = (int) readVarLong();
+          for (int i = 0; i < size; i++) {
+            map.put(readObject(), readObject());
+          }
+          return map;
+        }
+        case BEAN: {
+          ClassInfo info = readClass();
+          Object bean = info.newInstance();
+          handles.add(bean);
+          for (Field field : info.fields) {
+            readField(field, bean);
+          }
+          return bean;
+        }
+        default:
+          throw new CacheException("Error deserializing object.  Cause: unknown tag " + tag);
+      }
+    }
+
+    private void readField(Field field, Object target) throws ReflectiveOperationException {
+      Class<?> type = field.getType();
+      if (type == int.class) {
+        field.setInt(target, (int) readVarLong());
+      } else if (type == long.class) {
+        field.setLong(target, readVarLong());
+      } else if (type == boolean.class) {
+        field.setBoolean(target, buf[pos++] == TRUE);
+      } else if (type == double.class) {
+        field.setDouble(target, Double.longBitsToDouble(readFixedLong()));
+      } else if (type == float.class) {
+        field.setFloat(target, Float.intBitsToFloat((int) readFixedLong()));
+      } else if (type == short.class) {
+        field.setShort(target, (short) readVarLong());
+      } else if (type == byte.class) {
+        field.setByte(target, buf[pos++]);
+      } else if (type == char.class) {
+        field.setChar(target, (char) readVarLong());
+      } else {
+        field.set(target, readObject());
+      }
+    }
+
+    private ClassInfo readClass() {
+      int id = (int) readVarLong();
+      if (id > 0) {
+        return classes.get(id - 1);
+      }
+      ClassInfo info = getClassInfo(readString());
+      classes.add(info);
+      return info;
+    }
+
+    private String readString() {
+      int length = (int) readVarLong();
+      String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return value;
+    }
+
+    private byte[] readBytes() {
+      int length = (int) readVarLong();
+      byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+      pos += length;
+      return bytes;
+    }
+
+    private long readVarLong() {
+      long v = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buf[pos++];
+        v |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readFixedLong() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value |= (buf[pos++] & 0xFFL) << (i << 3);
+      }
+      return value;
+    }
+  }
+
+}
@@ -0,0 +1,548 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * 基于 {@link ConcurrentHashMap} 的线程安全的 Cache 基础实现类，读缓存时不需要加锁。
+ * <p>
+ * 可以通过 size（最大条目数）和 maximumWeight（最大权重）限制缓存的大小，
+ * 超出限制时按照 evictionPolicy 指定的策略淘汰：
+ * <ul>
+ * <li>TINY_LFU：W-TinyLFU，新条目先进入一个小的 LRU 窗口，再根据访问频率决定是否进入主区，默认策略</li>
+ * <li>SLRU：分段 LRU，条目先进入试用区，再次被访问后晋升到保护区</li>
+ * <li>NONE：不淘汰</li>
+ * </ul>
+ * 读操作只会把访问记录写入一个有损的环形缓冲区，淘汰策略的维护在写操作或者缓冲区写满时批量进行。
+ * <p>
+ * {@link org.apache.ibatis.mapping.CacheBuilder} 不会为它包装 {@link org.apache.ibatis.cache.decorators.SynchronizedCache}，
+ * 也不会应用 LRU、FIFO 等淘汰装饰器。
+ *
+ * @since 3.5.7
+ */
+public class ConcurrentCache implements Cache {
+
+  // 访问记录缓冲区的大小，必须是 2 的幂
+  private static final int READ_BUFFER_SIZE = 128;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  // 每记录这么多次访问尝试批量处理一次
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+  // 节点所在的队列
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+  // 节点已经从缓存中删除
+  private static final int RETIRED = -1;
+  // 节点还没有加入到任何一个队列
+  private static final int PENDING = -2;
+
+  private final String id;
+  private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+
+  // 维护淘汰策略时需要持有的锁，读缓存时不会获取
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+  private final AtomicLong readBufferWrites = new AtomicLong();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  // 最大条目数，小于等于 0 表示不限制
+  private int size = 1024;
+  // 最大权重，小于等于 0 表示不限制
+  private long maximumWeight;
+  private EvictionPolicy evictionPolicy = EvictionPolicy.TINY_LFU;
+  private Weigher weigher = ConcurrentCache::defaultWeight;
+
+  // 以下字段只能在持有 evictionLock 时访问
+  private final Deque window = new Deque();
+  private final Deque probation = new Deque();
+  private final Deque protectedDeque = new Deque();
+  private final FrequencySketch sketch = new FrequencySketch();
+  private long totalWeight;
+  private long windowWeight;
+  private long protectedWeight;
+
+  public ConcurrentCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Node node = new Node(key, value, weigher.weigh(key, value));
+    Node prior = data.put(key, node);
+    if (!isBounded()) {
+      return;
+    }
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      if (prior != null) {
+        retire(prior);
+      }
+      add(node);
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Node node = data.get(key);
+    if (node == null) {
+      missCount.increment();
+      return null;
+    }
+    hitCount.increment();
+    if (isBounded()) {
+      recordAccess(node);
+    }
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Node node = data.remove(key);
+    if (node == null) {
+      return null;
+    }
+    if (isBounded()) {
+      evictionLock.lock();
+      try {
+        retire(node);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return node.value;
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      for (Node node : data.values()) {
+        node.queue = RETIRED;
+      }
+      data.clear();
+      for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+        readBuffer.set(i, null);
+      }
+      window.clear();
+      probation.clear();
+      protectedDeque.clear();
+      totalWeight = 0;
+      windowWeight = 0;
+      protectedWeight = 0;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+  /**
+   * Sets the eviction policy.
+   *
+   * @param evictionPolicy
+   *          TINY_LFU, SLRU or NONE
+   */
+  public void setEvictionPolicy(String evictionPolicy) {
+    try {
+      this.evictionPolicy = EvictionPolicy.valueOf(evictionPolicy.toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException e) {
+      throw new CacheException("Unknown eviction policy '" + evictionPolicy + "' for cache " + id
+          + ". Supported policies are TINY_LFU, SLRU and NONE.", e);
+    }
+  }
+
+  /**
+   * Sets how the weight of an entry is computed, by default a collection weighs its size and anything else weighs 1.
+   *
+   * @param weigher
+   *          the weigher
+   */
+  public void setWeigher(Weigher weigher) {
+    this.weigher = weigher;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  public double getHitRatio() {
+    long hits = hitCount.sum();
+    long requests = hits + missCount.sum();
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  private boolean isBounded() {
+    return evictionPolicy != EvictionPolicy.NONE && (size > 0 || maximumWeight > 0);
+  }
+
+  /**
+   * 记录一次访问，缓冲区满了会覆盖还没有处理的访问记录
+   */
+  private void recordAccess(Node node) {
+    long writes = readBufferWrites.getAndIncrement();
+    readBuffer.lazySet((int) writes & READ_BUFFER_MASK, node);
+    if ((writes & (READ_BUFFER_DRAIN_THRESHOLD - 1)) == 0 && evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainReadBuffer() {
+    for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+      Node node = readBuffer.getAndSet(i, null);
+      if (node != null) {
+        onAccess(node);
+      }
+    }
+  }
+
+  private void add(Node node) {
+    // 在加入队列之前已经被替换或者删除了
+    if (node.queue == RETIRED) {
+      return;
+    }
+    sketch.increment(node.key);
+    totalWeight += node.weight;
+    if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+      node.queue = WINDOW;
+      window.addLast(node);
+      windowWeight += policyWeight(node);
+    } else {
+      node.queue = PROBATION;
+      probation.addLast(node);
+    }
+  }
+
+  private void onAccess(Node node) {
+    if (node.queue == RETIRED || node.queue == PENDING) {
+      return;
+    }
+    sketch.increment(node.key);
+    if (node.queue == WINDOW) {
+      window.moveToLast(node);
+    } else if (node.queue == PROBATION) {
+      // 再次被访问，晋升到保护区
+      probation.remove(node);
+      node.queue = PROTECTED;
+      protectedDeque.addLast(node);
+      protectedWeight += policyWeight(node);
+      long maxProtected = capacity() - windowCapacity() - (capacity() - windowCapacity()) / 5;
+      while (protectedWeight > maxProtected && protectedDeque.head != null) {
+        Node demoted = protectedDeque.removeFirst();
+        protectedWeight -= policyWeight(demoted);
+        demoted.queue = PROBATION;
+        probation.addLast(demoted);
+      }
+    } else {
+      protectedDeque.moveToLast(node);
+    }
+  }
+
+  /**
+   * 从淘汰策略中删除节点，可以重复调用
+   */
+  private void retire(Node node) {
+    int queue = node.queue;
+    node.queue = RETIRED;
+    if (queue == RETIRED || queue == PENDING) {
+      return;
+    }
+    totalWeight -= node.weight;
+    if (queue == WINDOW) {
+      window.remove(node);
+      windowWeight -= policyWeight(node);
+    } else if (queue == PROBATION) {
+      probation.remove(node);
+    } else {
+      protectedDeque.remove(node);
+      protectedWeight -= policyWeight(node);
+    }
+  }
+
+  private void evict() {
+    if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+      // 窗口满了，把最老的条目移到试用区作为候选
+      long maxWindow = windowCapacity();
+      while (windowWeight > maxWindow && window.head != null) {
+        Node candidate = window.removeFirst();
+        windowWeight -= policyWeight(candidate);
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+      }
+    }
+    while (isOverCapacity()) {
+      Node victim = selectVictim();
+      if (victim == null) {
+        return;
+      }
+      data.remove(victim.key, victim);
+      retire(victim);
+      evictionCount.increment();
+    }
+  }
+
+  private Node selectVictim() {
+    Node victim = probation.head;
+    if (victim == null) {
+      victim = protectedDeque.head != null ? protectedDeque.head : window.head;
+      return victim;
+    }
+    if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+      // 比较试用区最老的条目和最新进入试用区的候选条目的访问频率，淘汰频率低的
+      Node candidate = probation.tail;
+      if (candidate != victim && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+        return candidate;
+      }
+    }
+    return victim;
+  }
+
+  private boolean isOverCapacity() {
+    return (size > 0 && data.size() > size) || (maximumWeight > 0 && totalWeight > maximumWeight);
+  }
+
+  private long capacity() {
+    return maximumWeight > 0 ? maximumWeight : size;
+  }
+
+  private long windowCapacity() {
+    return evictionPolicy == EvictionPolicy.TINY_LFU ? Math.max(1, capacity() / 100) : 0;
+  }
+
+  private long policyWeight(Node node) {
+    return maximumWeight > 0 ? node.weight : 1;
+  }
+
+  private static int defaultWeight(Object key, Object value) {
+    return value instanceof Collection ? Math.max(1, ((Collection<?>) value).size()) : 1;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  /**
+   * Computes the weight of a cache entry.
+   */
+  @FunctionalInterface
+  public interface Weigher {
+    int weigh(Object key, Object value);
+  }
+
+  private enum EvictionPolicy {
+    TINY_LFU, SLRU, NONE
+  }
+
+  private static final class Node {
+    final Object key;
+    final Object value;
+    final int weight;
+    // 以下字段只能在持有 evictionLock 时访问，queue 会在读缓存的线程中读取，所以是 volatile 的
+    volatile int queue = PENDING;
+    Node prev;
+    Node next;
+
+    Node(Object key, Object value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * 双向链表，头部是最久没有被访问的节点
+   */
+  private static final class Deque {
+    Node head;
+    Node tail;
+
+    void addLast(Node node) {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+    }
+
+    Node removeFirst() {
+      Node node = head;
+      remove(node);
+      return node;
+    }
+
+    void remove(Node node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+
+    void moveToLast(Node node) {
+      if (tail != node) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void clear() {
+      head = null;
+      tail = null;
+    }
+  }
+
+  /**
+   * Count-Min Sketch，每个计数器占 4 位，用于估算条目的访问频率。
+   * 记录的次数达到容量的 10 倍后所有计数器减半，让频率随时间衰减。
+   */
+  private final class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private final long[] seeds = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private long[] table = new long[0];
+    private int additions;
+
+    int frequency(Object key) {
+      ensureCapacity();
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(Object key) {
+      ensureCapacity();
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int offset = (start + i) << 2;
+        if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+          table[index] += 1L << offset;
+          added = true;
+        }
+      }
+      if (added && ++additions >= table.length * 10) {
+        for (int i = 0; i < table.length; i++) {
+          table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+      }
+    }
+
+    private void ensureCapacity() {
+      long maximum = Math.min(Math.max(capacity(), 16), 1 << 24);
+      int length = Integer.highestOneBit((int) maximum - 1) << 1;
+      if (table.length < length) {
+        table = new long[length];
+        additions = 0;
+      }
+    }
+
+    private int indexOf(int hash, int i) {
+      long h = (hash + seeds[i]) * seeds[i];
+      h += h >>> 32;
+      return (int) h & (table.length - 1);
+    }
+
+    private int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+  }
+
+}
@@ -0,0 +1,388 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * 把值保存在堆外内存中的 Cache 实现类，适合保存大量的只读数据而不增加堆的大小和 GC 的压力。
+ * <p>
+ * 键保存在堆上，值使用 {@link CacheCodec} 编码后保存在由多个段组成的环形存储区中。存储区可以是直接内存，
+ * 也可以通过 mappedFile 指定一个内存映射文件。写入时按顺序追加到当前段，当前段写满后复用下一个段，
+ * 下一个段中的所有条目都会被淘汰（FIFO）。读缓存时不需要加锁，每次读取都会解码出一个新的对象。
+ * <p>
+ * 可以配置的属性：
+ * <ul>
+ * <li>capacity：存储区的总字节数，默认 64MB</li>
+ * <li>segmentSize：每个段的字节数，默认 4MB，超过一个段大小的值不会被缓存</li>
+ * <li>mappedFile：内存映射文件的路径，不指定时使用直接内存</li>
+ * <li>codec：编解码器的类名，默认为 {@link CompactCacheCodec}</li>
+ * </ul>
+ *
+ * @since 3.5.7
+ */
+public class OffHeapCache implements Cache, InitializingObject {
+
+  private final String id;
+  private final ConcurrentHashMap<Object, Slot> data = new ConcurrentHashMap<>();
+  // 写入存储区时需要持有的锁
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  private long capacity = 64L * 1024 * 1024;
+  private int segmentSize = 4 * 1024 * 1024;
+  private String mappedFile;
+  private CacheCodec codec = new CompactCacheCodec();
+
+  // 存储区，第一次写入或者初始化时才会分配
+  private volatile Segment[] segments;
+  // 以下字段只能在持有 writeLock 时访问
+  private int writeSegment;
+  private int writeOffset;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public void initialize() {
+    writeLock.lock();
+    try {
+      allocate();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    byte[] bytes = codec.encode(value);
+    if (bytes.length > segmentSize) {
+      // 放不进一个段的值不缓存，同时删除旧值
+      data.remove(key);
+      return;
+    }
+    writeLock.lock();
+    try {
+      allocate();
+      if (writeOffset + bytes.length > segmentSize) {
+        writeSegment = (writeSegment + 1) % segments.length;
+        writeOffset = 0;
+        recycle(segments[writeSegment]);
+      }
+      Segment segment = segments[writeSegment];
+      ByteBuffer buffer = segment.buffer.duplicate();
+      buffer.position(writeOffset);
+      buffer.put(bytes);
+      Slot slot = new Slot(key, segment, writeOffset, bytes.length, segment.generation);
+      writeOffset += bytes.length;
+      segment.slots.add(slot);
+      data.put(key, slot);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Slot slot = data.get(key);
+    byte[] bytes = slot == null ? null : read(slot);
+    if (bytes == null) {
+      missCount.increment();
+      return null;
+    }
+    hitCount.increment();
+    return codec.decode(bytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Slot slot = data.remove(key);
+    byte[] bytes = slot == null ? null : read(slot);
+    return bytes == null ? null : codec.decode(bytes);
+  }
+
+  @Override
+  public void clear() {
+    writeLock.lock();
+    try {
+      data.clear();
+      if (segments != null) {
+        for (Segment segment : segments) {
+          recycle(segment);
+        }
+      }
+      writeSegment = 0;
+      writeOffset = 0;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Sets the total number of bytes of the storage.
+   *
+   * @param capacity
+   *          the capacity in bytes
+   */
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+    release();
+  }
+
+  /**
+   * Sets the number of bytes of a segment, values larger than a segment are not cached.
+   *
+   * @param segmentSize
+   *          the segment size in bytes
+   */
+  public void setSegmentSize(int segmentSize) {
+    this.segmentSize = segmentSize;
+    release();
+  }
+
+  /**
+   * Sets the file to map the storage to. If not set, direct memory is used.
+   *
+   * @param mappedFile
+   *          the path of the file
+   */
+  public void setMappedFile(String mappedFile) {
+    this.mappedFile = mappedFile;
+    release();
+  }
+
+  /**
+   * Sets the codec to encode the values with.
+   *
+   * @param codec
+   *          the class name of a {@link CacheCodec} implementation
+   */
+  public void setCodec(String codec) {
+    try {
+      this.codec = (CacheCodec) Resources.classForName(codec).getDeclaredConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Error creating cache codec '" + codec + "' for cache " + id + ". Cause: " + e, e);
+    }
+    clear();
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  public String getMappedFile() {
+    return mappedFile;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * 复制出条目的字节，条目所在的段在读取期间被复用时返回 null
+   */
+  private byte[] read(Slot slot) {
+    Segment segment = slot.segment;
+    long stamp = segment.lock.tryOptimisticRead();
+    if (stamp == 0 || segment.generation != slot.generation) {
+      data.remove(slot.key, slot);
+      return null;
+    }
+    byte[] bytes = new byte[slot.length];
+    ByteBuffer buffer = segment.buffer.duplicate();
+    buffer.position(slot.offset);
+    buffer.get(bytes);
+    if (!segment.lock.validate(stamp)) {
+      data.remove(slot.key, slot);
+      return null;
+    }
+    return bytes;
+  }
+
+  /**
+   * 淘汰段中的所有条目，之后这个段可以重新写入
+   */
+  private void recycle(Segment segment) {
+    long stamp = segment.lock.writeLock();
+    try {
+      segment.generation++;
+    } finally {
+      segment.lock.unlockWrite(stamp);
+    }
+    for (Slot slot : segment.slots) {
+      if (data.remove(slot.key, slot)) {
+        evictionCount.increment();
+      }
+    }
+    segment.slots.clear();
+  }
+
+  /**
+   * 分配存储区，调用时必须持有 writeLock
+   */
+  private void allocate() {
+    if (segments != null) {
+      return;
+    }
+    if (segmentSize <= 0 || capacity < segmentSize) {
+      throw new CacheException("Invalid storage size for cache " + id + ": capacity " + capacity
+          + " must not be less than segmentSize " + segmentSize + " and segmentSize must be positive.");
+    }
+    long count = capacity / segmentSize;
+    if (count > Integer.MAX_VALUE) {
+      throw new CacheException("Too many segments for cache " + id + ", increase segmentSize.");
+    }
+    Segment[] allocated = new Segment[(int) count];
+    if (mappedFile == null) {
+      for (int i = 0; i < allocated.length; i++) {
+        allocated[i] = new Segment(ByteBuffer.allocateDirect(segmentSize));
+      }
+    } else {
+      // 映射建立后关闭文件，映射仍然有效
+      try (FileChannel channel = FileChannel.open(Paths.get(mappedFile), StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        for (int i = 0; i < allocated.length; i++) {
+          allocated[i] = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, (long) i * segmentSize, segmentSize));
+        }
+      } catch (IOException e) {
+        throw new CacheException("Error mapping file '" + mappedFile + "' for cache " + id + ". Cause: " + e, e);
+      }
+    }
+    writeSegment = 0;
+    writeOffset = 0;
+    segments = allocated;
+  }
+
+  /**
+   * 丢弃存储区，下次写入时按新的配置重新分配
+   */
+  private void release() {
+    writeLock.lock();
+    try {
+      data.clear();
+      if (segments != null) {
+        for (Segment segment : segments) {
+          recycle(segment);
+        }
+      }
+      segments = null;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  /**
+   * 存储区中的一个段
+   */
+  private static final class Segment {
+    final ByteBuffer buffer;
+    // 段每被复用一次加一，读取时用来判断条目是否已经失效
+    volatile int generation;
+    // 复用段时通知正在读取的线程
+    final StampedLock lock = new StampedLock();
+    // 写入到这个段中的条目，只能在持有 writeLock 时访问
+    final List<Slot> slots = new ArrayList<>();
+
+    Segment(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  /**
+   * 条目在存储区中的位置
+   */
+  private static final class Slot {
+    final Object key;
+    final Segment segment;
+    final int offset;
+    final int length;
+    final int generation;
+
+    Slot(Object key, Segment segment, int offset, int length, int generation) {
+      this.key = key;
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.generation = generation;
+    }
+  }
+
+}
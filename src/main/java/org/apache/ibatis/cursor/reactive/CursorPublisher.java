@@ -0,0 +1,181 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.reactive;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * A {@link Publisher} that streams the rows of a select statement from a {@link Cursor}.
+ * <p>
+ * The session and the cursor are opened on the executor when the first items are requested. Rows are only fetched
+ * while the subscriber has outstanding demand, so a slow subscriber holds an open statement instead of buffered rows.
+ * The cursor and its session are closed when all rows have been sent, on error and on cancel. Only one subscriber is
+ * supported.
+ *
+ * @param <T> the item type
+ * @since 3.5.7
+ */
+public class CursorPublisher<T> implements Publisher<T> {
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final String statement;
+  private final Object parameter;
+  private final RowBounds rowBounds;
+  private final Executor executor;
+  // 是否已经被订阅过
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public CursorPublisher(SqlSessionFactory sqlSessionFactory, String statement, Object parameter, RowBounds rowBounds, Executor executor) {
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.statement = statement;
+    this.parameter = parameter;
+    this.rowBounds = rowBounds;
+    this.executor = executor;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new CursorSubscription(null));
+      subscriber.onError(new IllegalStateException("CursorPublisher of '" + statement + "' supports only one subscriber."));
+      return;
+    }
+    CursorSubscription subscription = new CursorSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  private class CursorSubscription implements Subscription {
+
+    private final Subscriber<? super T> subscriber;
+    // 未满足的请求数量，Long.MAX_VALUE 表示不限制
+    private final AtomicLong requested = new AtomicLong();
+    // 等待处理的通知数量，保证同一时间只有一个任务在读取游标
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    // 以下字段只在读取任务中访问，任务之间通过 wip 保证可见性
+    private SqlSession sqlSession;
+    private Cursor<T> cursor;
+    private Iterator<T> iterator;
+    private boolean done;
+
+    CursorSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+      this.done = subscriber == null;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("The number of requested items must be positive, but was " + n);
+      } else {
+        requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      // 由读取任务关闭游标，避免和正在进行的读取冲突
+      schedule();
+    }
+
+    private void schedule() {
+      if (subscriber != null && wip.getAndIncrement() == 0) {
+        executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      do {
+        if (!done) {
+          emit();
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      try {
+        if (cancelled) {
+          close();
+          return;
+        }
+        if (invalidRequest != null) {
+          close();
+          subscriber.onError(invalidRequest);
+          return;
+        }
+        if (iterator == null) {
+          sqlSession = sqlSessionFactory.openSession();
+          cursor = sqlSession.selectCursor(statement, parameter, rowBounds);
+          iterator = cursor.iterator();
+        }
+        long emitted = 0;
+        long demand = requested.get();
+        while (!cancelled && iterator.hasNext()) {
+          if (emitted == demand) {
+            // 请求的数据都已经发送，检查在此期间是否有新的请求
+            demand = requested.addAndGet(-emitted);
+            emitted = 0;
+            if (demand == 0) {
+              return;
+            }
+          }
+          subscriber.onNext(iterator.next());
+          emitted++;
+        }
+        close();
+        if (!cancelled) {
+          subscriber.onComplete();
+        }
+      } catch (Throwable t) {
+        close();
+        subscriber.onError(t);
+      }
+    }
+
+    private void close() {
+      done = true;
+      try {
+        if (cursor != null) {
+          cursor.close();
+        }
+      } catch (Exception e) {
+        // ignore
+      } finally {
+        if (sqlSession != null) {
+          sqlSession.close();
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.reactive;
+
+/**
+ * A producer of items that are pushed to a {@link Subscriber} according to its demand. The contract is the same as
+ * {@code java.util.concurrent.Flow.Publisher}, which is not available on Java 8.
+ *
+ * @param <T> the item type
+ * @since 3.5.7
+ */
+@FunctionalInterface
+public interface Publisher<T> {
+
+  /**
+   * Adds the given subscriber, which is then notified through {@link Subscriber#onSubscribe(Subscription)}.
+   *
+   * @param subscriber
+   *          the subscriber
+   */
+  void subscribe(Subscriber<? super T> subscriber);
+
+}
@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.reactive;
+
+/**
+ * A receiver of the items of a {@link Publisher}. The contract is the same as
+ * {@code java.util.concurrent.Flow.Subscriber}.
+ *
+ * @param <T> the item type
+ * @since 3.5.7
+ */
+public interface Subscriber<T> {
+
+  // 订阅成功，之后通过 subscription 请求数据
+  void onSubscribe(Subscription subscription);
+
+  // 收到一条数据，不会超过请求的数量
+  void onNext(T item);
+
+  // 出现异常，之后不会再收到任何通知
+  void onError(Throwable throwable);
+
+  // 所有数据都已经发送完成
+  void onComplete();
+
+}
@@ -0,0 +1,32 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.reactive;
+
+/**
+ * The link between a {@link Publisher} and a {@link Subscriber}. The contract is the same as
+ * {@code java.util.concurrent.Flow.Subscription}.
+ *
+ * @since 3.5.7
+ */
+public interface Subscription {
+
+  // 请求 n 条数据，n 必须大于 0
+  void request(long n);
+
+  // 取消订阅，之后不会再收到数据
+  void cancel();
+
+}
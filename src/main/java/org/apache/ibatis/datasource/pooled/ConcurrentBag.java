@@ -0,0 +1,233 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无锁的连接容器，借出和归还连接时不需要获取全局锁。
+ * <p>
+ * 借出的顺序为：
+ * 1. 当前线程最近归还过的条目（线程亲和）
+ * 2. 共享列表中任意一个空闲条目（CAS 抢占）
+ * 3. 在公平的交接队列上等待其他线程归还
+ *
+ * @param <T> 条目类型
+ */
+class ConcurrentBag<T extends ConcurrentBag.BagEntry> {
+
+  // 每个线程最多记住的条目数量
+  private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+  // 所有的条目，只在创建和删除条目时才会写
+  private final CopyOnWriteArrayList<T> sharedList = new CopyOnWriteArrayList<>();
+  // 线程最近归还的条目，使用弱引用，避免被删除的条目无法回收
+  private final ThreadLocal<List<WeakReference<T>>> threadList = ThreadLocal.withInitial(ArrayList::new);
+  // 公平的交接队列，归还的线程直接把条目交给等待的线程
+  private final SynchronousQueue<T> handoffQueue = new SynchronousQueue<>(true);
+  // 正在等待的线程数量
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  /**
+   * Borrows an idle entry, waiting at most the given time for another thread to return one.
+   *
+   * @param timeout
+   *          the time to wait, 0 to return immediately
+   * @param unit
+   *          the unit of the timeout
+   * @return the borrowed entry, now {@link BagEntry#STATE_IN_USE}, or null if none became available in time
+   * @throws InterruptedException
+   *           if interrupted while waiting
+   */
+  T borrow(long timeout, TimeUnit unit) throws InterruptedException {
+    // 先尝试当前线程最近归还的条目
+    List<WeakReference<T>> list = threadList.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      T entry = list.remove(i).get();
+      if (entry != null && entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+        return entry;
+      }
+    }
+
+    waiters.incrementAndGet();
+    try {
+      // 再尝试共享列表中的空闲条目
+      for (T entry : sharedList) {
+        if (entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+          return entry;
+        }
+      }
+
+      // 最后在交接队列上等待
+      long nanos = unit.toNanos(timeout);
+      while (nanos > 0) {
+        long start = System.nanoTime();
+        T entry = handoffQueue.poll(nanos, TimeUnit.NANOSECONDS);
+        if (entry == null || entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+          return entry;
+        }
+        nanos -= System.nanoTime() - start;
+      }
+      return null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns a borrowed entry to the bag, handing it directly to a waiting thread if there is one.
+   *
+   * @param entry
+   *          the entry to return
+   */
+  void requite(T entry) {
+    entry.setState(BagEntry.STATE_NOT_IN_USE);
+
+    for (int i = 0; waiters.get() > 0; i++) {
+      // 条目已经被其他线程拿走了，或者成功交给了等待的线程
+      if (entry.getState() != BagEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+        return;
+      } else if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+
+    List<WeakReference<T>> list = threadList.get();
+    if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+      list.add(new WeakReference<>(entry));
+    }
+  }
+
+  /**
+   * Adds a new entry. An entry added as {@link BagEntry#STATE_NOT_IN_USE} is offered to waiting threads.
+   *
+   * @param entry
+   *          the entry to add
+   */
+  void add(T entry) {
+    sharedList.add(entry);
+    while (waiters.get() > 0 && entry.getState() == BagEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Reserves an idle entry so that it can not be borrowed, used by the housekeeper.
+   *
+   * @param entry
+   *          the entry to reserve
+   * @return true if the entry was idle and is now reserved by the caller
+   */
+  boolean reserve(T entry) {
+    return entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_RESERVED);
+  }
+
+  /**
+   * Makes a reserved entry available again.
+   *
+   * @param entry
+   *          the entry to release
+   */
+  void unreserve(T entry) {
+    if (entry.compareAndSetState(BagEntry.STATE_RESERVED, BagEntry.STATE_NOT_IN_USE)) {
+      while (waiters.get() > 0 && entry.getState() == BagEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+        Thread.yield();
+      }
+    }
+  }
+
+  /**
+   * Removes an entry that was borrowed or reserved by the caller.
+   *
+   * @param entry
+   *          the entry to remove
+   * @return true if the entry was removed, false if it was not borrowed
+   */
+  boolean remove(T entry) {
+    if (!entry.compareAndSetState(BagEntry.STATE_IN_USE, BagEntry.STATE_REMOVED)
+        && !entry.compareAndSetState(BagEntry.STATE_RESERVED, BagEntry.STATE_REMOVED)) {
+      return false;
+    }
+    return sharedList.remove(entry);
+  }
+
+  /**
+   * Removes an entry whatever its state is.
+   *
+   * @param entry
+   *          the entry to remove
+   */
+  void forceRemove(T entry) {
+    entry.setState(BagEntry.STATE_REMOVED);
+    sharedList.remove(entry);
+  }
+
+  /**
+   * Gets a snapshot of all the entries.
+   *
+   * @return the entries
+   */
+  List<T> values() {
+    return new ArrayList<>(sharedList);
+  }
+
+  /**
+   * Gets the number of entries in the given state.
+   *
+   * @param state
+   *          the state
+   * @return the number of entries
+   */
+  int getCount(int state) {
+    int count = 0;
+    for (T entry : sharedList) {
+      if (entry.getState() == state) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  int size() {
+    return sharedList.size();
+  }
+
+  /**
+   * An entry of the bag, the state must be changed atomically.
+   */
+  interface BagEntry {
+    int STATE_NOT_IN_USE = 0;
+    int STATE_IN_USE = 1;
+    int STATE_REMOVED = -1;
+    int STATE_RESERVED = -2;
+
+    boolean compareAndSetState(int expect, int update);
+
+    void setState(int state);
+
+    int getState();
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 真实连接在 {@link ConcurrentBag} 中的条目，每次借出时都会创建一个新的 {@link PooledConnection} 包装它
+ */
+class PoolEntry implements ConcurrentBag.BagEntry {
+
+  // 真实连接
+  private final Connection realConnection;
+  // 条目状态
+  private final AtomicInteger state = new AtomicInteger(STATE_NOT_IN_USE);
+  // 当前借出的连接包装类，没有借出时为 null
+  private final AtomicReference<PooledConnection> current = new AtomicReference<>();
+  // 连接创建时间
+  private final long createdTimestamp;
+  // 连接上次被使用的时间
+  private volatile long lastUsedTimestamp;
+  // 真实连接上的预编译语句缓存，没有启用或者还没有使用时为 null
+  private volatile StatementCache statementCache;
+
+  PoolEntry(Connection realConnection) {
+    this.realConnection = realConnection;
+    this.createdTimestamp = System.currentTimeMillis();
+    this.lastUsedTimestamp = createdTimestamp;
+  }
+
+  Connection getRealConnection() {
+    return realConnection;
+  }
+
+  long getCreatedTimestamp() {
+    return createdTimestamp;
+  }
+
+  long getLastUsedTimestamp() {
+    return lastUsedTimestamp;
+  }
+
+  void setLastUsedTimestamp(long lastUsedTimestamp) {
+    this.lastUsedTimestamp = lastUsedTimestamp;
+  }
+
+  StatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  void setStatementCache(StatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
+  PooledConnection getCurrent() {
+    return current.get();
+  }
+
+  void setCurrent(PooledConnection conn) {
+    current.set(conn);
+  }
+
+  /**
+   * Detaches the given checked out connection from this entry, only one thread can succeed.
+   *
+   * @param conn
+   *          the connection that is expected to be checked out
+   * @return true if the caller now owns this entry
+   */
+  boolean detach(PooledConnection conn) {
+    return conn != null && current.compareAndSet(conn, null);
+  }
+
+  @Override
+  public boolean compareAndSetState(int expect, int update) {
+    return state.compareAndSet(expect, update);
+  }
+
+  @Override
+  public void setState(int state) {
+    this.state.set(state);
+  }
+
+  @Override
+  public int getState() {
+    return state.get();
+  }
+
+}
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * 连接池的指标监听器，可以用来把连接池的统计信息桥接到外部的监控系统。
+ * <p>
+ * 回调在获取或者归还连接的线程中执行，非无锁模式下可能持有连接池的锁，实现类必须是线程安全的，并且应该尽快返回。
+ * 所有的时间单位都是毫秒。
+ *
+ * @since 3.5.7
+ * @see PooledDataSource#setPoolMetricsListener(PoolMetricsListener)
+ */
+public interface PoolMetricsListener {
+
+  /**
+   * A connection was checked out.
+   *
+   * @param requestTime
+   *          the time it took to obtain the connection
+   * @param waitTime
+   *          the part of the request time spent waiting for another thread to return a connection
+   */
+  default void connectionCheckedOut(long requestTime, long waitTime) {
+  }
+
+  /**
+   * A connection was given back to the pool, or closed because there was no room for it.
+   *
+   * @param checkoutTime
+   *          the time the connection was checked out for
+   */
+  default void connectionReturned(long checkoutTime) {
+  }
+
+  /**
+   * A connection that was checked out for too long was claimed for another request.
+   *
+   * @param checkoutTime
+   *          the time the connection was checked out for
+   */
+  default void overdueConnectionClaimed(long checkoutTime) {
+  }
+
+  /**
+   * A connection failed validation and was discarded.
+   */
+  default void badConnectionDetected() {
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,9 +17,15 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.metrics.LatencyHistogram;
 
 /**
  * 连接池状态
+ * <p>
+ * 统计信息使用 {@link LongAdder} 和 {@link LatencyHistogram} 记录，更新和读取时都不需要获取连接池的锁
  *
  * @author Clinton Begin
  */
@@ -31,20 +37,26 @@ public class PoolState {
   protected final List<PooledConnection> idleConnections = new ArrayList<>();
   // 正在活动的连接
   protected final List<PooledConnection> activeConnections = new ArrayList<>();
+  // 无锁模式下的所有连接，包括空闲的和正在活动的
+  protected final ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>();
+  // 无锁模式下的连接总数，包括正在创建的连接
+  protected final AtomicInteger totalConnections = new AtomicInteger();
+  // 后台维护线程正在 ping 的空闲连接数
+  protected int validatingConnectionCount = 0;
   // 成功获取到连接的次数
-  protected long requestCount = 0;
+  private final LongAdder requests = new LongAdder();
   // 累积的成功获取连接所花的时间
-  protected long accumulatedRequestTime = 0;
+  private final LongAdder requestTime = new LongAdder();
   // 累积的连接使用时间
-  protected long accumulatedCheckoutTime = 0;
+  private final LongAdder checkoutTime = new LongAdder();
   // 单次，连接使用时间超时的次数
-  protected long claimedOverdueConnectionCount = 0;
+  private final LongAdder claimedOverdueConnections = new LongAdder();
   // 累积的超时连接的使用时间
-  protected long accumulatedCheckoutTimeOfOverdueConnections = 0;
+  private final LongAdder checkoutTimeOfOverdueConnections = new LongAdder();
   // 累积的等待空闲连接的时间
-  protected long accumulatedWaitTime = 0;
+  private final LongAdder waitTime = new LongAdder();
   // 等待空闲连接的次数，一次请求只算一次
-  protected long hadToWaitCount = 0;
+  private final LongAdder hadToWait = new LongAdder();
   // 坏连接的数量
   /*
     什么连接会被认为是坏连接或者说产生坏连接的可能途径：
@@ -52,55 +64,195 @@ public class PoolState {
     2. 连接 PING 失败，可能原因包含 url、username、password 变更等
     ...
    */
+  private final LongAdder badConnections = new LongAdder();
+
+  // 以下字段只是兼容子类的快照，由对应的 getter 在读取统计信息时刷新，连接池不会再更新它们
+  /** @deprecated Use {@link #getRequestCount()}. */
+  @Deprecated
+  protected long requestCount = 0;
+  /** @deprecated Use {@link #getAverageRequestTime()}. */
+  @Deprecated
+  protected long accumulatedRequestTime = 0;
+  /** @deprecated Use {@link #getAverageCheckoutTime()}. */
+  @Deprecated
+  protected long accumulatedCheckoutTime = 0;
+  /** @deprecated Use {@link #getClaimedOverdueConnectionCount()}. */
+  @Deprecated
+  protected long claimedOverdueConnectionCount = 0;
+  /** @deprecated Use {@link #getAverageOverdueCheckoutTime()}. */
+  @Deprecated
+  protected long accumulatedCheckoutTimeOfOverdueConnections = 0;
+  /** @deprecated Use {@link #getAverageWaitTime()}. */
+  @Deprecated
+  protected long accumulatedWaitTime = 0;
+  /** @deprecated Use {@link #getHadToWaitCount()}. */
+  @Deprecated
+  protected long hadToWaitCount = 0;
+  /** @deprecated Use {@link #getBadConnectionCount()}. */
+  @Deprecated
   protected long badConnectionCount = 0;
+  // 预编译语句缓存命中的次数
+  protected final LongAdder statementCacheHitCount = new LongAdder();
+  // 预编译语句缓存没有命中的次数
+  protected final LongAdder statementCacheMissCount = new LongAdder();
+  // 获取连接所花时间的分布
+  protected final LatencyHistogram requestTimeHistogram = new LatencyHistogram();
+  // 连接使用时间的分布
+  protected final LatencyHistogram checkoutTimeHistogram = new LatencyHistogram();
+  // 等待空闲连接所花时间的分布，只记录需要等待的请求
+  protected final LatencyHistogram waitTimeHistogram = new LatencyHistogram();
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
-  public synchronized long getRequestCount() {
+  @SuppressWarnings("deprecation")
+  public long getRequestCount() {
+    requestCount = requests.sum();
     return requestCount;
   }
 
-  public synchronized long getAverageRequestTime() {
-    return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+  @SuppressWarnings("deprecation")
+  public long getAverageRequestTime() {
+    long count = getRequestCount();
+    accumulatedRequestTime = requestTime.sum();
+    return count == 0 ? 0 : accumulatedRequestTime / count;
   }
 
-  public synchronized long getAverageWaitTime() {
-    return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
-
+  @SuppressWarnings("deprecation")
+  public long getAverageWaitTime() {
+    long count = getHadToWaitCount();
+    accumulatedWaitTime = waitTime.sum();
+    return count == 0 ? 0 : accumulatedWaitTime / count;
   }
 
-  public synchronized long getHadToWaitCount() {
+  @SuppressWarnings("deprecation")
+  public long getHadToWaitCount() {
+    hadToWaitCount = hadToWait.sum();
     return hadToWaitCount;
   }
 
-  public synchronized long getBadConnectionCount() {
+  @SuppressWarnings("deprecation")
+  public long getBadConnectionCount() {
+    badConnectionCount = badConnections.sum();
     return badConnectionCount;
   }
 
-  public synchronized long getClaimedOverdueConnectionCount() {
+  @SuppressWarnings("deprecation")
+  public long getClaimedOverdueConnectionCount() {
+    claimedOverdueConnectionCount = claimedOverdueConnections.sum();
     return claimedOverdueConnectionCount;
   }
 
-  public synchronized long getAverageOverdueCheckoutTime() {
-    return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+  @SuppressWarnings("deprecation")
+  public long getAverageOverdueCheckoutTime() {
+    long count = getClaimedOverdueConnectionCount();
+    accumulatedCheckoutTimeOfOverdueConnections = checkoutTimeOfOverdueConnections.sum();
+    return count == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / count;
+  }
+
+  @SuppressWarnings("deprecation")
+  public long getAverageCheckoutTime() {
+    long count = getRequestCount();
+    accumulatedCheckoutTime = checkoutTime.sum();
+    return count == 0 ? 0 : accumulatedCheckoutTime / count;
+  }
+
+  /**
+   * Gets the number of prepared statements reused from the statement cache of the connections.
+   *
+   * @return the hit count
+   * @since 3.5.7
+   */
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.sum();
+  }
+
+  /**
+   * Gets the number of prepared statements created because the statement cache of the connection did not have them.
+   *
+   * @return the miss count
+   * @since 3.5.7
+   */
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.sum();
+  }
+
+  /**
+   * Gets the distribution of the time it took to obtain a connection, in milliseconds.
+   *
+   * @return the histogram
+   * @since 3.5.7
+   */
+  public LatencyHistogram getRequestTimeHistogram() {
+    return requestTimeHistogram;
+  }
+
+  /**
+   * Gets the distribution of the time connections were checked out for, in milliseconds.
+   *
+   * @return the histogram
+   * @since 3.5.7
+   */
+  public LatencyHistogram getCheckoutTimeHistogram() {
+    return checkoutTimeHistogram;
+  }
+
+  /**
+   * Gets the distribution of the time requests that had to wait spent waiting for a free connection, in milliseconds.
+   *
+   * @return the histogram
+   * @since 3.5.7
+   */
+  public LatencyHistogram getWaitTimeHistogram() {
+    return waitTimeHistogram;
+  }
+
+  // 以下方法在无锁模式下也会被调用，不能获取连接池状态的锁
+  void recordRequest(long requestTime, long waitTime) {
+    requests.increment();
+    this.requestTime.add(requestTime);
+    this.waitTime.add(waitTime);
+  }
+
+  void recordHadToWait() {
+    hadToWait.increment();
+  }
+
+  void recordCheckoutTime(long checkoutTime) {
+    this.checkoutTime.add(checkoutTime);
+  }
+
+  void recordOverdueClaim(long checkoutTime) {
+    claimedOverdueConnections.increment();
+    checkoutTimeOfOverdueConnections.add(checkoutTime);
+    this.checkoutTime.add(checkoutTime);
   }
 
-  public synchronized long getAverageCheckoutTime() {
-    return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+  void recordBadConnection() {
+    badConnections.increment();
   }
 
-  public synchronized int getIdleConnectionCount() {
-    return idleConnections.size();
+  public int getIdleConnectionCount() {
+    if (dataSource.poolConcurrentBagEnabled) {
+      return bag.getCount(ConcurrentBag.BagEntry.STATE_NOT_IN_USE);
+    }
+    synchronized (this) {
+      return idleConnections.size();
+    }
   }
 
-  public synchronized int getActiveConnectionCount() {
-    return activeConnections.size();
+  public int getActiveConnectionCount() {
+    if (dataSource.poolConcurrentBagEnabled) {
+      return bag.getCount(ConcurrentBag.BagEntry.STATE_IN_USE);
+    }
+    synchronized (this) {
+      return activeConnections.size();
+    }
   }
 
   @Override
-  public synchronized String toString() {
+  public String toString() {
     StringBuilder builder = new StringBuilder();
     builder.append("\n===CONFINGURATION==============================================");
     builder.append("\n jdbcDriver                     ").append(dataSource.getDriver());
@@ -114,16 +266,27 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolConcurrentBagEnabled       ").append(dataSource.poolConcurrentBagEnabled);
+    builder.append("\n poolHousekeepingPeriod         ").append(dataSource.poolHousekeepingPeriod);
+    builder.append("\n poolMaximumLifetime            ").append(dataSource.poolMaximumLifetime);
+    builder.append("\n poolIdleTimeout                ").append(dataSource.poolIdleTimeout);
+    builder.append("\n poolMinimumIdle                ").append(dataSource.poolMinimumIdle);
+    builder.append("\n poolPreparedStatementCacheSize ").append(dataSource.poolPreparedStatementCacheSize);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
     builder.append("\n requestCount                   ").append(getRequestCount());
     builder.append("\n averageRequestTime             ").append(getAverageRequestTime());
+    builder.append("\n requestTime                    ").append(requestTimeHistogram);
     builder.append("\n averageCheckoutTime            ").append(getAverageCheckoutTime());
+    builder.append("\n checkoutTime                   ").append(checkoutTimeHistogram);
     builder.append("\n claimedOverdue                 ").append(getClaimedOverdueConnectionCount());
     builder.append("\n averageOverdueCheckoutTime     ").append(getAverageOverdueCheckoutTime());
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
+    builder.append("\n waitTime                       ").append(waitTimeHistogram);
+    builder.append("\n statementCacheHits             ").append(getStatementCacheHitCount());
+    builder.append("\n statementCacheMisses           ").append(getStatementCacheMissCount());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
     builder.append("\n===============================================================");
     return builder.toString();
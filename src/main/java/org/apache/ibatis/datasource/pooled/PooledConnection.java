@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -31,6 +31,8 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
+  private static final String PREPARE_CALL = "prepareCall";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private final int hashCode;
@@ -49,7 +51,11 @@ class PooledConnection implements InvocationHandler {
   // 连接类型码，由 url + username + password 拼接并获取 hashCode 得到
   private int connectionTypeCode;
   // 连接是否有效
-  private boolean valid;
+  private volatile boolean valid;
+  // 无锁模式下连接所属的条目
+  private PoolEntry poolEntry;
+  // 真实连接上的预编译语句缓存，在第一次预编译语句时创建
+  private StatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -85,6 +91,53 @@ class PooledConnection implements InvocationHandler {
     return valid && realConnection != null && dataSource.pingConnection(this);
   }
 
+  /**
+   * Getter for the entry this connection was borrowed from when the pool uses a {@link ConcurrentBag}.
+   *
+   * @return The entry, or null if the pool is not lock-free
+   */
+  PoolEntry getPoolEntry() {
+    return poolEntry;
+  }
+
+  /**
+   * Setter for the entry this connection was borrowed from.
+   *
+   * @param poolEntry
+   *          - the entry
+   */
+  void setPoolEntry(PoolEntry poolEntry) {
+    this.poolEntry = poolEntry;
+  }
+
+  /**
+   * Determines if the connection has been returned to the pool or claimed by another thread.
+   *
+   * @return True if the connection must not be used anymore
+   */
+  boolean isInvalidated() {
+    return !valid;
+  }
+
+  /**
+   * Getter for the statement cache of the real connection.
+   *
+   * @return The statement cache, or null if no statement has been cached yet
+   */
+  StatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the statement cache of the real connection, shared by all the connections that wrap it.
+   *
+   * @param statementCache
+   *          - the statement cache
+   */
+  void setStatementCache(StatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
   /**
    * Getter for the *real* connection that this wraps.
    *
@@ -262,6 +315,13 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         checkConnection();
       }
+      // 启用了语句缓存时，预编译语句从缓存中获取
+      if (PREPARE_STATEMENT.equals(methodName) || PREPARE_CALL.equals(methodName)) {
+        StatementCache cache = statementCache();
+        if (cache != null) {
+          return cache.prepare(this, method, args);
+        }
+      }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
       throw ExceptionUtil.unwrapThrowable(t);
@@ -269,6 +329,16 @@ class PooledConnection implements InvocationHandler {
 
   }
 
+  private StatementCache statementCache() {
+    if (statementCache == null && dataSource.getPoolPreparedStatementCacheSize() > 0) {
+      statementCache = new StatementCache(dataSource.getPoolPreparedStatementCacheSize(), dataSource.getPoolState());
+      if (poolEntry != null) {
+        poolEntry.setStatementCache(statementCache);
+      }
+    }
+    return statementCache;
+  }
+
   private void checkConnection() throws SQLException {
     if (!valid) {
       throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
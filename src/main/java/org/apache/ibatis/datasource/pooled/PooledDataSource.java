@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -16,13 +16,20 @@
 package org.apache.ibatis.datasource.pooled;
 
 import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -59,6 +66,24 @@ public class PooledDataSource implements DataSource {
   // 在创建连接时是否需要执行 PING 语句
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  // 是否使用无锁的 ConcurrentBag 来借出和归还连接
+  protected boolean poolConcurrentBagEnabled;
+  // 后台维护线程的运行间隔，0 表示不启用后台维护
+  protected int poolHousekeepingPeriod;
+  // 连接的最长存活时间，0 表示不限制
+  protected int poolMaximumLifetime;
+  // 空闲连接的最长空闲时间，0 表示不限制
+  protected int poolIdleTimeout;
+  // 后台维护线程需要保持的最少空闲连接数
+  protected int poolMinimumIdle;
+  // 每个连接最多缓存的预编译语句数量，0 表示不缓存
+  protected int poolPreparedStatementCacheSize;
+
+  // 连接池指标监听器
+  protected volatile PoolMetricsListener poolMetricsListener;
+
+  // 后台维护线程
+  private volatile ScheduledExecutorService housekeeper;
 
   // 预期的连接类型码
   private int expectedConnectionTypeCode;
@@ -259,6 +284,93 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * Determines if connections are checked out from a lock-free {@link ConcurrentBag} instead of under the pool monitor.
+   *
+   * @param poolConcurrentBagEnabled
+   *          True to check out connections without a global lock
+   * @since 3.5.7
+   */
+  public void setPoolConcurrentBagEnabled(boolean poolConcurrentBagEnabled) {
+    this.poolConcurrentBagEnabled = poolConcurrentBagEnabled;
+    forceCloseAll();
+  }
+
+  /**
+   * The interval of the background housekeeping task. When enabled, idle connections are pinged, expired and kept warm
+   * in the background and checkouts no longer ping inline.
+   *
+   * @param milliseconds
+   *          The interval, 0 disables the housekeeping task
+   * @since 3.5.7
+   */
+  public void setPoolHousekeepingPeriod(int milliseconds) {
+    this.poolHousekeepingPeriod = milliseconds;
+    forceCloseAll();
+    stopHousekeeper();
+  }
+
+  /**
+   * The maximum time a connection is kept in the pool since it was created.
+   *
+   * @param milliseconds
+   *          The maximum lifetime, 0 means no limit
+   * @since 3.5.7
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a connection can stay idle before the housekeeping task closes it.
+   *
+   * @param milliseconds
+   *          The idle timeout, 0 means no limit
+   * @since 3.5.7
+   */
+  public void setPoolIdleTimeout(int milliseconds) {
+    this.poolIdleTimeout = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The number of idle connections the housekeeping task tries to keep open.
+   *
+   * @param poolMinimumIdle
+   *          The minimum number of idle connections
+   * @since 3.5.7
+   */
+  public void setPoolMinimumIdle(int poolMinimumIdle) {
+    this.poolMinimumIdle = poolMinimumIdle;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum number of prepared and callable statements cached per connection. The statements are kept when the
+   * connection is returned to the pool, so that the sessions borrowing the connection later reuse them. The least
+   * recently used statement is closed when the cache is full.
+   *
+   * @param poolPreparedStatementCacheSize
+   *          The maximum number of statements, 0 disables the cache
+   * @since 3.5.7
+   */
+  public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+    this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+    forceCloseAll();
+  }
+
+  /**
+   * Sets a listener that receives the pool statistics as they are recorded.
+   *
+   * @param poolMetricsListener
+   *          The listener, null to remove it
+   * @since 3.5.7
+   */
+  public void setPoolMetricsListener(PoolMetricsListener poolMetricsListener) {
+    this.poolMetricsListener = poolMetricsListener;
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -329,6 +441,34 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public boolean isPoolConcurrentBagEnabled() {
+    return poolConcurrentBagEnabled;
+  }
+
+  public int getPoolHousekeepingPeriod() {
+    return poolHousekeepingPeriod;
+  }
+
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  public int getPoolIdleTimeout() {
+    return poolIdleTimeout;
+  }
+
+  public int getPoolMinimumIdle() {
+    return poolMinimumIdle;
+  }
+
+  public int getPoolPreparedStatementCacheSize() {
+    return poolPreparedStatementCacheSize;
+  }
+
+  public PoolMetricsListener getPoolMetricsListener() {
+    return poolMetricsListener;
+  }
+
   /**
    * 关闭池中的所有活动和空闲连接。
    * 在重新设置连接池或者连接参数前，会强行关闭所有连接
@@ -368,6 +508,24 @@ public class PooledDataSource implements DataSource {
           // ignore
         }
       }
+      // 关闭无锁模式下的所有连接
+      for (PoolEntry entry : state.bag.values()) {
+        state.bag.forceRemove(entry);
+        state.totalConnections.decrementAndGet();
+        PooledConnection conn = entry.getCurrent();
+        if (conn != null && entry.detach(conn)) {
+          conn.invalidate();
+        }
+        try {
+          Connection realConn = entry.getRealConnection();
+          if (!realConn.getAutoCommit()) {
+            realConn.rollback();
+          }
+          realConn.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
     }
     if (log.isDebugEnabled()) {
       log.debug("PooledDataSource forcefully closed/removed all connections.");
@@ -395,6 +553,11 @@ public class PooledDataSource implements DataSource {
    * @throws SQLException
    */
   protected void pushConnection(PooledConnection conn) throws SQLException {
+    // 从无锁模式借出的连接
+    if (conn.getPoolEntry() != null) {
+      requiteConnection(conn);
+      return;
+    }
 
     synchronized (state) {
       // 先从活动连接表中删除当前连接
@@ -403,9 +566,10 @@ public class PooledDataSource implements DataSource {
       if (conn.isValid()) {
         // 如果空闲表中有空余位置，并且当前连接的连接类型码和当前一致
         // 说明当前连接是可以放回到空闲表中的
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isExpired(conn.getCreatedTimestamp())) {
           // 统计总的连接使用时间
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          recordReturn(conn.getCheckoutTime());
           // 如果是手动提交，则需要在放回到空闲表前将所有待提交的事务回滚
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
@@ -417,6 +581,10 @@ public class PooledDataSource implements DataSource {
           // 初始化参数
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          // 后台维护线程 ping 成功后会根据连接类型码决定是否放回空闲表
+          newConn.setConnectionTypeCode(conn.getConnectionTypeCode());
+          // 预编译语句缓存属于真实连接，交给新的包装类继续使用
+          newConn.setStatementCache(conn.getStatementCache());
           // 设置原来的连接无效
           conn.invalidate();
           if (log.isDebugEnabled()) {
@@ -428,7 +596,7 @@ public class PooledDataSource implements DataSource {
         // 如果已经没有位置放下连接了，或者连接类型码已经发生了改变，老的连接需要丢掉
         else {
           // 统计总的连接使用时间
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          recordReturn(conn.getCheckoutTime());
           // 如果是手动提交方式，在丢弃连接前需要手动回滚事务
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
@@ -448,15 +616,22 @@ public class PooledDataSource implements DataSource {
         if (log.isDebugEnabled()) {
           log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
         }
-        state.badConnectionCount++;
+        recordBadConnection();
       }
     }
   }
 
   private PooledConnection popConnection(String username, String password) throws SQLException {
+    if (poolHousekeepingPeriod > 0 && housekeeper == null) {
+      startHousekeeper();
+    }
+    if (poolConcurrentBagEnabled) {
+      return borrowConnection(username, password);
+    }
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long waitTime = 0;
     int localBadConnectionCount = 0;
 
     while (conn == null) {
@@ -472,7 +647,7 @@ public class PooledDataSource implements DataSource {
         // 如果没有空闲连接
         else {
           // 当前有效的连接还没有到达设置的最大值，说明还可以创建新的连接
-          if (state.activeConnections.size() < poolMaximumActiveConnections) {
+          if (state.activeConnections.size() + state.validatingConnectionCount < poolMaximumActiveConnections) {
             // 创建新的连接
             conn = new PooledConnection(dataSource.getConnection(), this);
             if (log.isDebugEnabled()) {
@@ -488,12 +663,8 @@ public class PooledDataSource implements DataSource {
             long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
             // 如果连接使用的时间已经超过了连接池设置的最长时间，说明当前连接超时了
             if (longestCheckoutTime > poolMaximumCheckoutTime) {
-              // 声明超时连接数量
-              state.claimedOverdueConnectionCount++;
-              // 统计超时连接的时间
-              state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
-              // 统计连接的使用时间
-              state.accumulatedCheckoutTime += longestCheckoutTime;
+              // 统计超时连接数量和超时连接的使用时间
+              recordOverdueClaim(longestCheckoutTime);
               // 将超时的连接从连接池中删除
               state.activeConnections.remove(oldestActiveConnection);
               // 如果是手动提交的方式的话，则进行回滚
@@ -516,6 +687,7 @@ public class PooledDataSource implements DataSource {
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+              conn.setStatementCache(oldestActiveConnection.getStatementCache());
               // 设置原来的连接为无效连接
               oldestActiveConnection.invalidate();
               if (log.isDebugEnabled()) {
@@ -526,7 +698,7 @@ public class PooledDataSource implements DataSource {
               try {
                 if (!countedWait) {
                   // 统计等待连接的次数
-                  state.hadToWaitCount++;
+                  state.recordHadToWait();
                   countedWait = true;
                 }
                 if (log.isDebugEnabled()) {
@@ -536,7 +708,7 @@ public class PooledDataSource implements DataSource {
                 // 等待固定时间
                 state.wait(poolTimeToWait);
                 // 统计等待时间
-                state.accumulatedWaitTime += System.currentTimeMillis() - wt;
+                waitTime += System.currentTimeMillis() - wt;
               } catch (InterruptedException e) {
                 break;
               }
@@ -557,16 +729,14 @@ public class PooledDataSource implements DataSource {
             conn.setLastUsedTimestamp(System.currentTimeMillis());
             // 将当前连接添加到正在被使用的表中
             state.activeConnections.add(conn);
-            // 连接获取成功次数自增
-            state.requestCount++;
-            // 统计连接获取的时间
-            state.accumulatedRequestTime += System.currentTimeMillis() - t;
+            // 统计连接获取的次数和时间
+            recordCheckout(System.currentTimeMillis() - t, waitTime, countedWait);
           } else {
             if (log.isDebugEnabled()) {
               log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
             }
             // 坏连接次数自增
-            state.badConnectionCount++;
+            recordBadConnection();
             localBadConnectionCount++;
             conn = null;
             // 如果多次拿不到一个有效的连接，则直接抛出异常
@@ -594,6 +764,227 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+  /**
+   * 无锁模式下获取连接，只有统计信息的更新会短暂地持有 state 的锁。
+   * 获取顺序和 {@link #popConnection(String, String)} 一致：空闲连接、新建连接、回收超时连接、等待
+   */
+  private PooledConnection borrowConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    long t = System.currentTimeMillis();
+    long waitTime = 0;
+    int localBadConnectionCount = 0;
+
+    while (true) {
+      PooledConnection conn = null;
+      try {
+        // 如果有空闲连接，则直接借出
+        PoolEntry entry = state.bag.borrow(0, TimeUnit.MILLISECONDS);
+        if (entry != null) {
+          conn = wrapEntry(entry);
+          if (log.isDebugEnabled()) {
+            log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+          }
+        }
+        // 没有空闲连接，但是连接数还没有到达最大值，则创建新的连接
+        if (conn == null) {
+          conn = createEntryConnection();
+        }
+        // 已经不能再创建连接了，尝试回收最早借出去并且已经超时的连接
+        if (conn == null) {
+          conn = claimOverdueConnection();
+        }
+        // 等待其他线程归还连接
+        if (conn == null) {
+          if (!countedWait) {
+            state.recordHadToWait();
+            countedWait = true;
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+          }
+          long wt = System.currentTimeMillis();
+          entry = state.bag.borrow(poolTimeToWait, TimeUnit.MILLISECONDS);
+          waitTime += System.currentTimeMillis() - wt;
+          if (entry == null) {
+            continue;
+          }
+          conn = wrapEntry(entry);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (log.isDebugEnabled()) {
+          log.debug("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+        }
+        throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+      }
+
+      PoolEntry entry = conn.getPoolEntry();
+      if (conn.isValid()) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        entry.setCurrent(conn);
+        recordCheckout(System.currentTimeMillis() - t, waitTime, countedWait);
+        return conn;
+      }
+
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      discardEntry(entry);
+      recordBadConnection();
+      localBadConnectionCount++;
+      if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+        if (log.isDebugEnabled()) {
+          log.debug("PooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("PooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+  }
+
+  /**
+   * 创建一个新的条目并直接借出，如果连接数已经到达最大值则返回 null
+   */
+  private PooledConnection createEntryConnection() throws SQLException {
+    if (!reserveConnectionSlot()) {
+      return null;
+    }
+    PoolEntry entry;
+    try {
+      entry = new PoolEntry(dataSource.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      state.totalConnections.decrementAndGet();
+      throw e;
+    }
+    entry.setState(ConcurrentBag.BagEntry.STATE_IN_USE);
+    state.bag.add(entry);
+    PooledConnection conn = wrapEntry(entry);
+    if (log.isDebugEnabled()) {
+      log.debug("Created connection " + conn.getRealHashCode() + ".");
+    }
+    return conn;
+  }
+
+  /**
+   * 无锁模式下占用一个连接数名额，如果连接数已经到达最大值则返回 false
+   */
+  private boolean reserveConnectionSlot() {
+    int total;
+    do {
+      total = state.totalConnections.get();
+      if (total >= poolMaximumActiveConnections) {
+        return false;
+      }
+    } while (!state.totalConnections.compareAndSet(total, total + 1));
+    return true;
+  }
+
+  /**
+   * 回收借出时间最长并且已经超时的连接，如果没有超时的连接则返回 null
+   */
+  private PooledConnection claimOverdueConnection() {
+    PooledConnection oldestActiveConnection = null;
+    for (PoolEntry entry : state.bag.values()) {
+      PooledConnection current = entry.getCurrent();
+      if (current != null && (oldestActiveConnection == null
+          || current.getCheckoutTimestamp() < oldestActiveConnection.getCheckoutTimestamp())) {
+        oldestActiveConnection = current;
+      }
+    }
+    if (oldestActiveConnection == null) {
+      return null;
+    }
+    long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+    PoolEntry entry = oldestActiveConnection.getPoolEntry();
+    // 其他线程可能已经归还或者回收了这个连接
+    if (longestCheckoutTime <= poolMaximumCheckoutTime || !entry.detach(oldestActiveConnection)) {
+      return null;
+    }
+    recordOverdueClaim(longestCheckoutTime);
+    try {
+      if (!entry.getRealConnection().getAutoCommit()) {
+        entry.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      log.debug("Bad connection. Could not roll back");
+    }
+    entry.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+    oldestActiveConnection.invalidate();
+    PooledConnection conn = wrapEntry(entry);
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+    }
+    return conn;
+  }
+
+  /**
+   * 无锁模式下归还连接
+   */
+  private void requiteConnection(PooledConnection conn) throws SQLException {
+    PoolEntry entry = conn.getPoolEntry();
+    // 连接已经被回收或者被强制关闭了
+    if (!entry.detach(conn)) {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      recordBadConnection();
+      return;
+    }
+    if (conn.isValid()) {
+      recordReturn(conn.getCheckoutTime());
+      if (state.bag.getCount(ConcurrentBag.BagEntry.STATE_NOT_IN_USE) < poolMaximumIdleConnections
+          && conn.getConnectionTypeCode() == expectedConnectionTypeCode && !isExpired(conn.getCreatedTimestamp())) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        entry.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+        conn.invalidate();
+        state.bag.requite(entry);
+        if (log.isDebugEnabled()) {
+          log.debug("Returned connection " + conn.getRealHashCode() + " to pool.");
+        }
+      } else {
+        conn.invalidate();
+        discardEntry(entry);
+        if (log.isDebugEnabled()) {
+          log.debug("Closed connection " + conn.getRealHashCode() + ".");
+        }
+      }
+    } else {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      discardEntry(entry);
+      recordBadConnection();
+    }
+  }
+
+  /**
+   * 为借出的条目创建一个新的连接包装类
+   */
+  private PooledConnection wrapEntry(PoolEntry entry) {
+    PooledConnection conn = new PooledConnection(entry.getRealConnection(), this);
+    conn.setPoolEntry(entry);
+    conn.setStatementCache(entry.getStatementCache());
+    conn.setCreatedTimestamp(entry.getCreatedTimestamp());
+    conn.setLastUsedTimestamp(entry.getLastUsedTimestamp());
+    return conn;
+  }
+
+  /**
+   * 从 bag 中删除借出的条目并关闭真实连接
+   */
+  private void discardEntry(PoolEntry entry) {
+    if (state.bag.remove(entry)) {
+      state.totalConnections.decrementAndGet();
+    }
+    closeQuietly(entry.getRealConnection());
+  }
+
   /**
    * 检查连接是否仍然可用的方法
    *
@@ -601,6 +992,11 @@ public class PooledDataSource implements DataSource {
    * @return 连接是否可用
    */
   protected boolean pingConnection(PooledConnection conn) {
+    // 启用了后台维护时，由后台线程 ping 空闲连接，借出和归还时不再 ping
+    return pingConnection(conn, poolHousekeepingPeriod <= 0);
+  }
+
+  private boolean pingConnection(PooledConnection conn, boolean pingAllowed) {
     boolean result = true;
 
     try {
@@ -620,7 +1016,7 @@ public class PooledDataSource implements DataSource {
        3. 设置了有效的长时间未使用连接需要检测连接的最长时间
        4. 连接自从上一次使用到现在未使用的时间超过了设置了设定的最大时间
      */
-    if (result && poolPingEnabled && poolPingConnectionsNotUsedFor >= 0
+    if (result && pingAllowed && poolPingEnabled && poolPingConnectionsNotUsedFor >= 0
         && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
       try {
         if (log.isDebugEnabled()) {
@@ -671,8 +1067,260 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+  private void recordCheckout(long requestTime, long waitTime, boolean hadToWait) {
+    state.recordRequest(requestTime, waitTime);
+    state.requestTimeHistogram.record(requestTime);
+    if (hadToWait) {
+      state.waitTimeHistogram.record(waitTime);
+    }
+    if (poolMetricsListener != null) {
+      poolMetricsListener.connectionCheckedOut(requestTime, waitTime);
+    }
+  }
+
+  private void recordReturn(long checkoutTime) {
+    state.recordCheckoutTime(checkoutTime);
+    state.checkoutTimeHistogram.record(checkoutTime);
+    if (poolMetricsListener != null) {
+      poolMetricsListener.connectionReturned(checkoutTime);
+    }
+  }
+
+  private void recordOverdueClaim(long checkoutTime) {
+    state.recordOverdueClaim(checkoutTime);
+    state.checkoutTimeHistogram.record(checkoutTime);
+    if (poolMetricsListener != null) {
+      poolMetricsListener.overdueConnectionClaimed(checkoutTime);
+    }
+  }
+
+  private void recordBadConnection() {
+    state.recordBadConnection();
+    if (poolMetricsListener != null) {
+      poolMetricsListener.badConnectionDetected();
+    }
+  }
+
+  /**
+   * 连接是否已经超过了最长存活时间
+   */
+  private boolean isExpired(long createdTimestamp) {
+    return poolMaximumLifetime > 0 && System.currentTimeMillis() - createdTimestamp > poolMaximumLifetime;
+  }
+
+  private synchronized void startHousekeeper() {
+    if (housekeeper == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "mybatis-pool-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+      });
+      // 数据源被回收后任务会停止，没有任务时线程也会退出
+      executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+      executor.allowCoreThreadTimeOut(true);
+      executor.scheduleWithFixedDelay(new Housekeeper(this), poolHousekeepingPeriod, poolHousekeepingPeriod,
+          TimeUnit.MILLISECONDS);
+      housekeeper = executor;
+    }
+  }
+
+  private synchronized void stopHousekeeper() {
+    if (housekeeper != null) {
+      housekeeper.shutdownNow();
+      housekeeper = null;
+    }
+  }
+
+  /**
+   * 后台维护：关闭超时和空闲太久的连接，ping 长时间未使用的空闲连接，补足最少空闲连接数
+   */
+  private void housekeep() {
+    if (poolConcurrentBagEnabled) {
+      housekeepBag();
+    } else {
+      housekeepIdleConnections();
+    }
+    fillMinimumIdle();
+  }
+
+  private void housekeepIdleConnections() {
+    List<PooledConnection> evicted = new ArrayList<>();
+    List<PooledConnection> validating = new ArrayList<>();
+    synchronized (state) {
+      // 从最老的空闲连接开始检查
+      for (Iterator<PooledConnection> it = state.idleConnections.iterator(); it.hasNext();) {
+        PooledConnection conn = it.next();
+        if (isExpired(conn.getCreatedTimestamp()) || (poolIdleTimeout > 0
+            && conn.getTimeElapsedSinceLastUse() > poolIdleTimeout
+            && state.idleConnections.size() > poolMinimumIdle)) {
+          it.remove();
+          evicted.add(conn);
+        } else if (needsPing(conn)) {
+          // 从空闲表中暂时移出，避免 ping 的时候被借出
+          it.remove();
+          validating.add(conn);
+        }
+      }
+      state.validatingConnectionCount += validating.size();
+    }
+
+    for (PooledConnection conn : evicted) {
+      if (log.isDebugEnabled()) {
+        log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+      }
+      conn.invalidate();
+      closeQuietly(conn.getRealConnection());
+    }
+    for (PooledConnection conn : validating) {
+      boolean good = pingConnection(conn, true);
+      if (good) {
+        // ping 成功后刷新最后使用时间，在下一个检测周期之前不需要再 ping
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+      }
+      synchronized (state) {
+        state.validatingConnectionCount--;
+        if (good && state.idleConnections.size() < poolMaximumIdleConnections
+            && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+          state.idleConnections.add(conn);
+          state.notifyAll();
+          continue;
+        }
+        if (!good) {
+          recordBadConnection();
+        }
+      }
+      conn.invalidate();
+      closeQuietly(conn.getRealConnection());
+    }
+  }
+
+  private void housekeepBag() {
+    for (PoolEntry entry : state.bag.values()) {
+      if (!state.bag.reserve(entry)) {
+        continue;
+      }
+      boolean evict = isExpired(entry.getCreatedTimestamp()) || (poolIdleTimeout > 0
+          && System.currentTimeMillis() - entry.getLastUsedTimestamp() > poolIdleTimeout
+          && state.bag.getCount(ConcurrentBag.BagEntry.STATE_NOT_IN_USE) >= poolMinimumIdle);
+      if (!evict) {
+        PooledConnection conn = wrapEntry(entry);
+        if (needsPing(conn)) {
+          if (pingConnection(conn, true)) {
+            entry.setLastUsedTimestamp(System.currentTimeMillis());
+          } else {
+            recordBadConnection();
+            evict = true;
+          }
+        }
+        conn.invalidate();
+      }
+      if (evict) {
+        if (log.isDebugEnabled()) {
+          log.debug("Evicted idle connection " + entry.getRealConnection().hashCode() + ".");
+        }
+        discardEntry(entry);
+      } else {
+        state.bag.unreserve(entry);
+      }
+    }
+  }
+
+  private void fillMinimumIdle() {
+    while (getPoolState().getIdleConnectionCount() < Math.min(poolMinimumIdle, poolMaximumIdleConnections)) {
+      int typeCode = expectedConnectionTypeCode;
+      if (poolConcurrentBagEnabled) {
+        if (!reserveConnectionSlot()) {
+          return;
+        }
+        PoolEntry entry;
+        try {
+          entry = new PoolEntry(dataSource.getConnection());
+        } catch (SQLException | RuntimeException e) {
+          state.totalConnections.decrementAndGet();
+          log.warn("Could not create idle connection: " + e.getMessage());
+          return;
+        }
+        state.bag.add(entry);
+      } else {
+        synchronized (state) {
+          if (state.activeConnections.size() + state.idleConnections.size() + state.validatingConnectionCount
+              >= poolMaximumActiveConnections) {
+            return;
+          }
+        }
+        PooledConnection conn;
+        try {
+          conn = new PooledConnection(dataSource.getConnection(), this);
+        } catch (SQLException | RuntimeException e) {
+          log.warn("Could not create idle connection: " + e.getMessage());
+          return;
+        }
+        conn.setConnectionTypeCode(typeCode);
+        synchronized (state) {
+          if (typeCode == expectedConnectionTypeCode && state.idleConnections.size() < poolMaximumIdleConnections) {
+            state.idleConnections.add(conn);
+            state.notifyAll();
+            conn = null;
+          }
+        }
+        if (conn != null) {
+          closeQuietly(conn.getRealConnection());
+          return;
+        }
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Created idle connection.");
+      }
+    }
+  }
+
+  /**
+   * 空闲连接是否需要 ping
+   */
+  private boolean needsPing(PooledConnection conn) {
+    return poolPingEnabled && poolPingConnectionsNotUsedFor >= 0
+        && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor;
+  }
+
+  private static void closeQuietly(Connection realConn) {
+    try {
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  /**
+   * 定时执行后台维护的任务，只持有数据源的弱引用，数据源被回收后自动停止
+   */
+  private static class Housekeeper implements Runnable {
+
+    private final WeakReference<PooledDataSource> dataSourceRef;
+
+    Housekeeper(PooledDataSource dataSource) {
+      this.dataSourceRef = new WeakReference<>(dataSource);
+    }
+
+    @Override
+    public void run() {
+      PooledDataSource dataSource = dataSourceRef.get();
+      if (dataSource == null) {
+        throw new IllegalStateException("PooledDataSource has been garbage collected.");
+      }
+      try {
+        dataSource.housekeep();
+      } catch (RuntimeException e) {
+        log.warn("Pool housekeeping failed: " + e.getMessage());
+      }
+    }
+  }
+
   @Override
   protected void finalize() throws Throwable {
+    stopHousekeeper();
     forceCloseAll();
     super.finalize();
   }
@@ -0,0 +1,170 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * 缓存的预编译语句的包装类，关闭时把真实语句放回 {@link StatementCache}。
+ * <p>
+ * 放回前会关闭打开的结果集、清除参数和批量，并恢复使用期间修改过的设置（超时时间、fetch size 等），
+ * 使下一个使用者拿到的语句和新创建的一样。无法恢复的语句（执行出错、修改了无法读取的设置、连接已经失效）直接关闭。
+ */
+class PooledStatement implements InvocationHandler {
+
+  private static final String CLOSE = "close";
+  private static final String IS_CLOSED = "isClosed";
+  private static final String GET_CONNECTION = "getConnection";
+  private static final String ADD_BATCH = "addBatch";
+
+  // 可以恢复的设置，key 为 setter 名称，value 为读取原来值的 getter
+  private static final Map<String, Method> RESTORABLE_SETTINGS = new HashMap<>();
+  // 无法恢复的设置，修改后语句不再放回缓存
+  private static final Set<String> UNRESTORABLE_SETTINGS = new HashSet<>(
+      Arrays.asList("setEscapeProcessing", "setCursorName", "closeOnCompletion"));
+
+  static {
+    try {
+      for (String setting : new String[] { "QueryTimeout", "FetchSize", "FetchDirection", "MaxRows", "LargeMaxRows",
+          "MaxFieldSize" }) {
+        RESTORABLE_SETTINGS.put("set" + setting, Statement.class.getMethod("get" + setting));
+      }
+      RESTORABLE_SETTINGS.put("setPoolable", Statement.class.getMethod("isPoolable"));
+    } catch (NoSuchMethodException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final StatementCache statementCache;
+  private final StatementCache.StatementKey key;
+  private final Statement realStatement;
+  // 创建语句的连接包装类
+  private final PooledConnection connection;
+  private final Statement proxyStatement;
+  // 使用期间修改过的设置和原来的值
+  private final Map<Method, Object> originalSettings = new LinkedHashMap<>();
+  // 最近一次返回的结果集
+  private ResultSet resultSet;
+  private boolean batched;
+  private boolean reusable = true;
+  private boolean closed;
+
+  PooledStatement(StatementCache statementCache, StatementCache.StatementKey key, Statement realStatement,
+      PooledConnection connection, Class<?> statementType) {
+    this.statementCache = statementCache;
+    this.key = key;
+    this.realStatement = realStatement;
+    this.connection = connection;
+    this.proxyStatement = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+        new Class<?>[] { statementType }, this);
+  }
+
+  Statement getProxyStatement() {
+    return proxyStatement;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String methodName = method.getName();
+    if (CLOSE.equals(methodName)) {
+      close();
+      return null;
+    }
+    if (IS_CLOSED.equals(methodName)) {
+      return closed || realStatement.isClosed();
+    }
+    if (Object.class.equals(method.getDeclaringClass())) {
+      return method.invoke(realStatement, args);
+    }
+    if (closed) {
+      throw new SQLException("Error accessing PooledStatement. Statement is closed.");
+    }
+    // 返回代理连接，避免使用者拿到并关闭真实连接
+    if (GET_CONNECTION.equals(methodName)) {
+      return connection.getProxyConnection();
+    }
+    try {
+      Method getter = RESTORABLE_SETTINGS.get(methodName);
+      if (getter != null && !originalSettings.containsKey(method)) {
+        originalSettings.put(method, getter.invoke(realStatement));
+      } else if (UNRESTORABLE_SETTINGS.contains(methodName)) {
+        reusable = false;
+      } else if (ADD_BATCH.equals(methodName)) {
+        batched = true;
+      }
+      Object result = method.invoke(realStatement, args);
+      if (result instanceof ResultSet) {
+        resultSet = (ResultSet) result;
+      }
+      return result;
+    } catch (Throwable t) {
+      // 执行出错的语句可能处于未知的状态，不再复用
+      reusable = false;
+      throw ExceptionUtil.unwrapThrowable(t);
+    }
+  }
+
+  private void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (reusable && !connection.isInvalidated()) {
+      try {
+        reset();
+        statementCache.put(key, realStatement);
+        return;
+      } catch (Exception e) {
+        // 无法恢复的语句直接关闭
+      }
+    }
+    StatementCache.closeQuietly(realStatement);
+  }
+
+  private void reset() throws Exception {
+    if (realStatement.isClosed()) {
+      throw new SQLException("The statement has been closed by the driver.");
+    }
+    if (resultSet != null) {
+      resultSet.close();
+    }
+    if (batched) {
+      realStatement.clearBatch();
+    }
+    if (realStatement instanceof PreparedStatement) {
+      ((PreparedStatement) realStatement).clearParameters();
+    }
+    for (Map.Entry<Method, Object> setting : originalSettings.entrySet()) {
+      setting.getKey().invoke(realStatement, setting.getValue());
+    }
+    realStatement.clearWarnings();
+  }
+
+}
@@ -0,0 +1,158 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 真实连接上的预编译语句缓存，按最近最少使用的顺序淘汰。
+ * <p>
+ * 缓存属于真实连接，连接归还后重新借出时（包括被其他会话借出）仍然可以复用。
+ * 语句借出时会从缓存中移除，关闭时再放回，因此同一时刻一条语句只会被一个使用者持有。
+ */
+class StatementCache {
+
+  // 最多缓存的语句数量
+  private final int maxSize;
+  // 统计命中次数
+  private final PoolState state;
+  // 按放回的顺序排列，最早放回的最先被淘汰
+  private final Map<StatementKey, Statement> statements = new LinkedHashMap<>();
+
+  StatementCache(int maxSize, PoolState state) {
+    this.maxSize = maxSize;
+    this.state = state;
+  }
+
+  /**
+   * Prepares a statement on the real connection of the given pooled connection, reusing a cached one if possible.
+   *
+   * @param conn
+   *          the pooled connection that prepares the statement
+   * @param method
+   *          {@code prepareStatement} or {@code prepareCall} of {@link java.sql.Connection}
+   * @param args
+   *          the arguments of the method, the variants with a result set type, concurrency, holdability or generated
+   *          keys are cached separately
+   * @return the proxy of the statement, closing it puts the statement back into this cache
+   * @throws ReflectiveOperationException
+   *           if the driver throws an exception
+   * @throws SQLException
+   *           if a cached statement can not be checked
+   */
+  Statement prepare(PooledConnection conn, Method method, Object[] args) throws ReflectiveOperationException, SQLException {
+    StatementKey key = new StatementKey(method.getName(), args);
+    Statement statement = take(key);
+    // 已经被关闭的语句（比如连接被数据库断开过）不能复用
+    if (statement != null && statement.isClosed()) {
+      statement = null;
+    }
+    if (statement == null) {
+      state.statementCacheMissCount.increment();
+      statement = (Statement) method.invoke(conn.getRealConnection(), args);
+    } else {
+      state.statementCacheHitCount.increment();
+    }
+    return new PooledStatement(this, key, statement, conn, method.getReturnType()).getProxyStatement();
+  }
+
+  private synchronized Statement take(StatementKey key) {
+    return statements.remove(key);
+  }
+
+  /**
+   * Puts a statement back, evicting the least recently used one if the cache is full.
+   *
+   * @param key
+   *          the key of the statement
+   * @param statement
+   *          the real statement
+   */
+  void put(StatementKey key, Statement statement) {
+    Statement replaced;
+    Statement evicted = null;
+    synchronized (this) {
+      replaced = statements.put(key, statement);
+      if (statements.size() > maxSize) {
+        Iterator<Statement> iterator = statements.values().iterator();
+        evicted = iterator.next();
+        iterator.remove();
+      }
+    }
+    // 同一条 SQL 同时被借出了多次，只保留最后放回的
+    closeQuietly(replaced);
+    closeQuietly(evicted);
+  }
+
+  synchronized int size() {
+    return statements.size();
+  }
+
+  static void closeQuietly(Statement statement) {
+    if (statement != null) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * 缓存的键，由创建语句的方法名和全部参数组成
+   */
+  static final class StatementKey {
+
+    private final String methodName;
+    private final Object[] args;
+    private final int hashCode;
+
+    StatementKey(String methodName, Object[] args) {
+      this.methodName = methodName;
+      this.args = args == null ? new Object[0] : args.clone();
+      this.hashCode = 31 * methodName.hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof StatementKey)) {
+        return false;
+      }
+      StatementKey other = (StatementKey) obj;
+      return hashCode == other.hashCode && methodName.equals(other.methodName) && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public String toString() {
+      return methodName + Arrays.deepToString(args);
+    }
+  }
+
+}
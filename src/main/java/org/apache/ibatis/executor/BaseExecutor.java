@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -35,6 +35,9 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.StatementMetricsListener;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
@@ -140,7 +143,7 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     // 构建 BoundSql
-    BoundSql boundSql = ms.getBoundSql(parameter);
+    BoundSql boundSql = StatementTimer.getBoundSql(ms, parameter);
     // 构建 CacheKey
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
@@ -165,6 +168,10 @@ public abstract class BaseExecutor implements Executor {
       queryStack++;
       // 如果没有设置结果处理器，则可以从本地缓存中读取结果
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      final StatementMetricsListener metricsListener = configuration.getStatementMetricsListener();
+      if (metricsListener != null && resultHandler == null) {
+        metricsListener.cacheAccessed(ms.getId(), true, list != null);
+      }
       if (list != null) {// 从本地缓存中得到了结果
         // 处理语句中的 OUT 参数
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
@@ -192,7 +199,7 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameter);
+    BoundSql boundSql = StatementTimer.getBoundSql(ms, parameter);
     return doQueryCursor(ms, parameter, rowBounds, boundSql);
   }
 
@@ -214,12 +221,13 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    // 预先分配好空间：id、offset、limit、sql、所有参数以及环境 id
+    CacheKey cacheKey = new CacheKey(parameterMappings.size() + 5);
     cacheKey.update(ms.getId());
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
     cacheKey.update(boundSql.getSql());
-    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
     // 模仿 DefaultParameterHandler 中的处理逻辑
     for (ParameterMapping parameterMapping : parameterMappings) {
@@ -251,6 +259,11 @@ public abstract class BaseExecutor implements Executor {
     return localCache.getObject(key) != null;
   }
 
+  @Override
+  public boolean isExecuting(MappedStatement ms, CacheKey key) {
+    return localCache.getObject(key) == EXECUTION_PLACEHOLDER;
+  }
+
   @Override
   public void commit(boolean required) throws SQLException {
     if (closed) {
@@ -356,6 +369,24 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  /**
+   * Gets the connection for a statement, reporting the time it took as {@link StatementPhase#CONNECTION}.
+   *
+   * @param ms
+   *          the mapped statement
+   * @return the connection
+   * @throws SQLException
+   *           if the connection can not be obtained
+   * @since 3.5.7
+   */
+  protected Connection getConnection(MappedStatement ms) throws SQLException {
+    final StatementMetricsListener metricsListener = configuration.getStatementMetricsListener();
+    final long start = StatementTimer.start(metricsListener);
+    final Connection connection = getConnection(ms.getStatementLog());
+    StatementTimer.stop(metricsListener, ms, StatementPhase.CONNECTION, start);
+    return connection;
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,19 +17,30 @@ package org.apache.ibatis.executor;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -37,6 +48,18 @@ import org.apache.ibatis.transaction.Transaction;
 
 /**
  * 支持批量执行功能的执行器
+ * <p>
+ * 开启 batchReorderingEnabled 后，交替执行的 INSERT 语句会按照 (MappedStatement, SQL) 分组，
+ * 每组只打开一个语句，刷新时按照每组第一次出现的顺序执行。非 INSERT 语句是一个屏障，之后的 INSERT 不会被重排到它之前。
+ * 执行器不知道表之间的外键，所以每张表的第一条 INSERT 必须在它引用的表的第一条 INSERT 之后，
+ * 例如 子1、父2、子2（引用父2）会按照 子1、子2、父2 的顺序执行。
+ * <p>
+ * 设置了 batchSize 或者 maxBatchBufferedBytes 后，缓存的调用达到上限时会自动执行所有暂存的语句，
+ * 自动执行的结果会在下一次刷新时一起返回。
+ * <p>
+ * 开启 multiRowInsertEnabled 后，以 VALUES (...) 结尾的 INSERT 语句不会逐条 addBatch，而是在执行时改写为
+ * VALUES (...), (...) 的多行插入语句，每条语句的参数个数不超过 maxParametersPerStatement。
+ * 存在 StatementHandler 或者 ParameterHandler 插件，或者使用了自定义的参数处理器时，仍然逐条 addBatch。
  *
  * @author Jeff Butler
  */
@@ -53,9 +76,20 @@ public class BatchExecutor extends BaseExecutor {
   private String currentSql;
   // 当前的映射语句
   private MappedStatement currentStatement;
+  // 是否对交替执行的 INSERT 语句进行分组
+  private final boolean reordering;
+  // 可以加入的 INSERT 语句在 statementList 中的下标，key 为 MappedStatement 和 SQL
+  private final Map<List<Object>, Integer> insertStatementIndexes = new HashMap<>();
+  // 自动刷新时已经执行的结果，在下一次刷新时一起返回
+  private final List<BatchResult> flushedResults = new ArrayList<>();
+  // 暂存的请求参数估算的大小
+  private long bufferedBytes;
+  // 改写为多行插入的语句，key 为在 statementList 中的下标，对应的语句为 null
+  private final Map<Integer, MultiRowInsert> multiRowInserts = new HashMap<>();
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    this.reordering = configuration.isBatchReorderingEnabled();
   }
 
   @Override
@@ -64,34 +98,151 @@ public class BatchExecutor extends BaseExecutor {
     final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, null);
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
-    final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {// 如果 sql 和 mappedStatement 与上次执行的一致
-      int last = statementList.size() - 1;
-      // 得到上次执行的语句
-      stmt = statementList.get(last);
-      applyTransactionTimeout(stmt);
-      // 重新设置参数的值
-      handler.parameterize(stmt);
-      // 得到上条语句的执行结果
-      BatchResult batchResult = batchResultList.get(last);
+    final BatchResult batchResult;
+    final int index = indexOfBatchedStatement(ms, sql);
+    if (index >= 0) {// 如果存在可以复用的语句
+      MultiRowInsert multiRowInsert = multiRowInserts.get(index);
+      if (multiRowInsert != null) {// 多行插入只需要暂存 BoundSql
+        multiRowInsert.add(boundSql);
+      } else {
+        // 得到之前执行的语句
+        Statement stmt = statementList.get(index);
+        applyTransactionTimeout(stmt);
+        // 重新设置参数的值
+        handler.parameterize(stmt);
+        // 添加到批量执行列表中
+        handler.batch(stmt);
+      }
+      // 得到对应语句的执行结果
+      batchResult = batchResultList.get(index);
       // 将请求参数添加到其中
       batchResult.addParameterObject(parameterObject);
     } else {// 如果是第一次执行或者本次和上次执行的语句不相同
-      // 下面三步 SimpleExecutor 的步骤一致
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection, transaction.getTimeout());
-      handler.parameterize(stmt);
-      // 这三步是将当前的语句暂存起来，方便后面语句执行时可以重用
+      // 将当前的语句暂存起来，方便后面语句执行时可以重用
       currentSql = sql;
       currentStatement = ms;
-      statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      if (reordering && ms.getSqlCommandType() == SqlCommandType.INSERT) {
+        insertStatementIndexes.put(Arrays.asList(ms, sql), statementList.size());
+      }
+      MultiRowInsert multiRowInsert = parseMultiRowInsert(ms, handler, boundSql);
+      if (multiRowInsert != null) {// 多行插入在执行时才创建语句
+        multiRowInsert.add(boundSql);
+        multiRowInserts.put(statementList.size(), multiRowInsert);
+        statementList.add(null);
+      } else {
+        // 下面三步 SimpleExecutor 的步骤一致
+        Connection connection = getConnection(ms);
+        Statement stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);
+        statementList.add(stmt);
+        // 添加到批量执行列表中
+        handler.batch(stmt);
+      }
+      batchResult = new BatchResult(ms, sql, parameterObject);
+      batchResultList.add(batchResult);
+    }
+    // 达到上限时自动执行暂存的语句
+    if (isBatchFull(ms, batchResult, boundSql, parameterObject)) {
+      try {
+        executeStatements(flushedResults);
+      } finally {
+        closeStatements();
+      }
     }
-    // 添加到批量执行列表中
-    handler.batch(stmt);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private MultiRowInsert parseMultiRowInsert(MappedStatement ms, StatementHandler handler, BoundSql boundSql) {
+    if (!configuration.isMultiRowInsertEnabled() || ms.getSqlCommandType() != SqlCommandType.INSERT
+        || ms.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    // 改写后的语句直接通过 DefaultParameterHandler 设置每一行的参数，
+    // 所以存在 StatementHandler 或者 ParameterHandler 插件，或者 LanguageDriver 使用了其他的参数处理器时，还是使用 JDBC 批量执行
+    if (handler.getClass() != RoutingStatementHandler.class
+        || handler.getParameterHandler().getClass() != DefaultParameterHandler.class) {
+      return null;
+    }
+    // SelectKeyGenerator 需要在每一行插入后执行
+    final Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (!NoKeyGenerator.class.equals(keyGeneratorType) && !Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    return MultiRowInsert.parse(boundSql.getSql(), boundSql.getParameterMappings().size());
+  }
+
+  private boolean isBatchFull(MappedStatement ms, BatchResult batchResult, BoundSql boundSql, Object parameterObject) {
+    final Integer batchSize = ms.getBatchSize() != null ? ms.getBatchSize() : configuration.getDefaultBatchSize();
+    if (batchSize != null && batchSize > 0 && batchResult.getParameterObjects().size() >= batchSize) {
+      return true;
+    }
+    final long maxBufferedBytes = configuration.getMaxBatchBufferedBytes();
+    if (maxBufferedBytes > 0) {
+      bufferedBytes += estimateParameterSize(boundSql, parameterObject);
+      return bufferedBytes >= maxBufferedBytes;
+    }
+    return false;
+  }
+
+  /**
+   * 估算一次调用的参数占用的内存，只计算绑定到语句上的参数值
+   */
+  private long estimateParameterSize(BoundSql boundSql, Object parameterObject) {
+    // 每次调用的固定开销
+    long size = 64;
+    MetaObject metaObject = null;
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      final String propertyName = parameterMapping.getProperty();
+      final Object value;
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        value = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        value = null;
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+        value = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        value = metaObject.getValue(propertyName);
+      }
+      if (value instanceof CharSequence) {
+        size += 40 + 2L * ((CharSequence) value).length();
+      } else if (value instanceof byte[]) {
+        size += 16 + ((byte[]) value).length;
+      } else {
+        size += 16;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * 得到本次调用可以加入的语句下标
+   *
+   * @return 语句在 statementList 中的下标，-1 表示需要新建语句
+   */
+  private int indexOfBatchedStatement(MappedStatement ms, String sql) {
+    if (reordering) {
+      if (ms.getSqlCommandType() == SqlCommandType.INSERT) {
+        Integer index = insertStatementIndexes.get(Arrays.asList(ms, sql));
+        return index == null ? -1 : index;
+      }
+      // 非 INSERT 语句之后的 INSERT 不能再加入之前的语句
+      insertStatementIndexes.clear();
+    }
+    // 只能复用上一条语句
+    return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -102,7 +253,7 @@ public class BatchExecutor extends BaseExecutor {
       // 和 SimpleExecutor 的步骤一致
       Configuration configuration = ms.getConfiguration();
       StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameterObject, rowBounds, resultHandler, boundSql);
-      Connection connection = getConnection(ms.getStatementLog());
+      Connection connection = getConnection(ms);
       stmt = handler.prepare(connection, transaction.getTimeout());
       handler.parameterize(stmt);
       return handler.query(stmt, resultHandler);
@@ -117,7 +268,7 @@ public class BatchExecutor extends BaseExecutor {
     flushStatements();
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
-    Connection connection = getConnection(ms.getStatementLog());
+    Connection connection = getConnection(ms);
     Statement stmt = handler.prepare(connection, transaction.getTimeout());
     handler.parameterize(stmt);
     Cursor<E> cursor = handler.queryCursor(stmt);
@@ -129,60 +280,127 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
       if (isRollback) {// 要回滚所以直接返回一个空集合就行了，并且也不需要执行语句了
         return Collections.emptyList();
       }
+      // 先放入自动刷新时已经执行的结果
+      List<BatchResult> results = new ArrayList<>(flushedResults);
+      executeStatements(results);
+      // 返回结果列表
+      return results;
+    } finally {
+      flushedResults.clear();
+      closeStatements();
+    }
+  }
 
-      // 批量执行暂存的语句
-      for (int i = 0, n = statementList.size(); i < n; i++) {
-        Statement stmt = statementList.get(i);
+  // 批量执行暂存的语句，并将结果添加到 results 中
+  private void executeStatements(List<BatchResult> results) throws SQLException {
+    final boolean retainParameterObjects = configuration.isRetainBatchParameterObjects();
+    for (int i = 0, n = statementList.size(); i < n; i++) {
+      Statement stmt = statementList.get(i);
+      BatchResult batchResult = batchResultList.get(i);
+      try {
+        MultiRowInsert multiRowInsert = multiRowInserts.get(i);
+        if (multiRowInsert != null) {// 执行改写后的多行插入语句，每条语句都有各自的结果
+          executeMultiRowInsert(multiRowInsert, batchResult, results, retainParameterObjects);
+          continue;
+        }
         applyTransactionTimeout(stmt);
-        BatchResult batchResult = batchResultList.get(i);
-        try {
-          // 批量执行语句
-          batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {// 如果是 Jdbc3KeyGenerator
-            // 批量回填生成的主键
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) {// 如果是 SelectKeyGenerator
-            // 则需要执行 processAfter 进行主键的填充
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
-          }
-          closeStatement(stmt);
-        } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        // 批量执行语句
+        batchResult.setUpdateCounts(stmt.executeBatch());
+        MappedStatement ms = batchResult.getMappedStatement();
+        List<Object> parameterObjects = batchResult.getParameterObjects();
+        KeyGenerator keyGenerator = ms.getKeyGenerator();
+        if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {// 如果是 Jdbc3KeyGenerator
+          // 批量回填生成的主键
+          Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+          jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+        } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) {// 如果是 SelectKeyGenerator
+          // 则需要执行 processAfter 进行主键的填充
+          for (Object parameter : parameterObjects) {
+            keyGenerator.processAfter(this, ms, stmt, parameter);
           }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
         }
-        // 将结果保存到列表中
-        results.add(batchResult);
+        if (!retainParameterObjects) {// 已经得到了影响的行数和生成的主键，不再需要请求参数
+          parameterObjects.clear();
+        }
+        closeStatement(stmt);
+      } catch (BatchUpdateException e) {
+        StringBuilder message = new StringBuilder();
+        message.append(batchResult.getMappedStatement().getId())
+            .append(" (batch index #")
+            .append(i + 1)
+            .append(")")
+            .append(" failed.");
+        if (i > 0) {
+          message.append(" ")
+              .append(i)
+              .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        }
+        throw new BatchExecutorException(message.toString(), e, results, batchResult);
       }
-      // 返回结果列表
-      return results;
-    } finally {
-      for (Statement stmt : statementList) {
+      // 将结果保存到列表中
+      results.add(batchResult);
+    }
+  }
+
+  private void executeMultiRowInsert(MultiRowInsert multiRowInsert, BatchResult batchResult, List<BatchResult> results,
+      boolean retainParameterObjects) throws SQLException {
+    final MappedStatement ms = batchResult.getMappedStatement();
+    final List<Object> parameterObjects = batchResult.getParameterObjects();
+    final List<BoundSql> boundSqls = multiRowInsert.getBoundSqls();
+    // 每条语句最多插入的行数
+    final int parameterCount = Math.max(1, multiRowInsert.getParameterCount());
+    final int maxRows = Math.max(1, configuration.getMaxParametersPerStatement() / parameterCount);
+    for (int from = 0; from < parameterObjects.size(); from += maxRows) {
+      final int to = Math.min(parameterObjects.size(), from + maxRows);
+      final String sql = multiRowInsert.getSql(to - from);
+      final List<Object> rowParameterObjects = new ArrayList<>(parameterObjects.subList(from, to));
+      final BoundSql multiRowBoundSql = new BoundSql(configuration, sql, Collections.emptyList(), rowParameterObjects.get(0));
+      final StatementHandler handler = configuration.newStatementHandler(this, ms, rowParameterObjects.get(0), RowBounds.DEFAULT, null, multiRowBoundSql);
+      Statement stmt = null;
+      try {
+        stmt = handler.prepare(getConnection(ms), transaction.getTimeout());
+        // 依次设置每一行的参数
+        int offset = 0;
+        for (int row = from; row < to; row++) {
+          new DefaultParameterHandler(ms, parameterObjects.get(row), boundSqls.get(row)).setParameters((PreparedStatement) stmt, offset);
+          offset += boundSqls.get(row).getParameterMappings().size();
+        }
+        final int updateCount = ((PreparedStatement) stmt).executeUpdate();
+        if (Jdbc3KeyGenerator.class.equals(ms.getKeyGenerator().getClass())) {
+          ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, stmt, rowParameterObjects);
+        }
+        // 影响的行数和插入的行数一致时，每次调用影响一行，否则无法知道每次调用影响的行数
+        final int[] updateCounts = new int[to - from];
+        Arrays.fill(updateCounts, updateCount == updateCounts.length ? 1 : Statement.SUCCESS_NO_INFO);
+        final BatchResult rowsResult = new BatchResult(ms, sql);
+        if (retainParameterObjects) {
+          rowParameterObjects.forEach(rowsResult::addParameterObject);
+        }
+        rowsResult.setUpdateCounts(updateCounts);
+        results.add(rowsResult);
+      } catch (SQLException e) {
+        // 转换为 BatchUpdateException，和批量执行失败时的处理保持一致
+        throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), new int[0], e);
+      } finally {
         closeStatement(stmt);
       }
-      currentSql = null;
-      statementList.clear();
-      batchResultList.clear();
     }
   }
 
+  // 关闭暂存的语句，并清空暂存的状态
+  private void closeStatements() {
+    for (Statement stmt : statementList) {
+      closeStatement(stmt);
+    }
+    currentSql = null;
+    insertStatementIndexes.clear();
+    multiRowInserts.clear();
+    statementList.clear();
+    batchResultList.clear();
+    bufferedBytes = 0;
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -27,6 +27,8 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.StatementMetricsListener;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -87,7 +89,7 @@ public class CachingExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameterObject);
+    BoundSql boundSql = StatementTimer.getBoundSql(ms, parameterObject);
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
     return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
@@ -102,6 +104,10 @@ public class CachingExecutor implements Executor {
         ensureNoOutParams(ms, boundSql);
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
+        final StatementMetricsListener metricsListener = ms.getConfiguration().getStatementMetricsListener();
+        if (metricsListener != null) {
+          metricsListener.cacheAccessed(ms.getId(), false, list != null);
+        }
         if (list == null) {// 如果二级缓存中没有，则会去一级缓存中拿，然后再放到二级缓存中
           list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
           tcm.putObject(cache, key, list);
@@ -154,6 +160,11 @@ public class CachingExecutor implements Executor {
     return delegate.isCached(ms, key);
   }
 
+  @Override
+  public boolean isExecuting(MappedStatement ms, CacheKey key) {
+    return delegate.isExecuting(ms, key);
+  }
+
   @Override
   public void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType) {
     delegate.deferLoad(ms, resultObject, property, key, targetType);
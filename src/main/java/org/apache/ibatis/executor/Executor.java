@@ -61,6 +61,10 @@ public interface Executor {
   CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql);
   // 本地缓存是否有指定值
   boolean isCached(MappedStatement ms, CacheKey key);
+  // 本地缓存中的指定查询是否还在执行中（嵌套查询出现循环引用）
+  default boolean isExecuting(MappedStatement ms, CacheKey key) {
+    return false;
+  }
   // 清理本地缓存
   void clearLocalCache();
   // 设置执行器包装类(开启了二级缓存时使用)
@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.mapping.BoundSql;
+
+/**
+ * 可以改写为多行 VALUES 的 INSERT 语句，以及暂存的每次调用的 BoundSql
+ * <p>
+ * 只支持以唯一的 VALUES (...) 结尾，并且所有参数都在 VALUES 中的语句，例如
+ * <code>insert into t (a, b) values (?, ?)</code> 会被改写为 <code>insert into t (a, b) values (?, ?), (?, ?)</code>
+ */
+final class MultiRowInsert {
+
+  // VALUES 之前的部分，包含 VALUES 关键字
+  private final String prefix;
+  // 一行的 VALUES，例如 (?, ?)
+  private final String row;
+  // 每一行的参数个数
+  private final int parameterCount;
+  // 暂存的每次调用的 BoundSql
+  private final List<BoundSql> boundSqls = new ArrayList<>();
+
+  private MultiRowInsert(String prefix, String row, int parameterCount) {
+    this.prefix = prefix;
+    this.row = row;
+    this.parameterCount = parameterCount;
+  }
+
+  /**
+   * 解析 INSERT 语句
+   *
+   * @param sql 绑定了参数的 SQL
+   * @param parameterCount 参数映射的个数
+   * @return 无法改写时返回 null
+   */
+  static MultiRowInsert parse(String sql, int parameterCount) {
+    int valuesIndex = -1;
+    int depth = 0;
+    char quote = 0;
+    // 找到最后一个顶层的 VALUES 关键字
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isKeyword(sql, i, "values")) {
+        valuesIndex = i;
+      }
+    }
+    if (valuesIndex < 0) {
+      return null;
+    }
+    int rowStart = valuesIndex + "values".length();
+    while (rowStart < sql.length() && Character.isWhitespace(sql.charAt(rowStart))) {
+      rowStart++;
+    }
+    int rowEnd = findClosingParenthesis(sql, rowStart);
+    if (rowEnd < 0 || !sql.substring(rowEnd + 1).trim().isEmpty()) {
+      return null;
+    }
+    String row = sql.substring(rowStart, rowEnd + 1);
+    // 所有的参数都必须在 VALUES 中
+    if (countParameters(row) != parameterCount) {
+      return null;
+    }
+    return new MultiRowInsert(sql.substring(0, rowStart), row, parameterCount);
+  }
+
+  private static boolean isKeyword(String sql, int index, String keyword) {
+    int end = index + keyword.length();
+    return sql.regionMatches(true, index, keyword, 0, keyword.length())
+        && (index == 0 || !Character.isJavaIdentifierPart(sql.charAt(index - 1)))
+        && (end == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(end)));
+  }
+
+  private static int findClosingParenthesis(String sql, int start) {
+    if (start >= sql.length() || sql.charAt(start) != '(') {
+      return -1;
+    }
+    int depth = 0;
+    char quote = 0;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countParameters(String row) {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0; i < row.length(); i++) {
+      char c = row.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  void add(BoundSql boundSql) {
+    boundSqls.add(boundSql);
+  }
+
+  List<BoundSql> getBoundSqls() {
+    return boundSqls;
+  }
+
+  int getParameterCount() {
+    return parameterCount;
+  }
+
+  /**
+   * 得到插入指定行数的 SQL
+   */
+  String getSql(int rows) {
+    StringBuilder sql = new StringBuilder(prefix.length() + (row.length() + 2) * rows);
+    sql.append(prefix).append(row);
+    for (int i = 1; i < rows; i++) {
+      sql.append(", ").append(row);
+    }
+    return sql.toString();
+  }
+
+}
@@ -0,0 +1,255 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ParallelBatchCommitMode;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * 在多个连接上并行执行批量操作的执行器
+ * <p>
+ * 更新操作会按照 MappedStatement 分组暂存，刷新时将各组分配到 parallelBatchThreads 个工作线程上，
+ * 每个工作线程从 DataSource 中获取自己的连接，并通过 {@link BatchExecutor} 批量执行分配到的组。
+ * 工作线程来自 {@link Configuration#getParallelBatchWorkers()}，由所有会话共享。
+ * 不同组之间必须是相互独立的（例如写入不同的表），因为它们的执行顺序无法保证。
+ * <p>
+ * 写入操作在刷新时通过工作线程的连接提交，提交方式由 {@link ParallelBatchCommitMode} 决定，和会话本身的事务无关。
+ * 查询操作会先刷新暂存的更新，然后在会话的连接上执行。
+ *
+ * @since 3.5.7
+ */
+public class ParallelBatchExecutor extends SimpleExecutor {
+
+  // 按照 MappedStatement 分组的请求参数，保持第一次出现的顺序
+  private final Map<MappedStatement, List<Object>> groups = new LinkedHashMap<>();
+
+  public ParallelBatchExecutor(Configuration configuration, Transaction transaction) {
+    super(configuration, transaction);
+  }
+
+  @Override
+  public int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
+    groups.computeIfAbsent(ms, k -> new ArrayList<>()).add(parameter);
+    return BatchExecutor.BATCH_UPDATE_RETURN_VALUE;
+  }
+
+  @Override
+  public <E> List<E> doQuery(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
+      throws SQLException {
+    flushStatements();
+    return super.doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+  }
+
+  @Override
+  protected <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+    flushStatements();
+    return super.doQueryCursor(ms, parameter, rowBounds, boundSql);
+  }
+
+  @Override
+  public List<BatchResult> doFlushStatements(boolean isRollback) {
+    if (isRollback || groups.isEmpty()) {
+      groups.clear();
+      return Collections.emptyList();
+    }
+    final Environment environment = configuration.getEnvironment();
+    if (environment == null) {
+      throw new ExecutorException("ParallelBatchExecutor requires an environment to open its own connections.");
+    }
+    final List<List<Map.Entry<MappedStatement, List<Object>>>> buckets = assignGroups();
+    groups.clear();
+
+    // 在当前线程中创建工作线程的事务，这样无论任务是否执行成功都可以关闭它们
+    final List<Worker> workers = new ArrayList<>();
+    try {
+      for (List<Map.Entry<MappedStatement, List<Object>>> bucket : buckets) {
+        workers.add(new Worker(environment, bucket));
+      }
+      final ExecutorService pool = configuration.getParallelBatchWorkers();
+      final List<Future<Worker>> futures = new ArrayList<>();
+      Throwable error = null;
+      try {
+        for (Worker worker : workers) {
+          futures.add(pool.submit(worker::execute));
+        }
+      } catch (RuntimeException e) {
+        error = e;
+      }
+      // 先等待所有已经提交的任务结束，避免在其他线程还在使用连接时关闭它们
+      boolean interrupted = false;
+      for (Future<Worker> future : futures) {
+        while (true) {
+          try {
+            future.get();
+            break;
+          } catch (InterruptedException e) {
+            interrupted = true;
+          } catch (ExecutionException e) {
+            error = error == null ? e.getCause() : error;
+            break;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+        workers.forEach(Worker::rollback);
+        throw new ExecutorException("Interrupted while waiting for the parallel batches.");
+      }
+      if (error != null) {
+        workers.forEach(Worker::rollback);
+        throw new ExecutorException("Error executing the parallel batches.  Cause: " + error, error);
+      }
+      return complete(workers);
+    } finally {
+      for (Worker worker : workers) {
+        worker.close();
+      }
+    }
+  }
+
+  /**
+   * 按照请求参数的个数，将每一组分配到当前负载最小的工作线程上
+   */
+  private List<List<Map.Entry<MappedStatement, List<Object>>>> assignGroups() {
+    final int threads = Math.max(1, Math.min(configuration.getParallelBatchThreads(), groups.size()));
+    final List<List<Map.Entry<MappedStatement, List<Object>>>> buckets = new ArrayList<>();
+    final long[] loads = new long[threads];
+    for (int i = 0; i < threads; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (Map.Entry<MappedStatement, List<Object>> group : groups.entrySet()) {
+      int target = 0;
+      for (int i = 1; i < threads; i++) {
+        if (loads[i] < loads[target]) {
+          target = i;
+        }
+      }
+      buckets.get(target).add(group);
+      loads[target] += group.getValue().size();
+    }
+    return buckets;
+  }
+
+  /**
+   * 根据提交方式提交或者回滚每个工作线程的连接，并汇总结果
+   */
+  private List<BatchResult> complete(List<Worker> workers) {
+    final boolean allSucceeded = workers.stream().allMatch(worker -> worker.failures.isEmpty());
+    final boolean perConnection = configuration.getParallelBatchCommitMode() == ParallelBatchCommitMode.PER_CONNECTION;
+    final List<BatchResult> results = new ArrayList<>();
+    final Map<String, Throwable> failures = new LinkedHashMap<>();
+    for (Worker worker : workers) {
+      failures.putAll(worker.failures);
+      if (worker.failures.isEmpty() && (perConnection || allSucceeded)) {
+        try {
+          worker.transaction.commit();
+          results.addAll(worker.results);
+        } catch (SQLException | RuntimeException e) {
+          failures.put(worker.getStatementIds(), e);
+        }
+      } else {
+        worker.rollback();
+      }
+    }
+    if (!failures.isEmpty()) {
+      throw new ParallelBatchExecutorException("Parallel batch failed for " + failures.keySet() + ", "
+          + results.size() + " batch result(s) committed.", results, failures);
+    }
+    return results;
+  }
+
+  /**
+   * 在自己的连接上执行分配到的各组语句
+   */
+  private class Worker {
+    private final Transaction transaction;
+    private final Executor executor;
+    private final List<Map.Entry<MappedStatement, List<Object>>> bucket;
+    private final List<BatchResult> results = new ArrayList<>();
+    private final Map<String, Throwable> failures = new LinkedHashMap<>();
+
+    Worker(Environment environment, List<Map.Entry<MappedStatement, List<Object>>> bucket) {
+      this.transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+      // 和会话的执行器一样通过 Configuration 创建，这样插件也能拦截各个连接上的批量操作
+      this.executor = configuration.newExecutor(transaction, ExecutorType.BATCH);
+      this.bucket = bucket;
+    }
+
+    Worker execute() {
+      for (Map.Entry<MappedStatement, List<Object>> group : bucket) {
+        try {
+          for (Object parameter : group.getValue()) {
+            executor.update(group.getKey(), parameter);
+          }
+          results.addAll(executor.flushStatements());
+        } catch (SQLException | RuntimeException e) {
+          // 连接的状态已经无法确定，不再执行剩下的组
+          failures.put(group.getKey().getId(), e);
+          break;
+        }
+      }
+      return this;
+    }
+
+    String getStatementIds() {
+      StringBuilder ids = new StringBuilder();
+      for (Map.Entry<MappedStatement, List<Object>> group : bucket) {
+        ids.append(ids.length() == 0 ? "" : ",").append(group.getKey().getId());
+      }
+      return ids.toString();
+    }
+
+    void rollback() {
+      try {
+        transaction.rollback();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+
+    void close() {
+      try {
+        executor.close(false);
+      } catch (RuntimeException e) {
+        // 保证其他工作线程的连接也能被关闭
+        try {
+          transaction.close();
+        } catch (SQLException ignore) {
+          // ignore
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This exception is thrown if some statement groups of a {@link ParallelBatchExecutor} failed. It contains the
+ * failure of each group, keyed by the mapped statement id, and the results of the groups that were committed.
+ *
+ * @since 3.5.7
+ */
+public class ParallelBatchExecutorException extends ExecutorException {
+
+  private static final long serialVersionUID = -3829148310207467315L;
+  private final List<BatchResult> successfulBatchResults;
+  private final Map<String, Throwable> failures;
+
+  public ParallelBatchExecutorException(String message, List<BatchResult> successfulBatchResults, Map<String, Throwable> failures) {
+    super(message, failures.isEmpty() ? null : failures.values().iterator().next());
+    this.successfulBatchResults = successfulBatchResults;
+    this.failures = failures;
+  }
+
+  /**
+   * Returns the results of the statement groups that were committed.
+   *
+   * @return the committed results (may be an empty list)
+   */
+  public List<BatchResult> getSuccessfulBatchResults() {
+    return successfulBatchResults;
+  }
+
+  /**
+   * Returns the failures keyed by the id of the mapped statement whose group failed.
+   *
+   * @return the failures
+   */
+  public Map<String, Throwable> getFailures() {
+    return failures;
+  }
+
+}
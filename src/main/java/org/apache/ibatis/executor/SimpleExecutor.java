@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -23,7 +23,6 @@ import java.util.List;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementHandler;
-import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
@@ -50,7 +49,7 @@ public class SimpleExecutor extends BaseExecutor {
       // 创建一个处理器
       StatementHandler handler = configuration.newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null, null);
       // 通过处理器得到对应的表达式
-      stmt = prepareStatement(handler, ms.getStatementLog());
+      stmt = prepareStatement(handler, ms);
       // 执行更新操作
       return handler.update(stmt);
     } finally {
@@ -66,7 +65,7 @@ public class SimpleExecutor extends BaseExecutor {
       // 创建一个处理器
       StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler, boundSql);
       // 通过处理器得到对应的表达式
-      stmt = prepareStatement(handler, ms.getStatementLog());
+      stmt = prepareStatement(handler, ms);
       // 执行查询操作
       return handler.query(stmt, resultHandler);
     } finally {
@@ -80,7 +79,7 @@ public class SimpleExecutor extends BaseExecutor {
     // 创建一个处理器
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
     // 通过处理器得到对应的表达式
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     // 执行查询操作
     Cursor<E> cursor = handler.queryCursor(stmt);
     // 设置表达式自动关闭
@@ -93,10 +92,10 @@ public class SimpleExecutor extends BaseExecutor {
     return Collections.emptyList();
   }
 
-  private Statement prepareStatement(StatementHandler handler, Log statementLog) throws SQLException {
+  private Statement prepareStatement(StatementHandler handler, MappedStatement ms) throws SQLException {
     Statement stmt;
     // 得到数据库连接
-    Connection connection = getConnection(statementLog);
+    Connection connection = getConnection(ms);
     // 得到表达式
     stmt = handler.prepare(connection, transaction.getTimeout());
     // 为表达式这设置值
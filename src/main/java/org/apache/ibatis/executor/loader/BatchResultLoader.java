@@ -0,0 +1,174 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Loads the nested results of a {@link ResultMapping} with a batch select for many parent objects at once.
+ * <p>
+ * The column values of the parents are collected with {@link #add(MetaObject, Object)}. {@link #load()} then executes
+ * the batch select with chunks of at most {@link Configuration#getNestedSelectBatchSize()} distinct values, passed as a
+ * list parameter (available as {@code list} or {@code collection}). Each result is assigned to the parents whose column
+ * value equals its {@link ResultMapping#getBatchKeyProperty() batch key property}.
+ *
+ * @since 3.5.7
+ */
+public class BatchResultLoader {
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final ResultMapping resultMapping;
+  private final ResultExtractor resultExtractor;
+  // 父对象的 column 值（已规范化）以及需要设置属性的父对象，保持添加的顺序
+  private final Map<Object, List<MetaObject>> targets = new LinkedHashMap<>();
+  // 规范化后的 column 值对应的原始值，作为批量查询的参数
+  private final Map<Object, Object> keys = new HashMap<>();
+
+  public BatchResultLoader(Configuration configuration, Executor executor, ResultMapping resultMapping) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.resultMapping = resultMapping;
+    this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+  }
+
+  /**
+   * Adds a parent object whose property is set by {@link #load()}.
+   *
+   * @param metaObject
+   *          the parent object
+   * @param key
+   *          the column value of the parent, not null
+   */
+  public void add(MetaObject metaObject, Object key) {
+    Object normalizedKey = normalizeKey(key);
+    keys.putIfAbsent(normalizedKey, key);
+    targets.computeIfAbsent(normalizedKey, k -> new ArrayList<>()).add(metaObject);
+  }
+
+  public boolean isEmpty() {
+    return targets.isEmpty();
+  }
+
+  /**
+   * Executes the batch select and sets the property of all the parents added so far.
+   *
+   * @throws SQLException
+   *           if a query fails
+   */
+  public void load() throws SQLException {
+    final MappedStatement batchQuery = configuration.getMappedStatement(resultMapping.getBatchSelectId());
+    final int batchSize = Math.max(1, configuration.getNestedSelectBatchSize());
+    final List<Object> pending = new ArrayList<>(targets.keySet());
+    for (int from = 0; from < pending.size(); from += batchSize) {
+      final List<Object> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+      final List<Object> parameters = new ArrayList<>(chunk.size());
+      for (Object normalizedKey : chunk) {
+        parameters.add(keys.get(normalizedKey));
+      }
+      final Object parameterObject = ParamNameResolver.wrapToMapIfCollection(parameters, null);
+      final BoundSql boundSql = batchQuery.getBoundSql(parameterObject);
+      final CacheKey cacheKey = executor.createCacheKey(batchQuery, parameterObject, RowBounds.DEFAULT, boundSql);
+      if (executor.isExecuting(batchQuery, cacheKey)) {
+        // 相同的批量查询正在执行（循环引用），按照每一行的嵌套查询加载，由执行器处理循环引用；已经缓存的结果直接从本地缓存中取出
+        for (Object normalizedKey : chunk) {
+          loadOneByOne(normalizedKey);
+        }
+        continue;
+      }
+      final List<Object> results = executor.query(batchQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+      final Map<Object, List<Object>> groups = groupByKey(configuration, resultMapping, results);
+      for (Object normalizedKey : chunk) {
+        List<Object> group = groups.getOrDefault(normalizedKey, Collections.emptyList());
+        setValue(normalizedKey, resultExtractor.extractObjectFromList(new ArrayList<>(group), resultMapping.getJavaType()));
+      }
+    }
+    targets.clear();
+    keys.clear();
+  }
+
+  private void loadOneByOne(Object normalizedKey) throws SQLException {
+    final MappedStatement nestedQuery = configuration.getMappedStatement(resultMapping.getNestedQueryId());
+    final Object parameterObject = keys.get(normalizedKey);
+    final BoundSql boundSql = nestedQuery.getBoundSql(parameterObject);
+    final CacheKey cacheKey = executor.createCacheKey(nestedQuery, parameterObject, RowBounds.DEFAULT, boundSql);
+    final Class<?> targetType = resultMapping.getJavaType();
+    if (executor.isCached(nestedQuery, cacheKey)) {
+      for (MetaObject metaObject : targets.get(normalizedKey)) {
+        executor.deferLoad(nestedQuery, metaObject, resultMapping.getProperty(), cacheKey, targetType);
+      }
+    } else {
+      ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, parameterObject, targetType, cacheKey, boundSql);
+      setValue(normalizedKey, resultLoader.loadResult());
+    }
+  }
+
+  private void setValue(Object normalizedKey, Object value) {
+    if (value == null && !configuration.isCallSettersOnNulls()) {
+      return;
+    }
+    for (MetaObject metaObject : targets.get(normalizedKey)) {
+      if (value != null || !metaObject.getSetterType(resultMapping.getProperty()).isPrimitive()) {
+        metaObject.setValue(resultMapping.getProperty(), value);
+      }
+    }
+  }
+
+  /**
+   * 按照子对象中保存的父对象 column 值（已规范化）进行分组
+   */
+  static Map<Object, List<Object>> groupByKey(Configuration configuration, ResultMapping resultMapping, List<Object> results) {
+    final Map<Object, List<Object>> groups = new HashMap<>();
+    for (Object result : results) {
+      Object key = result == null ? null : configuration.newMetaObject(result).getValue(resultMapping.getBatchKeyProperty());
+      groups.computeIfAbsent(normalizeKey(key), k -> new ArrayList<>()).add(result);
+    }
+    return groups;
+  }
+
+  /**
+   * 父对象的 column 值和子对象的属性值可能是不同的数字类型，例如 Integer 和 Long，所以数字统一按照数值比较
+   */
+  static Object normalizeKey(Object key) {
+    if (key instanceof BigDecimal) {
+      return ((BigDecimal) key).stripTrailingZeros();
+    } else if (key instanceof Double || key instanceof Float) {
+      return BigDecimal.valueOf(((Number) key).doubleValue()).stripTrailingZeros();
+    } else if (key instanceof Number) {
+      return new BigDecimal(key.toString()).stripTrailingZeros();
+    }
+    return key;
+  }
+
+}
@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * A lazy {@link ResultLoader} of a result mapping with a batch select. All the loaders created for the same mapping
+ * while handling a result set share a {@link Group}: the first one that is triggered loads the nested results of up to
+ * {@link Configuration#getNestedSelectBatchSize()} pending siblings with one query, and the other siblings take their
+ * results from the group instead of querying again.
+ * <p>
+ * The per-row nested select and its parameter are kept in the inherited fields, so a deserialized object still loads
+ * its property with the per-row select.
+ *
+ * @since 3.5.7
+ */
+public class LazyBatchResultLoader extends ResultLoader {
+
+  private final Group group;
+
+  public LazyBatchResultLoader(Configuration config, Executor executor, MappedStatement mappedStatement, Object parameterObject,
+      Class<?> targetType, CacheKey cacheKey, BoundSql boundSql, Group group) {
+    super(config, executor, mappedStatement, parameterObject, targetType, cacheKey, boundSql);
+    this.group = group;
+    group.add(parameterObject);
+  }
+
+  @Override
+  public Object loadResult() throws SQLException {
+    Executor localExecutor = executor;
+    // 和 ResultLoader 一样，不是创建时的线程或者执行器已经关闭时使用新的执行器
+    if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
+      localExecutor = newExecutor();
+    }
+    try {
+      resultObject = resultExtractor.extractObjectFromList(group.load(parameterObject, localExecutor), targetType);
+      return resultObject;
+    } finally {
+      if (localExecutor != executor) {
+        localExecutor.close(false);
+      }
+    }
+  }
+
+  /**
+   * The siblings of a lazy loaded property that are loaded together.
+   */
+  public static class Group {
+
+    private final Configuration configuration;
+    private final ResultMapping resultMapping;
+    // 还没有加载的 column 值（规范化后的值到原始值），保持添加的顺序
+    private final Map<Object, Object> pendingKeys = new LinkedHashMap<>();
+    // 已经加载的结果，按照规范化后的 column 值分组
+    private final Map<Object, List<Object>> loadedResults = new HashMap<>();
+
+    public Group(Configuration configuration, ResultMapping resultMapping) {
+      this.configuration = configuration;
+      this.resultMapping = resultMapping;
+    }
+
+    synchronized void add(Object key) {
+      Object normalizedKey = BatchResultLoader.normalizeKey(key);
+      if (!loadedResults.containsKey(normalizedKey)) {
+        pendingKeys.putIfAbsent(normalizedKey, key);
+      }
+    }
+
+    synchronized List<Object> load(Object key, Executor executor) throws SQLException {
+      final Object normalizedKey = BatchResultLoader.normalizeKey(key);
+      if (!loadedResults.containsKey(normalizedKey)) {
+        // 触发加载的 column 值，以及之后等待加载的兄弟对象的 column 值
+        final List<Object> chunk = new ArrayList<>();
+        chunk.add(normalizedKey);
+        final int batchSize = Math.max(1, configuration.getNestedSelectBatchSize());
+        for (Iterator<Object> it = pendingKeys.keySet().iterator(); it.hasNext() && chunk.size() < batchSize;) {
+          Object pendingKey = it.next();
+          if (!pendingKey.equals(normalizedKey)) {
+            chunk.add(pendingKey);
+          }
+        }
+        final List<Object> parameters = new ArrayList<>(chunk.size());
+        for (Object chunkKey : chunk) {
+          parameters.add(pendingKeys.getOrDefault(chunkKey, key));
+        }
+        final MappedStatement batchQuery = configuration.getMappedStatement(resultMapping.getBatchSelectId());
+        final Object parameterObject = ParamNameResolver.wrapToMapIfCollection(parameters, null);
+        final BoundSql boundSql = batchQuery.getBoundSql(parameterObject);
+        final CacheKey cacheKey = executor.createCacheKey(batchQuery, parameterObject, RowBounds.DEFAULT, boundSql);
+        final List<Object> results = executor.query(batchQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+        final Map<Object, List<Object>> groups = BatchResultLoader.groupByKey(configuration, resultMapping, results);
+        for (Object chunkKey : chunk) {
+          loadedResults.put(chunkKey, groups.getOrDefault(chunkKey, Collections.emptyList()));
+          pendingKeys.remove(chunkKey);
+        }
+      }
+      return new ArrayList<>(loadedResults.get(normalizedKey));
+    }
+  }
+
+}
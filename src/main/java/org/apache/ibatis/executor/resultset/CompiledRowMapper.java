@@ -0,0 +1,288 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * A row mapper resolved once for a flat {@link ResultMap} and a result set column layout.
+ * <p>
+ * Columns are read with their resolved {@link TypeHandler}s, by index when the handler is a built-in one, and properties are set directly through the
+ * setter {@link Invoker}s, so the per row work of {@link DefaultResultSetHandler} (discriminators, {@code MetaObject}
+ * wrappers, column name lookups and property tokenizing) is skipped. Result maps that need any of that work are not
+ * compiled and keep using the generic mapping.
+ *
+ * @since 3.5.7
+ * @see Configuration#isCompiledRowMappersEnabled()
+ */
+public final class CompiledRowMapper {
+
+  // 表示这个结果映射和列布局无法编译，避免每次查询都重新分析
+  static final CompiledRowMapper UNSUPPORTED = new CompiledRowMapper(null, null, null, new ColumnMapping[0]);
+
+  // 结果类型
+  private final Class<?> type;
+  private final Configuration configuration;
+  // 缓存的无参构造器，为 null 时通过对象工厂创建对象
+  private final Constructor<?> constructor;
+  // 按照映射顺序排列的列，自动映射的列在前
+  private final ColumnMapping[] columnMappings;
+
+  private CompiledRowMapper(Class<?> type, Configuration configuration, Constructor<?> constructor, ColumnMapping[] columnMappings) {
+    this.type = type;
+    this.configuration = configuration;
+    this.constructor = constructor;
+    this.columnMappings = columnMappings;
+  }
+
+  /**
+   * Maps the current row of the result set.
+   *
+   * @param rs
+   *          the result set positioned on a row
+   * @return the result object, or null if no column had a value and empty instances are not returned
+   * @throws SQLException
+   *           if a column can not be read
+   */
+  public Object map(ResultSet rs) throws SQLException {
+    final Object rowValue = newInstance();
+    final boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+    boolean foundValues = false;
+    for (ColumnMapping mapping : columnMappings) {
+      final Object value = mapping.getResult(rs);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || (callSettersOnNulls && !mapping.primitive)) {
+        mapping.setValue(rowValue, value);
+      }
+    }
+    return foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+  }
+
+  private Object newInstance() {
+    if (constructor != null) {
+      try {
+        return constructor.newInstance();
+      } catch (Exception e) {
+        // 交给对象工厂创建，保证异常信息和通用的映射一致
+      }
+    }
+    return configuration.getObjectFactory().create(type);
+  }
+
+  /**
+   * Builds the cache key of a result map and a column layout.
+   */
+  static String keyOf(ResultMap resultMap, ResultSetWrapper rsw) {
+    final List<String> columnNames = rsw.getColumnNames();
+    final List<String> classNames = rsw.getClassNames();
+    final StringBuilder key = new StringBuilder(resultMap.getId());
+    for (int i = 0; i < columnNames.size(); i++) {
+      key.append(':').append(columnNames.get(i)).append(',').append(classNames.get(i)).append(',')
+          .append(rsw.getJdbcTypes().get(i));
+    }
+    return key.toString();
+  }
+
+  /**
+   * Compiles a row mapper for the result map and the column layout of the result set.
+   *
+   * @return the row mapper, or {@link #UNSUPPORTED} if the result map needs the generic mapping
+   */
+  static CompiledRowMapper compile(ResultMap resultMap, ResultSetWrapper rsw, Configuration configuration) throws SQLException {
+    final Class<?> type = resultMap.getType();
+    if (!isCompilable(resultMap, rsw, configuration)) {
+      return UNSUPPORTED;
+    }
+    final MetaClass metaClass = MetaClass.forClass(type, configuration.getReflectorFactory());
+    if (!metaClass.hasDefaultConstructor()) {
+      return UNSUPPORTED;
+    }
+
+    final List<ColumnMapping> mappings = new ArrayList<>();
+    if (shouldApplyAutomaticMappings(resultMap, configuration) && !addAutomaticMappings(mappings, resultMap, rsw, metaClass, configuration)) {
+      return UNSUPPORTED;
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, null);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      final String column = propertyMapping.getColumn();
+      final String property = propertyMapping.getProperty();
+      // 列不存在或者没有属性名的映射在通用的映射中也会被忽略
+      if (column == null || property == null || !mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+        continue;
+      }
+      if (!isSimpleProperty(property) || !metaClass.hasSetter(property)) {
+        return UNSUPPORTED;
+      }
+      mappings.add(new ColumnMapping(rsw, columnIndex(rsw, column), property, propertyMapping.getTypeHandler(),
+          metaClass.getSetInvoker(property), metaClass.getSetterType(property).isPrimitive()));
+    }
+    return new CompiledRowMapper(type, configuration, findConstructor(type, configuration), mappings.toArray(new ColumnMapping[0]));
+  }
+
+  private static boolean isCompilable(ResultMap resultMap, ResultSetWrapper rsw, Configuration configuration) {
+    final Class<?> type = resultMap.getType();
+    // 只有使用列标签时，按照索引读取和按照名称读取才是等价的
+    if (!configuration.isUseColumnLabel() || configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class) {
+      return false;
+    }
+    // 辨别器、构造器映射和嵌套映射都需要在每一行上做额外的处理
+    if (resultMap.getDiscriminator() != null || resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+        || !resultMap.getConstructorResultMappings().isEmpty()) {
+      return false;
+    }
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null) {
+        return false;
+      }
+    }
+    // 只支持普通的 JavaBean，集合、Map 和接口都需要使用对应的 ObjectWrapper
+    if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || Map.class.isAssignableFrom(type)
+        || Collection.class.isAssignableFrom(type) || ObjectWrapper.class.isAssignableFrom(type)) {
+      return false;
+    }
+    if (rsw.getColumnNames().size() == 1) {
+      return !configuration.getTypeHandlerRegistry().hasTypeHandler(type, rsw.getJdbcTypes().get(0));
+    }
+    return !configuration.getTypeHandlerRegistry().hasTypeHandler(type);
+  }
+
+  private static boolean shouldApplyAutomaticMappings(ResultMap resultMap, Configuration configuration) {
+    if (resultMap.getAutoMapping() != null) {
+      return resultMap.getAutoMapping();
+    }
+    return AutoMappingBehavior.NONE != configuration.getAutoMappingBehavior();
+  }
+
+  private static boolean addAutomaticMappings(List<ColumnMapping> mappings, ResultMap resultMap, ResultSetWrapper rsw,
+      MetaClass metaClass, Configuration configuration) throws SQLException {
+    final boolean reportUnknownColumns = configuration.getAutoMappingUnknownColumnBehavior() != AutoMappingUnknownColumnBehavior.NONE;
+    for (String columnName : rsw.getUnmappedColumnNames(resultMap, null)) {
+      final String property = metaClass.findProperty(columnName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && !isSimpleProperty(property)) {
+        return false;
+      }
+      if (property != null && metaClass.hasSetter(property)) {
+        if (resultMap.getMappedProperties().contains(property)) {
+          continue;
+        }
+        final Class<?> propertyType = metaClass.getSetterType(property);
+        if (configuration.getTypeHandlerRegistry().hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+          mappings.add(new ColumnMapping(rsw, columnIndex(rsw, columnName), property, rsw.getTypeHandler(propertyType, columnName),
+              metaClass.getSetInvoker(property), propertyType.isPrimitive()));
+          continue;
+        }
+      }
+      // 未知的列需要在每次查询时报告，交给通用的映射处理
+      if (reportUnknownColumns) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSimpleProperty(String property) {
+    return property.indexOf('.') < 0 && property.indexOf('[') < 0;
+  }
+
+  private static int columnIndex(ResultSetWrapper rsw, String column) {
+    final int columnIndex = rsw.getColumnIndex(column);
+    if (columnIndex < 0) {
+      throw new IllegalStateException("Column '" + column + "' was not found in the result set.");
+    }
+    return columnIndex;
+  }
+
+  private static Constructor<?> findConstructor(Class<?> type, Configuration configuration) {
+    // 自定义的对象工厂可能会改变创建对象的方式
+    if (configuration.getObjectFactory().getClass() != DefaultObjectFactory.class) {
+      return null;
+    }
+    try {
+      final Constructor<?> constructor = type.getDeclaredConstructor();
+      if (!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+        if (!Reflector.canControlMemberAccessible()) {
+          return null;
+        }
+        constructor.setAccessible(true);
+      }
+      return constructor;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static class ColumnMapping {
+    // 列的索引，从 1 开始
+    private final int columnIndex;
+    // 列名称，自定义的类型处理器可能只实现了按照列名称读取
+    private final String columnName;
+    private final boolean readByColumnIndex;
+    private final String property;
+    private final TypeHandler<?> typeHandler;
+    private final Invoker setter;
+    private final boolean primitive;
+
+    ColumnMapping(ResultSetWrapper rsw, int columnIndex, String property, TypeHandler<?> typeHandler, Invoker setter, boolean primitive) {
+      this.columnIndex = columnIndex;
+      this.columnName = rsw.getColumnNames().get(columnIndex - 1);
+      this.readByColumnIndex = ResultSetWrapper.readsByColumnIndex(typeHandler);
+      this.property = property;
+      this.typeHandler = typeHandler;
+      this.setter = setter;
+      this.primitive = primitive;
+    }
+
+    Object getResult(ResultSet rs) throws SQLException {
+      return readByColumnIndex ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, columnName);
+    }
+
+    void setValue(Object object, Object value) {
+      try {
+        setter.invoke(object, new Object[] { value });
+      } catch (Throwable t) {
+        Throwable cause = ExceptionUtil.unwrapThrowable(t);
+        throw new ReflectionException("Could not set property '" + property + "' of '" + object.getClass()
+            + "' with value '" + value + "' Cause: " + cause.toString(), cause);
+      }
+    }
+  }
+
+}
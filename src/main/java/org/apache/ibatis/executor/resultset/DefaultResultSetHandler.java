@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -36,12 +37,15 @@ import org.apache.ibatis.cursor.defaults.DefaultCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
+import org.apache.ibatis.executor.loader.LazyBatchResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.statement.AdaptiveFetchSize;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -49,6 +53,9 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.metrics.StatementMetricsListener;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
@@ -113,6 +120,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // 指明是否利用了构造器映射成功构建出了对象，
   private boolean useConstructorMappings;
 
+  // 批量加载的嵌套查询，只在结果全部收集完成后才返回时使用，即没有自定义 ResultHandler 并且不是游标
+  private Map<ResultMapping, BatchResultLoader> batchResultLoaders;
+  // 批量懒加载的分组，同一个结果集中的兄弟对象共享
+  private final Map<ResultMapping, LazyBatchResultLoader.Group> lazyBatchGroups = new IdentityHashMap<>();
+  // 从结果集中读取的行数，用于流式查询调整 fetch size
+  private int readRowCount;
+  // 语句指标监听器，为 null 时不收集指标
+  private final StatementMetricsListener metricsListener;
+  // 移动结果集游标所花费的时间，即从数据库读取数据的时间
+  private long fetchNanos;
+  // 读取的总行数
+  private long fetchedRows;
+
   // 待处理的关联
   private static class PendingRelation {
     public MetaObject metaObject;
@@ -147,6 +167,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.parameterHandler = parameterHandler;
     this.boundSql = boundSql;
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    this.metricsListener = configuration.getStatementMetricsListener();
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
     this.resultHandler = resultHandler;
@@ -202,6 +223,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   @Override
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+    final long start = StatementTimer.start(metricsListener);
     // 存储结果处理的列表
     final List<Object> multipleResults = new ArrayList<>();
     // 记录结果集的数量
@@ -212,6 +234,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     List<ResultMap> resultMaps = mappedStatement.getResultMaps();
     int resultMapCount = resultMaps.size();
     validateResultMapsCount(rsw, resultMapCount);
+    // ResultMapping 的 equals 只比较属性名称，所以按照对象本身区分
+    batchResultLoaders = resultHandler == null ? new IdentityHashMap<>() : null;
     while (rsw != null && resultMapCount > resultSetCount) {// 存在未处理的结果集，也存在未映射的
       // 得到待映射待 resultMap
       ResultMap resultMap = resultMaps.get(resultSetCount);
@@ -260,6 +284,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       如果 RootList 的 size > 1 的话，就直接返回，不做任何操作
       总结：如果是单结果集 ? 返回结果列表 : 返回结果集列表;
      */
+    loadBatchedNestedQueries();
+    if (metricsListener != null) {
+      // 除去读取数据的时间，剩下的就是映射结果对象的时间
+      final long totalNanos = System.nanoTime() - start;
+      metricsListener.phaseCompleted(mappedStatement.getId(), StatementPhase.FETCH, fetchNanos);
+      metricsListener.phaseCompleted(mappedStatement.getId(), StatementPhase.MAPPING, totalNanos - fetchNanos);
+      metricsListener.rowsProcessed(mappedStatement.getId(), fetchedRows);
+    }
     return collapseSingleResultList(multipleResults);
   }
 
@@ -278,6 +310,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
+    // 游标读取的行数要等到关闭时才知道，只记录行宽度
+    recordRowWidth(rsw);
     return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
   }
 
@@ -330,6 +364,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private void cleanUpAfterHandlingResultSet() {
     nestedResultObjects.clear();
+    lazyBatchGroups.clear();
   }
 
   private void validateResultMapsCount(ResultSetWrapper rsw, int resultMapCount) {
@@ -351,6 +386,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (parentMapping != null) {// 如果有父结果映射
         handleRowValues(rsw, resultMap, null, RowBounds.DEFAULT, parentMapping);
       } else {// 存在结果映射
+        // 流式查询记录本次的行宽度和行数，用于调整下一次执行的 fetch size
+        AdaptiveFetchSize adaptiveFetchSize = recordRowWidth(rsw);
+        readRowCount = 0;
         if (resultHandler == null) {// 有结果处理器
           DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
           handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
@@ -358,6 +396,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         } else {// 没有结果处理器
           handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
         }
+        if (adaptiveFetchSize != null) {
+          adaptiveFetchSize.recordRowCount(readRowCount);
+        }
       }
     } finally {
       // issue #228 (close resultsets)
@@ -365,6 +406,25 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  private AdaptiveFetchSize recordRowWidth(ResultSetWrapper rsw) throws SQLException {
+    if (!mappedStatement.isStreaming() || rsw == null) {
+      return null;
+    }
+    AdaptiveFetchSize adaptiveFetchSize = configuration.getAdaptiveFetchSize(mappedStatement.getId());
+    adaptiveFetchSize.recordRowWidth(AdaptiveFetchSize.estimateRowWidth(rsw.getResultSet().getMetaData()));
+    return adaptiveFetchSize;
+  }
+
+  // 所有的结果集都处理完成后，批量执行嵌套查询
+  private void loadBatchedNestedQueries() throws SQLException {
+    if (batchResultLoaders != null) {
+      for (BatchResultLoader batchResultLoader : batchResultLoaders.values()) {
+        batchResultLoader.load();
+      }
+      batchResultLoaders = null;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private List<Object> collapseSingleResultList(List<Object> multipleResults) {
     return multipleResults.size() == 1 ? (List<Object>) multipleResults.get(0) : multipleResults;
@@ -411,21 +471,47 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       shouldProcessMoreRows: 是用来处理结束边界和检查当前 ResultContext 的状态
      */
     skipRows(resultSet, rowBounds);
+    // 如果开启了编译的行映射器，并且当前结果映射可以编译，则直接通过行映射器映射
+    final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap);
     /*
       如果返回结果类型为 Cursor： 从 ResultContext 中获取了结果对象后就会停用当前 ResultContext，所以下方的 while 循环只会执行一次。
       如果返回结果类型不为 Cursor：ResultContext 不会被停用，会一直从数据库中获取记录，直到没有记录可获取，所以下面的循环会取到所有的结果然后通过
       ResultHandler 放入到 List 或者 Map 中。
      */
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {// 结果集没有被关闭，并且还有数据可以取
-      // 解析辨别器得到 ResultMap，如果没有设置辨别器就返回当前的 ResultMap
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      // 得到结果对象
-      Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && next(resultSet)) {// 结果集没有被关闭，并且还有数据可以取
+      readRowCount++;
+      final Object rowValue;
+      if (rowMapper != null) {
+        rowValue = rowMapper.map(resultSet);
+      } else {
+        // 解析辨别器得到 ResultMap，如果没有设置辨别器就返回当前的 ResultMap
+        ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+        // 得到结果对象
+        rowValue = getRowValue(rsw, discriminatedResultMap, null);
+      }
       // 将结果保存到 Map 或者 List 中
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
   }
 
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (!configuration.isCompiledRowMappersEnabled()) {
+      return null;
+    }
+    final Map<String, CompiledRowMapper> rowMappers = configuration.getCompiledRowMappers();
+    final String key = CompiledRowMapper.keyOf(resultMap, rsw);
+    CompiledRowMapper rowMapper = rowMappers.get(key);
+    if (rowMapper == null) {
+      // 缓存满了以后，新的列布局使用通用的映射，避免列不固定的 SQL 使缓存无限增长
+      if (rowMappers.size() >= configuration.getCompiledRowMapperCacheSize()) {
+        return null;
+      }
+      rowMapper = CompiledRowMapper.compile(resultMap, rsw, configuration);
+      rowMappers.putIfAbsent(key, rowMapper);
+    }
+    return rowMapper == CompiledRowMapper.UNSUPPORTED ? null : rowMapper;
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {// 如果存在 parentMapping，说明是多结果集的情况
       linkToParents(rs, parentMapping, rowValue);
@@ -454,13 +540,27 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     } else {
       for (int i = 0; i < rowBounds.getOffset(); i++) {
-        if (!rs.next()) {
+        if (!next(rs)) {
           break;
         }
       }
     }
   }
 
+  // 将游标移动到下一行，开启了指标收集时会记录读取数据的时间
+  private boolean next(ResultSet rs) throws SQLException {
+    if (metricsListener == null) {
+      return rs.next();
+    }
+    final long start = System.nanoTime();
+    final boolean hasNext = rs.next();
+    fetchNanos += System.nanoTime() - start;
+    if (hasNext) {
+      fetchedRows++;
+    }
+    return hasNext;
+  }
+
   //
   // GET VALUE FROM ROW FOR SIMPLE RESULT MAP
   //
@@ -565,7 +665,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           || propertyMapping.getResultSet() != null // 如果设置了 resultSets 属性
       ) {
         // 得到值
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix);
         final String property = propertyMapping.getProperty();
         if (property == null) {// 属性值为 null 则忽略
           continue;
@@ -584,8 +684,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
     if (propertyMapping.getNestedQueryId() != null) {// 如果有嵌套查询
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {// 如果设置了 resultSet 属性
@@ -594,7 +695,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     } else {// 如果只是普通的属性映射
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return rsw.getResult(typeHandler, column);
     }
   }
 
@@ -652,7 +753,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {// 如果有需要自动映射的列
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = rsw.getResult(mapping.typeHandler, mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -777,7 +878,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           // 得到对应的类型处理器
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
           // 得到值
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = rsw.getResult(typeHandler, prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -817,7 +918,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       // 通过类型和名称得到对应的类型处理器
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
       // 得到结果
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
+      Object value = rsw.getResult(typeHandler, columnName);
       // 添加到构造参数列表中
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
@@ -870,7 +971,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     // 得到对应的类型处理器
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
     // 通过类型处理器得到结果
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return rsw.getResult(typeHandler, columnName);
   }
 
   //
@@ -904,7 +1005,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     // 准备请求参数
     final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
-    if (nestedQueryParameterObject != null) {// 如果有请求参数
+    if (nestedQueryParameterObject != null && batchResultLoaders != null
+        && propertyMapping.getBatchSelectId() != null && !propertyMapping.isLazy()) {
+      // 记录下父对象，在结果集处理完成后批量加载，返回 DEFERRED 代表这个值会延后加载
+      batchResultLoaders.computeIfAbsent(propertyMapping, mapping -> new BatchResultLoader(configuration, executor, mapping))
+        .add(metaResultObject, nestedQueryParameterObject);
+      value = DEFERRED;
+    } else if (nestedQueryParameterObject != null) {// 如果有请求参数
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
       final CacheKey key = executor.createCacheKey(nestedQuery, nestedQueryParameterObject, RowBounds.DEFAULT, nestedBoundSql);
       final Class<?> targetType = propertyMapping.getJavaType();
@@ -913,7 +1020,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         executor.deferLoad(nestedQuery, metaResultObject, property, key, targetType);
         value = DEFERRED;
       } else {// 如果没有缓存
-        final ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
+        final ResultLoader resultLoader;
+        if (propertyMapping.isLazy() && propertyMapping.getBatchSelectId() != null) {
+          // 同一个结果集中的兄弟对象共享一个批量加载组，第一次触发懒加载时一起加载
+          final LazyBatchResultLoader.Group group = lazyBatchGroups.computeIfAbsent(propertyMapping,
+            mapping -> new LazyBatchResultLoader.Group(configuration, mapping));
+          resultLoader = new LazyBatchResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql, group);
+        } else {
+          resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
+        }
         if (propertyMapping.isLazy()) {// 如果属性懒加载
           lazyLoader.addLoader(property, metaResultObject, resultLoader);
           value = DEFERRED;// 返回 DEFERRED 代表这个值会延后加载
@@ -1034,12 +1149,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+    final boolean resultOrdered = isResultOrdered(resultHandler);
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && next(resultSet)) {
+      readRowCount++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
-      if (mappedStatement.isResultOrdered()) {
+      if (resultOrdered) {
         if (partialObject == null && rowValue != null) {
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -1052,7 +1169,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+    if (rowValue != null && resultOrdered && shouldProcessMoreRows(resultContext, rowBounds)) {
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
       previousRowValue = null;
     } else if (rowValue != null) {
@@ -1060,6 +1177,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  // 流式查询交给自定义 ResultHandler 或游标时，不再保留已经处理过的行，按有序的结果处理
+  // 流式查询在这里也会及时释放已经完成的对象，但不会绕过 checkResultHandler 的检查
+  private boolean isResultOrdered(ResultHandler<?> resultHandler) {
+    return mappedStatement.isResultOrdered()
+        || (mappedStatement.isStreaming() && resultHandler != null && !(resultHandler instanceof DefaultResultHandler));
+  }
+
   //
   // NESTED RESULT MAP (JOIN MAPPING)
   //
@@ -1194,7 +1318,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
+          final Object value = rsw.getResult(th, column);
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
             cacheKey.update(column);
             cacheKey.update(value);
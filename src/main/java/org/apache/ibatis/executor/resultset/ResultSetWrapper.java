@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -58,11 +58,29 @@ public class ResultSetWrapper {
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   // 记录了所有的无映射关系的列。结构为：Map<resultMap 的 id，List<对象映射的列名>>
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  // 列名称对应的列下标（从 1 开始，-1 表示不存在），查找过的列名称都会缓存起来
+  private final Map<String, Integer> columnIndexMap = new HashMap<>();
+  // 是否可以按照列下标读取，只有使用列标签时，按照下标读取和按照名称读取才是等价的
+  private final boolean readByColumnIndex;
+
+  // 内置的类型处理器都实现了按照列下标读取，自定义的类型处理器仍然按照列名称读取
+  private static final ClassValue<Boolean> READS_BY_COLUMN_INDEX = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return type.getPackage() != null && TypeHandler.class.getPackage().getName().equals(type.getPackage().getName());
+    }
+  };
+
+  // 类型处理器是否可以按照列下标读取
+  static boolean readsByColumnIndex(TypeHandler<?> typeHandler) {
+    return READS_BY_COLUMN_INDEX.get(typeHandler.getClass());
+  }
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.resultSet = rs;
+    this.readByColumnIndex = configuration.isUseColumnLabel();
     final ResultSetMetaData metaData = rs.getMetaData();
     final int columnCount = metaData.getColumnCount();
     for (int i = 1; i <= columnCount; i++) {
@@ -93,12 +111,62 @@ public class ResultSetWrapper {
   }
 
   public JdbcType getJdbcType(String columnName) {
-    for (int i = 0; i < columnNames.size(); i++) {
-      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-        return jdbcTypes.get(i);
+    int columnIndex = getColumnIndex(columnName);
+    return columnIndex > 0 ? jdbcTypes.get(columnIndex - 1) : null;
+  }
+
+  /**
+   * Gets the index of the first column whose name matches the given one, ignoring the case like
+   * {@link ResultSet#findColumn(String)}.
+   *
+   * @param columnName
+   *          the column name
+   * @return the 1-based column index, or -1 if there is no such column
+   * @since 3.5.7
+   */
+  public int getColumnIndex(String columnName) {
+    Integer columnIndex = columnIndexMap.get(columnName);
+    if (columnIndex == null) {
+      columnIndex = -1;
+      for (int i = 0; i < columnNames.size(); i++) {
+        if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+          columnIndex = i + 1;
+          break;
+        }
       }
+      columnIndexMap.put(columnName, columnIndex);
     }
-    return null;
+    return columnIndex;
+  }
+
+  /**
+   * Reads a column of the current row with a type handler.
+   * <p>
+   * The column label is resolved to its index once per result set, and built-in type handlers read the column by
+   * index. An {@link UnknownTypeHandler} is resolved once per column instead of on every row.
+   *
+   * @param typeHandler
+   *          the type handler of the mapping
+   * @param columnName
+   *          the column name
+   * @return the value
+   * @throws SQLException
+   *           if the column can not be read
+   * @since 3.5.7
+   */
+  public Object getResult(TypeHandler<?> typeHandler, String columnName) throws SQLException {
+    int columnIndex = columnName == null ? -1 : getColumnIndex(columnName);
+    // 不存在的列交给驱动处理，保持原来的异常信息
+    if (columnIndex < 0) {
+      return typeHandler.getResult(resultSet, columnName);
+    }
+    if (typeHandler.getClass() == UnknownTypeHandler.class) {
+      typeHandler = getTypeHandler(Object.class, columnNames.get(columnIndex - 1));
+    }
+    if (readByColumnIndex && readsByColumnIndex(typeHandler)) {
+      return typeHandler.getResult(resultSet, columnIndex);
+    }
+    return typeHandler.getResult(resultSet, columnName);
   }
 
   /**
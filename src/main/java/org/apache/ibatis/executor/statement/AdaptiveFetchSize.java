@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * 流式查询的 fetch size 统计。
+ * <p>
+ * 记录每次查询的行宽度（估算的字节数）和行数的移动平均值，使一次读取的数据量接近缓冲区大小，
+ * 并且不超过平均行数，避免小结果集也分配很大的缓冲区。根据行数限制时不会低于 {@link #INITIAL_FETCH_SIZE}，
+ * 避免几次很小的查询之后，大的查询每一行都要访问一次数据库。
+ *
+ * @since 3.5.7
+ */
+public class AdaptiveFetchSize {
+
+  // 还没有观察到任何结果时使用的 fetch size
+  static final int INITIAL_FETCH_SIZE = 100;
+  // fetch size 上限
+  static final int MAX_FETCH_SIZE = 10000;
+  // 单列估算宽度的上限，避免 LOB 等列把宽度撑得过大
+  static final int MAX_COLUMN_WIDTH = 4096;
+  // 移动平均的权重
+  private static final double WEIGHT = 0.25;
+
+  // 平均行宽度，0 表示还没有观察到
+  private double rowWidth;
+  // 平均行数，负数表示还没有观察到
+  private double rowCount = -1;
+
+  /**
+   * Gets the fetch size for the next execution.
+   *
+   * @param limit
+   *          the fetch size declared by the statement, null if none
+   * @param bufferSize
+   *          the number of bytes to read in one round trip
+   * @return the fetch size
+   */
+  public synchronized int getFetchSize(Integer limit, int bufferSize) {
+    int fetchSize;
+    if (rowWidth <= 0) {
+      fetchSize = INITIAL_FETCH_SIZE;
+    } else {
+      fetchSize = (int) Math.max(1, Math.min(MAX_FETCH_SIZE, bufferSize / rowWidth));
+    }
+    // 结果不多时，一次读完即可，但不低于初始值
+    if (rowCount >= 0) {
+      fetchSize = (int) Math.min(fetchSize, Math.max(INITIAL_FETCH_SIZE, Math.ceil(rowCount) + 1));
+    }
+    if (limit != null && limit > 0) {
+      fetchSize = Math.min(fetchSize, limit);
+    }
+    return fetchSize;
+  }
+
+  /**
+   * Records the row width of an execution.
+   *
+   * @param width
+   *          the estimated row width in bytes
+   */
+  public synchronized void recordRowWidth(int width) {
+    if (width > 0) {
+      rowWidth = rowWidth <= 0 ? width : rowWidth + WEIGHT * (width - rowWidth);
+    }
+  }
+
+  /**
+   * Records the number of rows an execution returned.
+   *
+   * @param count
+   *          the row count
+   */
+  public synchronized void recordRowCount(int count) {
+    if (count >= 0) {
+      rowCount = rowCount < 0 ? count : rowCount + WEIGHT * (count - rowCount);
+    }
+  }
+
+  /**
+   * Estimates the width of a row from the display size of its columns.
+   *
+   * @param metaData
+   *          the meta data of the result set
+   * @return the estimated row width in bytes
+   * @throws SQLException
+   *           if the meta data can not be read
+   */
+  public static int estimateRowWidth(ResultSetMetaData metaData) throws SQLException {
+    int width = 0;
+    for (int i = 1, n = metaData.getColumnCount(); i <= n; i++) {
+      int size = metaData.getColumnDisplaySize(i);
+      width += size <= 0 ? 1 : Math.min(size, MAX_COLUMN_WIDTH);
+    }
+    return width;
+  }
+
+}
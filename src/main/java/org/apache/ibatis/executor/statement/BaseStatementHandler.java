@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -27,6 +27,9 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.StatementMetricsListener;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -56,6 +59,8 @@ public abstract class BaseStatementHandler implements StatementHandler {
   protected final RowBounds rowBounds;
 
   protected BoundSql boundSql;
+  // 语句指标监听器，为 null 时不收集指标
+  protected final StatementMetricsListener metricsListener;
 
   protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
     this.configuration = mappedStatement.getConfiguration();
@@ -65,12 +70,13 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
+    this.metricsListener = configuration.getStatementMetricsListener();
 
     if (boundSql == null) {// 如果没有传递 boundSql 进来
       // 先执行 KeyGenerator 的 processBefore
       generateKeys(parameterObject);
       // 再获取 boundSql
-      boundSql = mappedStatement.getBoundSql(parameterObject);
+      boundSql = StatementTimer.getBoundSql(mappedStatement, parameterObject);
     }
 
     this.boundSql = boundSql;
@@ -112,6 +118,32 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  /**
+   * Reports the time elapsed since the given start to the metrics listener.
+   *
+   * @param phase
+   *          the phase
+   * @param start
+   *          the start time from {@link StatementTimer#start(StatementMetricsListener)}
+   * @since 3.5.7
+   */
+  protected void phaseCompleted(StatementPhase phase, long start) {
+    StatementTimer.stop(metricsListener, mappedStatement, phase, start);
+  }
+
+  /**
+   * Reports the number of rows updated by the statement to the metrics listener.
+   *
+   * @param rows
+   *          the update count
+   * @since 3.5.7
+   */
+  protected void rowsProcessed(int rows) {
+    if (metricsListener != null && rows > 0) {
+      metricsListener.rowsProcessed(mappedStatement.getId(), rows);
+    }
+  }
+
   protected abstract Statement instantiateStatement(Connection connection) throws SQLException;
 
   protected void setStatementTimeout(Statement stmt, Integer transactionTimeout) throws SQLException {
@@ -133,6 +165,13 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   // 设置批量返回结果行数的建议值
   protected void setFetchSize(Statement stmt) throws SQLException {
+    // 流式查询使用数据库对应的驱动提示，fetch size 根据之前观察到的行宽度和行数调整
+    if (mappedStatement.isStreaming()) {
+      int adaptiveFetchSize = configuration.getAdaptiveFetchSize(mappedStatement.getId())
+          .getFetchSize(mappedStatement.getFetchSize(), configuration.getStreamingFetchBufferSize());
+      configuration.getStreamingHint(configuration.getDatabaseId()).apply(stmt, adaptiveFetchSize);
+      return;
+    }
     // 从语句声明中获取，没有默认值
     Integer fetchSize = mappedStatement.getFetchSize();
     if (fetchSize != null) {
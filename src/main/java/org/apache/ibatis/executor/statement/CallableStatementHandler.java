@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -31,6 +31,8 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
@@ -47,8 +49,11 @@ public class CallableStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
+    long start = StatementTimer.start(metricsListener);
     cs.execute();
+    phaseCompleted(StatementPhase.EXECUTE, start);
     int rows = cs.getUpdateCount();
+    rowsProcessed(rows);
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, cs, parameterObject);
@@ -65,7 +70,9 @@ public class CallableStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
+    long start = StatementTimer.start(metricsListener);
     cs.execute();
+    phaseCompleted(StatementPhase.EXECUTE, start);
     List<E> resultList = resultSetHandler.handleResultSets(cs);
     resultSetHandler.handleOutputParameters(cs);
     return resultList;
@@ -74,7 +81,9 @@ public class CallableStatementHandler extends BaseStatementHandler {
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
+    long start = StatementTimer.start(metricsListener);
     cs.execute();
+    phaseCompleted(StatementPhase.EXECUTE, start);
     Cursor<E> resultList = resultSetHandler.handleCursorResultSets(cs);
     resultSetHandler.handleOutputParameters(cs);
     return resultList;
@@ -92,10 +101,12 @@ public class CallableStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
+    long start = StatementTimer.start(metricsListener);
     // 输出参数的注册
     registerOutputParameters((CallableStatement) statement);
     // 输入参数的处理
     parameterHandler.setParameters((CallableStatement) statement);
+    phaseCompleted(StatementPhase.PARAMETER_BINDING, start);
   }
 
   // 输出参数的注册
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -29,6 +29,8 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -44,8 +46,11 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = StatementTimer.start(metricsListener);
     ps.execute();
+    phaseCompleted(StatementPhase.EXECUTE, start);
     int rows = ps.getUpdateCount();
+    rowsProcessed(rows);
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, ps, parameterObject);
@@ -61,14 +66,18 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = StatementTimer.start(metricsListener);
     ps.execute();
+    phaseCompleted(StatementPhase.EXECUTE, start);
     return resultSetHandler.handleResultSets(ps);
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = StatementTimer.start(metricsListener);
     ps.execute();
+    phaseCompleted(StatementPhase.EXECUTE, start);
     return resultSetHandler.handleCursorResultSets(ps);
   }
 
@@ -92,8 +101,10 @@ public class PreparedStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
+    long start = StatementTimer.start(metricsListener);
     // 为表达式中的 '?' 占位符赋值
     parameterHandler.setParameters((PreparedStatement) statement);
+    phaseCompleted(StatementPhase.PARAMETER_BINDING, start);
   }
 
 }
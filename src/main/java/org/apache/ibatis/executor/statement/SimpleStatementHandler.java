@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -29,6 +29,8 @@ import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.metrics.StatementTimer;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -47,6 +49,7 @@ public class SimpleStatementHandler extends BaseStatementHandler {
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     int rows;
+    long start = StatementTimer.start(metricsListener);
     // 根据 keyGenerator 的类型指定特定的 execute 方法
     if (keyGenerator instanceof Jdbc3KeyGenerator) {
       statement.execute(sql, Statement.RETURN_GENERATED_KEYS);
@@ -60,6 +63,8 @@ public class SimpleStatementHandler extends BaseStatementHandler {
       statement.execute(sql);
       rows = statement.getUpdateCount();
     }
+    phaseCompleted(StatementPhase.EXECUTE, start);
+    rowsProcessed(rows);
     return rows;
   }
 
@@ -73,7 +78,9 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
     // 执行语句
+    long start = StatementTimer.start(metricsListener);
     statement.execute(sql);
+    phaseCompleted(StatementPhase.EXECUTE, start);
     // 处理结果集
     return resultSetHandler.handleResultSets(statement);
   }
@@ -82,7 +89,9 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
     // 执行语句
+    long start = StatementTimer.start(metricsListener);
     statement.execute(sql);
+    phaseCompleted(StatementPhase.EXECUTE, start);
     // 处理结果集
     return resultSetHandler.handleCursorResultSets(statement);
   }
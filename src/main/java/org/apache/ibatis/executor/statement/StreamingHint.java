@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 流式查询时，设置驱动需要的提示信息。不同的驱动开启流式读取的方式不同，按 databaseId 注册。
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#addStreamingHint(String, StreamingHint)
+ */
+@FunctionalInterface
+public interface StreamingHint {
+
+  /**
+   * Sets the fetch size as it is, which makes most drivers (e.g. Oracle, SQL Server, HSQLDB) read the rows in
+   * chunks. PostgreSQL also requires the connection not to be in auto-commit mode.
+   */
+  StreamingHint DEFAULT = (statement, fetchSize) -> statement.setFetchSize(fetchSize);
+
+  /**
+   * MySQL Connector/J only streams the rows one by one when the fetch size is {@link Integer#MIN_VALUE}.
+   */
+  StreamingHint MYSQL = (statement, fetchSize) -> statement.setFetchSize(Integer.MIN_VALUE);
+
+  /**
+   * Applies the streaming hint to a statement before it is executed.
+   *
+   * @param statement
+   *          the statement
+   * @param fetchSize
+   *          the fetch size adapted to the rows observed so far
+   * @throws SQLException
+   *           if the driver rejects the hint
+   */
+  void apply(Statement statement, int fetchSize) throws SQLException;
+
+}
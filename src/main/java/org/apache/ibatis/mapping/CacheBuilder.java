@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -25,11 +25,15 @@ import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -111,7 +115,20 @@ public class CacheBuilder {
     Cache cache = newBaseCacheInstance(implementation, id);
     // 为缓存设置属性
     setCacheProperties(cache);
-    if (PerpetualCache.class.equals(cache.getClass())) {
+    if (ConcurrentCache.class.equals(cache.getClass())) {
+      // ConcurrentCache 自己负责淘汰，忽略内置的淘汰装饰器
+      boolean threadSafe = true;
+      for (Class<? extends Cache> decorator : decorators) {
+        if (isEvictionDecorator(decorator)) {
+          continue;
+        }
+        cache = newCacheDecoratorInstance(decorator, cache);
+        setCacheProperties(cache);
+        threadSafe = false;
+      }
+      // 只有用户自定义了装饰器时才需要 SynchronizedCache
+      cache = setStandardDecorators(cache, !threadSafe);
+    } else if (PerpetualCache.class.equals(cache.getClass())) {
       // 设置用户声明的装饰器类
       // 在当前版本有且仅有一个
       for (Class<? extends Cache> decorator : decorators) {
@@ -119,7 +136,7 @@ public class CacheBuilder {
         setCacheProperties(cache);
       }
       // 设置标准的装饰器类
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, true);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       // 如果基础实现类不是 PerpetualCache 说明是用户自定义的基础实现类，则装饰类就只有 Logging
       cache = new LoggingCache(cache);
@@ -138,7 +155,12 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private boolean isEvictionDecorator(Class<? extends Cache> decorator) {
+    return LruCache.class.equals(decorator) || FifoCache.class.equals(decorator)
+        || SoftCache.class.equals(decorator) || WeakCache.class.equals(decorator);
+  }
+
+  private Cache setStandardDecorators(Cache cache, boolean synchronize) {
     try {
     MetaObject metaCache = SystemMetaObject.forObject(cache);
     // 如果有 size 属性，则需要设置属性值
@@ -157,7 +179,9 @@ public class CacheBuilder {
     // 包装能打印缓存命中率的装饰类
     cache = new LoggingCache(cache);
     // 包装能让方法修饰了 synchronized 的装饰类
-    cache = new SynchronizedCache(cache);
+    if (synchronize) {
+      cache = new SynchronizedCache(cache);
+    }
     // 如果允许阻塞的话，就要包装支持阻塞的装饰类
     if (blocking) {
       cache = new BlockingCache(cache);
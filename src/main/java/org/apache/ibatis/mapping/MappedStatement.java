@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -42,6 +42,8 @@ public final class MappedStatement {
   private Integer fetchSize;
   // 这个设置是在抛出异常之前，驱动程序等待数据库返回请求结果的秒数。默认值为未设置（unset）（依赖数据库驱动）。
   private Integer timeout;
+  // 批量执行时每条语句最多缓存多少次调用，超过后自动刷新，默认使用全局配置
+  private Integer batchSize;
   // 可选 STATEMENT，PREPARED 或 CALLABLE。这会让 MyBatis 分别使用 Statement，PreparedStatement 或 CallableStatement。
   // 默认值：PREPARED。
   private StatementType statementType;
@@ -62,6 +64,8 @@ public final class MappedStatement {
   // 这个设置仅针对嵌套结果 select 语句：如果为 true，将会假设包含了嵌套结果集或是分组，当返回一个主结果行时，就不会产生对前面结果集的引用。
   // 这就使得在获取嵌套结果集的时候不至于内存不够用。默认值：false。
   private boolean resultOrdered;
+  // 是否以流式方式读取结果
+  private boolean streaming;
   // SQL 语句类型 UNKNOWN, INSERT, UPDATE, DELETE, SELECT, FLUSH
   private SqlCommandType sqlCommandType;
 
@@ -141,6 +145,19 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * Batch size.
+     *
+     * @param batchSize
+     *          the maximum number of buffered calls before the batch executor flushes
+     * @return the builder
+     * @since 3.5.7
+     */
+    public Builder batchSize(Integer batchSize) {
+      mappedStatement.batchSize = batchSize;
+      return this;
+    }
+
     public Builder statementType(StatementType statementType) {
       mappedStatement.statementType = statementType;
       return this;
@@ -171,6 +188,19 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * Streaming.
+     *
+     * @param streaming
+     *          whether the rows are read with the streaming hint of the database and an adaptive fetch size
+     * @return the builder
+     * @since 3.5.7
+     */
+    public Builder streaming(boolean streaming) {
+      mappedStatement.streaming = streaming;
+      return this;
+    }
+
     public Builder keyGenerator(KeyGenerator keyGenerator) {
       mappedStatement.keyGenerator = keyGenerator;
       return this;
@@ -257,6 +287,16 @@ public final class MappedStatement {
     return timeout;
   }
 
+  /**
+   * Gets the maximum number of calls the batch executor buffers for this statement before it flushes.
+   *
+   * @return the batch size, null to use {@link Configuration#getDefaultBatchSize()}
+   * @since 3.5.7
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
   public StatementType getStatementType() {
     return statementType;
   }
@@ -293,6 +333,17 @@ public final class MappedStatement {
     return resultOrdered;
   }
 
+  /**
+   * Returns whether the rows of this statement are read in streaming mode.
+   *
+   * @return true if the streaming hint of the database and an adaptive fetch size are used
+   * @since 3.5.7
+   * @see org.apache.ibatis.executor.statement.StreamingHint
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
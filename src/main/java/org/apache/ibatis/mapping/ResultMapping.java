@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -68,6 +68,10 @@ public class ResultMapping {
   private String foreignColumn;
   // 懒加载
   private boolean lazy;
+  // 批量加载的嵌套查询，以所有父对象的 column 值列表作为请求参数
+  private String batchSelectId;
+  // 批量加载时，子对象中保存父对象 column 值的属性，用来将子对象分配给父对象
+  private String batchKeyProperty;
 
   ResultMapping() {
   }
@@ -155,6 +159,16 @@ public class ResultMapping {
       return this;
     }
 
+    public Builder batchSelectId(String batchSelectId) {
+      resultMapping.batchSelectId = batchSelectId;
+      return this;
+    }
+
+    public Builder batchKeyProperty(String batchKeyProperty) {
+      resultMapping.batchKeyProperty = batchKeyProperty;
+      return this;
+    }
+
     public ResultMapping build() {
       // lock down collections
       resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
@@ -177,6 +191,14 @@ public class ResultMapping {
       if (resultMapping.nestedResultMapId == null && resultMapping.column == null && resultMapping.composites.isEmpty()) {
         throw new IllegalStateException("Mapping is missing column attribute for property " + resultMapping.property);
       }
+      if (resultMapping.batchSelectId != null) {
+        if (resultMapping.nestedQueryId == null || resultMapping.batchKeyProperty == null) {
+          throw new IllegalStateException("batchSelect requires both select and batchKeyProperty in property " + resultMapping.property);
+        }
+        if (!resultMapping.composites.isEmpty()) {
+          throw new IllegalStateException("batchSelect does not support composite columns in property " + resultMapping.property);
+        }
+      }
       if (resultMapping.getResultSet() != null) {
         int numColumns = 0;
         if (resultMapping.column != null) {
@@ -274,6 +296,26 @@ public class ResultMapping {
     this.lazy = lazy;
   }
 
+  /**
+   * Gets the id of the statement that loads the nested results of many parent rows at once.
+   *
+   * @return the batch select id, or null if the nested select is executed per row
+   * @since 3.5.7
+   */
+  public String getBatchSelectId() {
+    return batchSelectId;
+  }
+
+  /**
+   * Gets the property of the nested results that holds the value of the column of their parent row.
+   *
+   * @return the batch key property
+   * @since 3.5.7
+   */
+  public String getBatchKeyProperty() {
+    return batchKeyProperty;
+  }
+
   public boolean isSimple() {
     return this.nestedResultMapId == null && this.nestedQueryId == null && this.resultSet == null;
   }
@@ -321,6 +363,8 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", batchSelectId='").append(batchSelectId).append('\'');
+    sb.append(", batchKeyProperty='").append(batchKeyProperty).append('\'');
     sb.append('}');
     return sb.toString();
   }
@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 默认的语句指标监听器，在内存中按照映射语句汇总指标。
+ * <p>
+ * 每个阶段的耗时记录在一个 {@link LatencyHistogram} 中，单位为纳秒，记录时不需要加锁，可以一直开启。
+ *
+ * @since 3.5.7
+ */
+public class InMemoryStatementMetrics implements StatementMetricsListener {
+
+  // key 为映射语句编号
+  private final Map<String, StatementStatistics> statistics = new ConcurrentHashMap<>();
+
+  @Override
+  public void phaseCompleted(String statementId, StatementPhase phase, long nanos) {
+    getOrCreate(statementId).getLatency(phase).record(nanos);
+  }
+
+  @Override
+  public void rowsProcessed(String statementId, long rows) {
+    getOrCreate(statementId).rows.add(rows);
+  }
+
+  @Override
+  public void cacheAccessed(String statementId, boolean localCache, boolean hit) {
+    StatementStatistics stats = getOrCreate(statementId);
+    if (localCache) {
+      (hit ? stats.localCacheHits : stats.localCacheMisses).increment();
+    } else {
+      (hit ? stats.cacheHits : stats.cacheMisses).increment();
+    }
+  }
+
+  /**
+   * Gets the ids of the statements that reported metrics.
+   *
+   * @return the statement ids
+   */
+  public Set<String> getStatementIds() {
+    return Collections.unmodifiableSet(statistics.keySet());
+  }
+
+  /**
+   * Gets the metrics of a statement.
+   *
+   * @param statementId
+   *          the id of the mapped statement
+   * @return the metrics, or null if the statement did not report any
+   */
+  public StatementStatistics getStatistics(String statementId) {
+    return statistics.get(statementId);
+  }
+
+  /**
+   * Clears the metrics of all the statements.
+   */
+  public void reset() {
+    statistics.clear();
+  }
+
+  private StatementStatistics getOrCreate(String statementId) {
+    StatementStatistics stats = statistics.get(statementId);
+    if (stats == null) {
+      stats = statistics.computeIfAbsent(statementId, k -> new StatementStatistics());
+    }
+    return stats;
+  }
+
+  /**
+   * The metrics of one mapped statement.
+   */
+  public static class StatementStatistics {
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[StatementPhase.values().length];
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder localCacheHits = new LongAdder();
+    private final LongAdder localCacheMisses = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    StatementStatistics() {
+      for (int i = 0; i < latencies.length; i++) {
+        latencies[i] = new LatencyHistogram();
+      }
+    }
+
+    /**
+     * Gets the latency of a phase in nanoseconds.
+     *
+     * @param phase
+     *          the phase
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency(StatementPhase phase) {
+      return latencies[phase.ordinal()];
+    }
+
+    public long getRows() {
+      return rows.sum();
+    }
+
+    public long getLocalCacheHits() {
+      return localCacheHits.sum();
+    }
+
+    public long getLocalCacheMisses() {
+      return localCacheMisses.sum();
+    }
+
+    public long getCacheHits() {
+      return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+      return cacheMisses.sum();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      for (StatementPhase phase : StatementPhase.values()) {
+        builder.append(phase).append(": ").append(getLatency(phase)).append('\n');
+      }
+      builder.append("rows: ").append(getRows()).append('\n');
+      builder.append("local cache hits/misses: ").append(getLocalCacheHits()).append('/').append(getLocalCacheMisses()).append('\n');
+      builder.append("cache hits/misses: ").append(getCacheHits()).append('/').append(getCacheMisses());
+      return builder.toString();
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的延迟直方图。
+ * <p>
+ * 按照 2 的幂划分区间，每个区间再平均分为 4 个子区间，百分位数的相对误差不超过 25%。
+ * 记录时只有一次原子自增，可以在多个线程中同时记录，时间单位由调用方决定。
+ */
+public class LatencyHistogram {
+
+  // 每个 2 的幂区间划分的子区间数量为 2^SUB_BUCKET_BITS
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a value, negative values are recorded as 0.
+   *
+   * @param value
+   *          the value
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    buckets.incrementAndGet(bucketIndex(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getSum() {
+    return sum.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public long getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : sum.sum() / n;
+  }
+
+  /**
+   * Gets the value at the given percentile, which is the upper bound of the bucket the percentile falls into.
+   *
+   * @param percentile
+   *          the percentile, between 0 and 100
+   * @return the value, 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Clears all the recorded values.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = msb - SUB_BUCKET_BITS;
+    int sub = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return (shift + 1) * SUB_BUCKET_COUNT + sub;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lower = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", mean=" + getMean() + ", p50=" + getPercentile(50) + ", p99=" + getPercentile(99)
+        + ", max=" + getMax();
+  }
+
+}
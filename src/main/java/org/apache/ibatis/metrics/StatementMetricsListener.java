@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * 语句级别的指标监听器，可以用来把每个映射语句的执行情况桥接到外部的监控系统。
+ * <p>
+ * 没有设置监听器时不会读取时钟，设置后每个阶段只多两次 {@link System#nanoTime()}。
+ * 回调在执行语句的线程中执行，实现类必须是线程安全的，并且应该尽快返回。所有的时间单位都是纳秒。
+ * 游标查询的结果在遍历时才读取，不会报告 {@link StatementPhase#FETCH} 和 {@link StatementPhase#MAPPING} 阶段。
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#setStatementMetricsListener(StatementMetricsListener)
+ * @see InMemoryStatementMetrics
+ */
+public interface StatementMetricsListener {
+
+  /**
+   * A phase of a statement execution completed.
+   *
+   * @param statementId
+   *          the id of the mapped statement
+   * @param phase
+   *          the phase
+   * @param nanos
+   *          the time the phase took
+   */
+  default void phaseCompleted(String statementId, StatementPhase phase, long nanos) {
+  }
+
+  /**
+   * The rows of a statement were processed, the fetched rows of a select or the update count of other statements.
+   *
+   * @param statementId
+   *          the id of the mapped statement
+   * @param rows
+   *          the number of rows
+   */
+  default void rowsProcessed(String statementId, long rows) {
+  }
+
+  /**
+   * A select was looked up in a cache.
+   *
+   * @param statementId
+   *          the id of the mapped statement
+   * @param localCache
+   *          true for the session cache, false for the second level cache
+   * @param hit
+   *          true if the result was found in the cache
+   */
+  default void cacheAccessed(String statementId, boolean localCache, boolean hit) {
+  }
+
+}
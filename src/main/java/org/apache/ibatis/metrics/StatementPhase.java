@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The phases of a statement execution reported to a {@link StatementMetricsListener}.
+ *
+ * @since 3.5.7
+ */
+public enum StatementPhase {
+
+  /**
+   * Getting the connection from the transaction, which includes the pool checkout for the first statement of a
+   * transaction.
+   */
+  CONNECTION,
+
+  /**
+   * Building the SQL and the parameter mappings from the mapped statement.
+   */
+  SQL_GENERATION,
+
+  /**
+   * Setting the parameters on the prepared statement.
+   */
+  PARAMETER_BINDING,
+
+  /**
+   * Executing the statement on the database.
+   */
+  EXECUTE,
+
+  /**
+   * Moving the result set to the next row, which includes the network round trips for the fetched rows.
+   */
+  FETCH,
+
+  /**
+   * Mapping the rows to result objects, which includes the nested selects of the result maps.
+   */
+  MAPPING
+
+}
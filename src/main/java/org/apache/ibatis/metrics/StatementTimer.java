@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Helpers for the executors to time the phases of a statement, doing nothing when no listener is set.
+ *
+ * @since 3.5.7
+ */
+public final class StatementTimer {
+
+  private StatementTimer() {
+    // 只有静态方法，禁止实例化
+  }
+
+  /**
+   * Starts timing a phase.
+   *
+   * @param listener
+   *          the listener, may be null
+   * @return the start time, 0 if there is no listener
+   */
+  public static long start(StatementMetricsListener listener) {
+    return listener == null ? 0L : System.nanoTime();
+  }
+
+  /**
+   * Reports the time elapsed since {@link #start(StatementMetricsListener)}.
+   *
+   * @param listener
+   *          the listener, may be null
+   * @param ms
+   *          the mapped statement
+   * @param phase
+   *          the phase
+   * @param start
+   *          the start time
+   */
+  public static void stop(StatementMetricsListener listener, MappedStatement ms, StatementPhase phase, long start) {
+    if (listener != null) {
+      listener.phaseCompleted(ms.getId(), phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Builds the SQL of a mapped statement, reporting the time as {@link StatementPhase#SQL_GENERATION}.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param parameterObject
+   *          the parameter object
+   * @return the bound SQL
+   */
+  public static BoundSql getBoundSql(MappedStatement ms, Object parameterObject) {
+    final StatementMetricsListener listener = ms.getConfiguration().getStatementMetricsListener();
+    final long start = start(listener);
+    final BoundSql boundSql = ms.getBoundSql(parameterObject);
+    stop(listener, ms, StatementPhase.SQL_GENERATION, start);
+    return boundSql;
+  }
+
+}
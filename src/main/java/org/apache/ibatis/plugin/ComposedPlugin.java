@@ -0,0 +1,248 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.lang.UsesJava8;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * A single proxy applying several interceptors to a target, used instead of one {@link Plugin} proxy per interceptor.
+ * <p>
+ * The interceptors of each method are resolved once per target class, so a call looks up one dispatch table instead
+ * of walking a proxy and a signature map per interceptor, and methods that no interceptor intercepts are called on the
+ * target through a {@link MethodHandle}. The {@link Invocation} passed to an interceptor behaves like the one of the
+ * stacked proxies: its target is the target wrapped by the interceptors applied before it, and
+ * {@link Invocation#proceed()} calls the next interceptor.
+ *
+ * @since 3.5.7
+ */
+@UsesJava8
+final class ComposedPlugin implements InvocationHandler {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  // 被代理对象
+  private final Object target;
+  // 目标类型的分派表
+  private final Table table;
+  // 只应用前 depth 个拦截器
+  private final int depth;
+  // 按照深度缓存的视图，作为拦截器看到的 Invocation.getTarget()
+  private Object[] views;
+
+  private ComposedPlugin(Object target, Table table, int depth) {
+    this.target = target;
+    this.table = table;
+    this.depth = depth;
+  }
+
+  /**
+   * Wraps the target with the interceptors, in the order {@link InterceptorChain#pluginAll(Object)} applies them.
+   *
+   * @param target
+   *          the target
+   * @param tables
+   *          the dispatch tables of these interceptors keyed by target class
+   * @param interceptors
+   *          the interceptors, none of them may override {@link Interceptor#plugin(Object)}
+   * @return the proxy, or the target itself if no interceptor applies to it
+   */
+  static Object wrap(Object target, Map<Class<?>, Table> tables, Interceptor[] interceptors) {
+    Table table = tables.get(target.getClass());
+    if (table == null) {
+      table = tables.computeIfAbsent(target.getClass(), k -> new Table(k, interceptors));
+    }
+    return new ComposedPlugin(target, table, interceptors.length).view(interceptors.length);
+  }
+
+  /**
+   * Gets whether the interceptor can be composed, that is it uses the default {@link Interceptor#plugin(Object)}.
+   */
+  static boolean isComposable(Interceptor interceptor) {
+    try {
+      return interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass() == Interceptor.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    try {
+      return dispatch(method, args, depth);
+    } catch (Exception e) {
+      throw ExceptionUtil.unwrapThrowable(e);
+    }
+  }
+
+  /**
+   * Calls the outermost of the first depth interceptors that intercepts the method, or the target if there is none.
+   */
+  private Object dispatch(Method method, Object[] args, int depth) throws Throwable {
+    final int[] chain = table.chains.get(method);
+    if (chain != null) {
+      // 拦截器编号是升序的，最后应用的拦截器最先执行
+      for (int i = chain.length - 1; i >= 0; i--) {
+        if (chain[i] < depth) {
+          return table.interceptors[chain[i]].intercept(new ComposedInvocation(this, chain[i], method, args));
+        }
+      }
+    }
+    return table.invoker(method).invokeExact(target, args);
+  }
+
+  /**
+   * Gets the target wrapped by the first depth interceptors.
+   */
+  private Object view(int depth) {
+    final Class<?>[] interfaces = table.interfaces[depth];
+    if (interfaces.length == 0) {
+      return target;
+    }
+    if (views == null) {
+      views = new Object[table.interceptors.length + 1];
+    }
+    Object view = views[depth];
+    if (view == null) {
+      ComposedPlugin handler = depth == this.depth ? this : new ComposedPlugin(target, table, depth);
+      view = Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, handler);
+      views[depth] = view;
+    }
+    return view;
+  }
+
+  /**
+   * The invocation of one interceptor, proceeding to the interceptors applied before it.
+   */
+  private static final class ComposedInvocation extends Invocation {
+
+    private final ComposedPlugin plugin;
+    // 当前拦截器的编号
+    private final int index;
+
+    ComposedInvocation(ComposedPlugin plugin, int index, Method method, Object[] args) {
+      super(plugin.target, method, args);
+      this.plugin = plugin;
+      this.index = index;
+    }
+
+    @Override
+    public Object getTarget() {
+      return plugin.view(index);
+    }
+
+    @Override
+    public Object proceed() throws InvocationTargetException {
+      try {
+        return plugin.dispatch(getMethod(), getArgs(), index);
+      } catch (Throwable t) {
+        // 和层层代理一样，内层抛出的异常包装为 InvocationTargetException
+        throw new InvocationTargetException(ExceptionUtil.unwrapThrowable(t));
+      }
+    }
+  }
+
+  /**
+   * The interceptors of each method of a target class, resolved once.
+   */
+  static final class Table {
+
+    // 无法访问的方法通过反射调用
+    private static final MethodHandle REFLECTIVE_INVOKER;
+
+    static {
+      try {
+        REFLECTIVE_INVOKER = LOOKUP.findStatic(Table.class, "invokeReflectively",
+            MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private final Interceptor[] interceptors;
+    // 前 n 个拦截器代理的接口
+    private final Class<?>[][] interfaces;
+    // 每个方法的拦截器编号，升序排列
+    private final Map<Method, int[]> chains;
+    // 直接调用目标对象的方法句柄
+    private final Map<Method, MethodHandle> invokers = new ConcurrentHashMap<>();
+
+    Table(Class<?> type, Interceptor[] interceptors) {
+      this.interceptors = interceptors;
+      this.interfaces = new Class<?>[interceptors.length + 1][];
+      this.interfaces[0] = new Class<?>[0];
+      final Set<Class<?>> allInterfaces = new LinkedHashSet<>();
+      final Map<Method, List<Integer>> chains = new HashMap<>();
+      for (int i = 0; i < interceptors.length; i++) {
+        final Map<Class<?>, Set<Method>> signatureMap = Plugin.getSignatureMap(interceptors[i]);
+        for (Class<?> c : Plugin.getAllInterfaces(type, signatureMap)) {
+          allInterfaces.add(c);
+          for (Method method : signatureMap.get(c)) {
+            // 和 Plugin 一样，只拦截签名中的类型声明的方法
+            if (method.getDeclaringClass() == c) {
+              chains.computeIfAbsent(method, k -> new ArrayList<>()).add(i);
+            }
+          }
+        }
+        this.interfaces[i + 1] = allInterfaces.toArray(new Class<?>[0]);
+      }
+      this.chains = new HashMap<>();
+      chains.forEach((method, indexes) -> this.chains.put(method, indexes.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    MethodHandle invoker(Method method) {
+      MethodHandle invoker = invokers.get(method);
+      if (invoker == null) {
+        invoker = invokers.computeIfAbsent(method, Table::createInvoker);
+      }
+      return invoker;
+    }
+
+    private static MethodHandle createInvoker(Method method) {
+      try {
+        return LOOKUP.unreflect(method).asSpreader(Object[].class, method.getParameterTypes().length).asType(INVOKER_TYPE);
+      } catch (IllegalAccessException e) {
+        return MethodHandles.insertArguments(REFLECTIVE_INVOKER, 0, method);
+      }
+    }
+
+    static Object invokeReflectively(Method method, Object target, Object[] args) throws Throwable {
+      try {
+        method.setAccessible(true);
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      }
+    }
+  }
+
+}
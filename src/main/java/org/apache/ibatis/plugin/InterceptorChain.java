@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Clinton Begin
@@ -25,8 +27,18 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  // 是否把连续的拦截器合并到一个代理中
+  private boolean composed;
+  // 合并后的拦截器分组，添加拦截器后重新计算
+  private volatile List<Stage> stages;
 
   public Object pluginAll(Object target) {
+    if (composed) {
+      for (Stage stage : getStages()) {
+        target = stage.plugin(target);
+      }
+      return target;
+    }
     // 插件装载
     for (Interceptor interceptor : interceptors) {
       target = interceptor.plugin(target);
@@ -36,10 +48,79 @@ public class InterceptorChain {
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    stages = null;
   }
 
   public List<Interceptor> getInterceptors() {
     return Collections.unmodifiableList(interceptors);
   }
 
+  /**
+   * Gets whether the interceptors are applied through one composed proxy.
+   *
+   * @return true if the interceptors are composed
+   * @since 3.5.7
+   */
+  public boolean isComposed() {
+    return composed;
+  }
+
+  /**
+   * Sets whether the interceptors are applied through one composed proxy instead of one {@link Plugin} proxy each.
+   * Consecutive interceptors that use the default {@link Interceptor#plugin(Object)} share a proxy whose dispatch
+   * table is resolved once per target class, the others are still applied through their own
+   * {@link Interceptor#plugin(Object)}.
+   *
+   * @param composed
+   *          true to compose the interceptors, false (default) to stack one proxy per interceptor
+   * @since 3.5.7
+   */
+  public void setComposed(boolean composed) {
+    this.composed = composed;
+  }
+
+  private List<Stage> getStages() {
+    List<Stage> stages = this.stages;
+    if (stages == null) {
+      stages = new ArrayList<>();
+      List<Interceptor> composable = new ArrayList<>();
+      for (Interceptor interceptor : interceptors) {
+        if (ComposedPlugin.isComposable(interceptor)) {
+          composable.add(interceptor);
+          continue;
+        }
+        // 自定义了 plugin 方法的拦截器不能合并，把它之前的拦截器先合并
+        if (!composable.isEmpty()) {
+          stages.add(new Stage(composable.toArray(new Interceptor[0]), true));
+          composable.clear();
+        }
+        stages.add(new Stage(new Interceptor[] {interceptor}, false));
+      }
+      if (!composable.isEmpty()) {
+        stages.add(new Stage(composable.toArray(new Interceptor[0]), true));
+      }
+      this.stages = stages;
+    }
+    return stages;
+  }
+
+  /**
+   * Consecutive interceptors applied through one proxy, or a single interceptor with its own plugin method.
+   */
+  private static final class Stage {
+    private final Interceptor[] interceptors;
+    private final boolean composed;
+    // 按照目标类型缓存的分派表
+    private final Map<Class<?>, ComposedPlugin.Table> tables = new ConcurrentHashMap<>();
+
+    Stage(Interceptor[] interceptors, boolean composed) {
+      this.interceptors = interceptors;
+      this.composed = composed;
+    }
+
+    Object plugin(Object target) {
+      return composed ? ComposedPlugin.wrap(target, tables, interceptors) : interceptors[0].plugin(target);
+    }
+  }
+
 }
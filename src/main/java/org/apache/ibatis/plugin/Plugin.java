@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -68,7 +68,7 @@ public class Plugin implements InvocationHandler {
     }
   }
 
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
+  static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
     // 得到 Intercepts 注解
     Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
     if (interceptsAnnotation == null) {
@@ -91,7 +91,7 @@ public class Plugin implements InvocationHandler {
     return signatureMap;
   }
 
-  private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
+  static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
     Set<Class<?>> interfaces = new HashSet<>();
     while (type != null) {
       for (Class<?> c : type.getInterfaces()) {
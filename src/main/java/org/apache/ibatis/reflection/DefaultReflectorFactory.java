@@ -16,6 +16,9 @@ package org.apache.ibatis.reflection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.ibatis.reflection.invoker.DefaultInvokerFactory;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+
 /**
  * 默认的 Reflector 工厂
  */
@@ -31,6 +34,11 @@ public class DefaultReflectorFactory implements ReflectorFactory {
    */
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
 
+  /**
+   * 创建属性访问的 Invoker
+   */
+  private InvokerFactory invokerFactory = new DefaultInvokerFactory();
+
   public DefaultReflectorFactory() {
   }
 
@@ -54,6 +62,22 @@ public class DefaultReflectorFactory implements ReflectorFactory {
     this.classCacheEnabled = classCacheEnabled;
   }
 
+  public InvokerFactory getInvokerFactory() {
+    return invokerFactory;
+  }
+
+  /**
+   * Sets the factory of the invokers used by the reflectors, the cached reflectors are discarded.
+   *
+   * @param invokerFactory
+   *          the invoker factory
+   * @since 3.5.7
+   */
+  public void setInvokerFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
+    reflectorMap.clear();
+  }
+
   /**
    * 通过 class，获取对应的 reflector
    *
@@ -64,9 +88,9 @@ public class DefaultReflectorFactory implements ReflectorFactory {
   public Reflector findForClass(Class<?> type) {
     // 如果启用缓存，则从 reflectorMap 中获取，否则每次都创建一个新的
     if (classCacheEnabled) {
-      return reflectorMap.computeIfAbsent(type, Reflector::new);
+      return reflectorMap.computeIfAbsent(type, clazz -> new Reflector(clazz, invokerFactory));
     } else {
-      return new Reflector(type);
+      return new Reflector(type, invokerFactory);
     }
   }
 
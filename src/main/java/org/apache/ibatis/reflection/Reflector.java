@@ -33,10 +33,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
-import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.DefaultInvokerFactory;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
-import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
 /**
@@ -47,6 +47,8 @@ import org.apache.ibatis.reflection.property.PropertyNamer;
  */
 public class Reflector {
 
+  private static final InvokerFactory DEFAULT_INVOKER_FACTORY = new DefaultInvokerFactory();
+
   /**
    * Class 类型
    */
@@ -82,6 +84,11 @@ public class Reflector {
    */
   private final Map<String, Class<?>> getTypes = new HashMap<>();
 
+  /**
+   * 创建属性访问的 Invoker
+   */
+  private final InvokerFactory invokerFactory;
+
   /**
    * 类的默认的构造方法
    */
@@ -93,8 +100,22 @@ public class Reflector {
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
   public Reflector(Class<?> clazz) {
+    this(clazz, DEFAULT_INVOKER_FACTORY);
+  }
+
+  /**
+   * Creates a reflector whose property invokers are created by the given factory.
+   *
+   * @param clazz
+   *          the class
+   * @param invokerFactory
+   *          the invoker factory
+   * @since 3.5.7
+   */
+  public Reflector(Class<?> clazz, InvokerFactory invokerFactory) {
     // 设置 Reflector 的类型
     type = clazz;
+    this.invokerFactory = invokerFactory;
     // 设置默认的构造器
     addDefaultConstructor(clazz);
     // 设置 get 方法和它的返回值类型
@@ -208,11 +229,11 @@ public class Reflector {
    */
   private void addGetMethod(String name, Method method, boolean isAmbiguous) {
     // 如果是 '唯一解' 那么就直接生成 MethodInvoker，如果有 '多个解'，则封装为 AmbiguousMethodInvoker，在执行时会报错
-    MethodInvoker invoker = isAmbiguous
+    Invoker invoker = isAmbiguous
       ? new AmbiguousMethodInvoker(method, MessageFormat.format(
       "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
       name, method.getDeclaringClass().getName()))
-      : new MethodInvoker(method);
+      : invokerFactory.createMethodInvoker(method);
     // 放入到 getMethods 中。key -> '属性'名称，value -> '属性'的get方法
     getMethods.put(name, invoker);
     // 获取到方法真实的返回类型
@@ -336,7 +357,7 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    Invoker invoker = invokerFactory.createMethodInvoker(method);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
@@ -388,7 +409,7 @@ public class Reflector {
   private void addSetField(Field field) {
     if (isValidPropertyName(field.getName())) {
       // 属性名称合法的话，就放到 setMethods 和 setTypes 中
-      setMethods.put(field.getName(), new SetFieldInvoker(field));
+      setMethods.put(field.getName(), invokerFactory.createSetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       setTypes.put(field.getName(), typeToClass(fieldType));
     }
@@ -397,7 +418,7 @@ public class Reflector {
   private void addGetField(Field field) {
     if (isValidPropertyName(field.getName())) {
       // 属性名称合法的话，就放到 getMethods 和 getTypes 中
-      getMethods.put(field.getName(), new GetFieldInvoker(field));
+      getMethods.put(field.getName(), invokerFactory.createGetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       getTypes.put(field.getName(), typeToClass(fieldType));
     }
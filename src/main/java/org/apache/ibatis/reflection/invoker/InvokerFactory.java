@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * 创建 {@link org.apache.ibatis.reflection.Reflector} 中访问属性使用的 Invoker
+ *
+ * @since 3.5.7
+ */
+public interface InvokerFactory {
+
+  /**
+   * Creates an invoker for a getter or setter method.
+   *
+   * @param method
+   *          the getter (no parameter) or setter (one parameter)
+   * @return the invoker
+   */
+  Invoker createMethodInvoker(Method method);
+
+  /**
+   * Creates an invoker that reads a field.
+   *
+   * @param field
+   *          the field
+   * @return the invoker
+   */
+  Invoker createGetFieldInvoker(Field field);
+
+  /**
+   * Creates an invoker that writes a field.
+   *
+   * @param field
+   *          the field
+   * @return the invoker
+   */
+  Invoker createSetFieldInvoker(Field field);
+
+}
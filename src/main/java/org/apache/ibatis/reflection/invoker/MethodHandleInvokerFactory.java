@@ -0,0 +1,313 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * 不使用反射调用的 InvokerFactory。
+ * <p>
+ * 公共类的公共方法使用 {@link LambdaMetafactory} 生成直接调用的实现，其他方法和字段使用 {@link MethodHandle}。
+ * 无法生成时（例如静态成员、没有访问权限）回退到和 {@link DefaultInvokerFactory} 相同的反射实现。
+ * 生成的 Invoker 仍然是 {@link MethodInvoker}、{@link GetFieldInvoker} 和 {@link SetFieldInvoker} 的子类。
+ *
+ * @since 3.5.7
+ */
+@UsesJava8
+public class MethodHandleInvokerFactory implements InvokerFactory {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  @Override
+  public Invoker createMethodInvoker(Method method) {
+    int parameterCount = method.getParameterTypes().length;
+    if (Modifier.isStatic(method.getModifiers()) || parameterCount > 1) {
+      return new MethodInvoker(method);
+    }
+    try {
+      if (isLinkable(method)) {
+        return parameterCount == 0 ? new LambdaGetterInvoker(method) : new LambdaSetterInvoker(method);
+      }
+      MethodHandle handle = unreflect(method);
+      return parameterCount == 0 ? new HandleGetterInvoker(method, handle.asType(GETTER_TYPE))
+          : new HandleSetterInvoker(method, handle.asType(SETTER_TYPE));
+    } catch (Throwable e) {
+      return new MethodInvoker(method);
+    }
+  }
+
+  @Override
+  public Invoker createGetFieldInvoker(Field field) {
+    if (Modifier.isStatic(field.getModifiers())) {
+      return new GetFieldInvoker(field);
+    }
+    try {
+      return new HandleGetFieldInvoker(field, unreflectGetter(field).asType(GETTER_TYPE));
+    } catch (Exception e) {
+      return new GetFieldInvoker(field);
+    }
+  }
+
+  @Override
+  public Invoker createSetFieldInvoker(Field field) {
+    if (Modifier.isStatic(field.getModifiers())) {
+      return new SetFieldInvoker(field);
+    }
+    try {
+      return new HandleSetFieldInvoker(field, unreflectSetter(field).asType(SETTER_TYPE));
+    } catch (Exception e) {
+      return new SetFieldInvoker(field);
+    }
+  }
+
+  /**
+   * 生成的 lambda 类由 MyBatis 的类加载器加载，只有公共类的公共方法，
+   * 并且方法所在的类和参数、返回值的类型对 MyBatis 都可见时才能直接调用
+   */
+  private static boolean isLinkable(Method method) {
+    if (!Modifier.isPublic(method.getModifiers()) || !isVisible(method.getDeclaringClass())
+        || !isVisible(method.getReturnType())) {
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (!isVisible(parameterType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isVisible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    try {
+      return Class.forName(type.getName(), false, MethodHandleInvokerFactory.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+    try {
+      return LOOKUP.unreflect(method);
+    } catch (IllegalAccessException e) {
+      method.setAccessible(true);
+      return LOOKUP.unreflect(method);
+    }
+  }
+
+  private static MethodHandle unreflectGetter(Field field) throws IllegalAccessException {
+    try {
+      return LOOKUP.unreflectGetter(field);
+    } catch (IllegalAccessException e) {
+      field.setAccessible(true);
+      return LOOKUP.unreflectGetter(field);
+    }
+  }
+
+  private static MethodHandle unreflectSetter(Field field) throws IllegalAccessException {
+    try {
+      return LOOKUP.unreflectSetter(field);
+    } catch (IllegalAccessException e) {
+      field.setAccessible(true);
+      return LOOKUP.unreflectSetter(field);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T createLambda(Method method, Class<T> interfaceType, String name, MethodType samType)
+      throws Throwable {
+    MethodHandle implementation = LOOKUP.unreflect(method);
+    // 基本类型的参数和返回值需要装箱
+    MethodType instantiatedType = implementation.type().wrap();
+    if (samType.returnType() == void.class) {
+      instantiatedType = instantiatedType.changeReturnType(void.class);
+    }
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(interfaceType), samType,
+        implementation, instantiatedType);
+    return (T) site.getTarget().invoke();
+  }
+
+  private static InvocationTargetException wrap(Throwable t) {
+    return new InvocationTargetException(t);
+  }
+
+  /**
+   * 和反射一样，基本类型的参数不能传入 null，否则拆箱时的 NullPointerException 会被当作 setter 抛出的异常
+   */
+  private static void checkNotNull(Class<?> type, Object value, Object member) {
+    if (value == null && type.isPrimitive()) {
+      throw new IllegalArgumentException("Can not set the primitive " + type + " of " + member + " to null");
+    }
+  }
+
+  private static RuntimeException unchecked(Throwable t) {
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return t instanceof RuntimeException ? (RuntimeException) t : new IllegalStateException(t);
+  }
+
+  private static final class LambdaGetterInvoker extends MethodInvoker {
+    private final Function<Object, Object> getter;
+
+    @SuppressWarnings("unchecked")
+    LambdaGetterInvoker(Method method) throws Throwable {
+      super(method);
+      this.getter = createLambda(method, Function.class, "apply", GETTER_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      try {
+        return getter.apply(target);
+      } catch (Throwable t) {
+        throw wrap(t);
+      }
+    }
+  }
+
+  private static final class LambdaSetterInvoker extends MethodInvoker {
+    private final Method method;
+    private final BiConsumer<Object, Object> setter;
+
+    @SuppressWarnings("unchecked")
+    LambdaSetterInvoker(Method method) throws Throwable {
+      super(method);
+      this.method = method;
+      this.setter = createLambda(method, BiConsumer.class, "accept", SETTER_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      checkNotNull(getType(), args[0], method);
+      try {
+        setter.accept(target, args[0]);
+        return null;
+      } catch (Throwable t) {
+        throw wrap(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  private static final class HandleGetterInvoker extends MethodInvoker {
+    private final MethodHandle handle;
+
+    HandleGetterInvoker(Method method, MethodHandle handle) {
+      super(method);
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      try {
+        return (Object) handle.invokeExact(target);
+      } catch (Throwable t) {
+        throw wrap(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  private static final class HandleSetterInvoker extends MethodInvoker {
+    private final Method method;
+    private final MethodHandle handle;
+
+    HandleSetterInvoker(Method method, MethodHandle handle) {
+      super(method);
+      this.method = method;
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      checkNotNull(getType(), args[0], method);
+      try {
+        handle.invokeExact(target, args[0]);
+        return null;
+      } catch (Throwable t) {
+        throw wrap(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  private static final class HandleGetFieldInvoker extends GetFieldInvoker {
+    private final MethodHandle handle;
+
+    HandleGetFieldInvoker(Field field, MethodHandle handle) {
+      super(field);
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) {
+      try {
+        return (Object) handle.invokeExact(target);
+      } catch (Throwable t) {
+        throw unchecked(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  private static final class HandleSetFieldInvoker extends SetFieldInvoker {
+    private final Field field;
+    private final MethodHandle handle;
+
+    HandleSetFieldInvoker(Field field, MethodHandle handle) {
+      super(field);
+      this.field = field;
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) {
+      checkNotNull(field.getType(), args[0], field);
+      try {
+        handle.invokeExact(target, args[0]);
+        return null;
+      } catch (Throwable t) {
+        throw unchecked(t);
+      }
+    }
+  }
+
+}
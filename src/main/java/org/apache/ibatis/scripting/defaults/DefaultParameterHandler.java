@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -69,10 +69,27 @@ public class DefaultParameterHandler implements ParameterHandler {
    */
   @Override
   public void setParameters(PreparedStatement ps) {
+    setParameters(ps, 0);
+  }
+
+  /**
+   * Sets the parameters starting after the given number of already bound parameters, used when the parameters of
+   * several calls are bound to one statement.
+   *
+   * @param ps
+   *          the prepared statement
+   * @param offset
+   *          the number of parameters bound before the first parameter of this call
+   * @since 3.5.7
+   */
+  public void setParameters(PreparedStatement ps, int offset) {
     ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
     // 从 BoundSql 中得到请求参数映射列表
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
+      // 启用时参数的读取方式按照参数类型只解析一次
+      final ParameterBinder binder = parameterObject != null && configuration.isCompiledParameterBindersEnabled()
+          ? configuration.getParameterBinder(mappedStatement, parameterObject.getClass()) : null;
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         // 只处理 ParameterMode.IN 和 ParameterMode.INOUT 的参数
@@ -88,6 +105,8 @@ public class DefaultParameterHandler implements ParameterHandler {
             value = boundSql.getAdditionalParameter(propertyName);
           } else if (parameterObject == null) {
             value = null;
+          } else if (binder != null) {
+            value = binder.getValue(parameterObject, propertyName);
           } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
             // 参数对象有指定的 typeHandler，则参数值就是对象本身
             value = parameterObject;
@@ -104,7 +123,7 @@ public class DefaultParameterHandler implements ParameterHandler {
           }
           try {
             // 此方法最终根据参数类型，调用java.sql.PreparedStatement类中的参数赋值方法，对SQL语句中的参数赋值
-            typeHandler.setParameter(ps, i + 1, value, jdbcType);
+            typeHandler.setParameter(ps, offset + i + 1, value, jdbcType);
           } catch (TypeException | SQLException e) {
             throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
           }
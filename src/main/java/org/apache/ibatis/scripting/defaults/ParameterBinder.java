@@ -0,0 +1,223 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The parameter values of a mapped statement resolved once for a parameter class.
+ * <p>
+ * Each placeholder property is compiled on first use into a chain of getter {@link Invoker}s and map lookups, guarded
+ * by the classes seen when it was compiled, so the value is read without creating a {@link MetaObject} or tokenizing
+ * the property again. Properties that need any of that work (indexed properties, collections, custom object wrappers)
+ * or a value whose class differs from the compiled one are read through {@link MetaObject} as before.
+ *
+ * @since 3.5.7
+ * @see Configuration#isCompiledParameterBindersEnabled()
+ */
+public final class ParameterBinder {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  // 表示这个属性无法编译，避免每次执行都重新分析
+  private static final PropertyReader UNSUPPORTED = new PropertyReader(new Segment[0]);
+
+  private final Configuration configuration;
+  // 参数对象有对应的类型处理器时，参数值就是参数对象本身
+  private final boolean simpleParameter;
+  // 是否可以编译属性读取器，使用自定义的对象包装器工厂时只能通过 MetaObject 读取
+  private final boolean compilable;
+  // 编译好的属性读取器，key 为属性名
+  private final Map<String, PropertyReader> readers = new ConcurrentHashMap<>();
+
+  private ParameterBinder(Configuration configuration, Class<?> parameterType) {
+    this.configuration = configuration;
+    this.simpleParameter = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+    this.compilable = configuration.getObjectWrapperFactory().getClass() == DefaultObjectWrapperFactory.class;
+  }
+
+  /**
+   * Compiles a parameter binder for the parameter class.
+   *
+   * @param parameterType
+   *          the class of the parameter object
+   * @param configuration
+   *          the configuration
+   * @return the parameter binder
+   */
+  public static ParameterBinder compile(Class<?> parameterType, Configuration configuration) {
+    return new ParameterBinder(configuration, parameterType);
+  }
+
+  /**
+   * Gets the value of a placeholder property, the same value that {@link MetaObject#getValue(String)} returns.
+   *
+   * @param parameterObject
+   *          the parameter object, must not be null and must be of the compiled class
+   * @param propertyName
+   *          the property of the placeholder
+   * @return the value
+   */
+  public Object getValue(Object parameterObject, String propertyName) {
+    if (simpleParameter) {
+      return parameterObject;
+    }
+    PropertyReader reader = readers.get(propertyName);
+    if (reader == null) {
+      reader = compilable ? PropertyReader.compile(parameterObject, propertyName, configuration) : UNSUPPORTED;
+      if (reader == null) {
+        // 路径上有 null 值，无法确定后续的类型，这次先通过 MetaObject 读取
+        return configuration.newMetaObject(parameterObject).getValue(propertyName);
+      }
+      readers.put(propertyName, reader);
+    }
+    final Object value = reader == UNSUPPORTED ? PropertyReader.MISMATCH : reader.read(parameterObject);
+    if (value == PropertyReader.MISMATCH) {
+      return configuration.newMetaObject(parameterObject).getValue(propertyName);
+    }
+    return value;
+  }
+
+  /**
+   * Reads a property path with the segments resolved when it was compiled.
+   */
+  private static final class PropertyReader {
+
+    // 表示某一级的对象和编译时的类型不一致
+    static final Object MISMATCH = new Object();
+
+    private final Segment[] segments;
+
+    PropertyReader(Segment[] segments) {
+      this.segments = segments;
+    }
+
+    /**
+     * Compiles the property path against the classes of the given parameter object.
+     *
+     * @return the reader, the unsupported reader if the path needs {@link MetaObject}, or null if a value on the path
+     *         is null
+     */
+    static PropertyReader compile(Object parameterObject, String propertyName, Configuration configuration) {
+      final Segment[] segments = new Segment[countSegments(propertyName)];
+      PropertyTokenizer prop = new PropertyTokenizer(propertyName);
+      Object object = parameterObject;
+      for (int i = 0; i < segments.length; i++) {
+        if (object == null) {
+          return null;
+        }
+        if (prop.getIndex() != null || object instanceof ObjectWrapper || object instanceof Collection) {
+          return UNSUPPORTED;
+        }
+        final Segment segment;
+        if (object instanceof Map) {
+          segment = new Segment(object.getClass(), prop.getName(), null);
+        } else {
+          final Reflector reflector = configuration.getReflectorFactory().findForClass(object.getClass());
+          if (!reflector.hasGetter(prop.getName())) {
+            // 交给 MetaObject 抛出异常，保证异常信息一致
+            return UNSUPPORTED;
+          }
+          segment = new Segment(object.getClass(), prop.getName(), reflector.getGetInvoker(prop.getName()));
+        }
+        segments[i] = segment;
+        if (i < segments.length - 1) {
+          object = segment.get(object);
+          prop = new PropertyTokenizer(prop.getChildren());
+        }
+      }
+      return new PropertyReader(segments);
+    }
+
+    private static int countSegments(String propertyName) {
+      int count = 1;
+      PropertyTokenizer prop = new PropertyTokenizer(propertyName);
+      while (prop.hasNext()) {
+        prop = new PropertyTokenizer(prop.getChildren());
+        count++;
+      }
+      return count;
+    }
+
+    /**
+     * Reads the property.
+     *
+     * @return the value, or {@link #MISMATCH} if an object on the path is not of the compiled class
+     */
+    Object read(Object parameterObject) {
+      Object object = parameterObject;
+      for (Segment segment : segments) {
+        if (object == null) {
+          // 和 MetaObject 一样，中间的对象为 null 时属性值为 null
+          return null;
+        }
+        if (object.getClass() != segment.type) {
+          return MISMATCH;
+        }
+        object = segment.get(object);
+      }
+      return object;
+    }
+  }
+
+  /**
+   * One level of a property path, either a map lookup or a getter.
+   */
+  private static final class Segment {
+
+    private final Class<?> type;
+    private final String name;
+    // 为 null 时按照 Map 读取
+    private final Invoker getter;
+
+    Segment(Class<?> type, String name, Invoker getter) {
+      this.type = type;
+      this.name = name;
+      this.getter = getter;
+    }
+
+    Object get(Object object) {
+      if (getter == null) {
+        return ((Map<?, ?>) object).get(name);
+      }
+      try {
+        try {
+          return getter.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException(
+            "Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,603 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * 动态 SQL 中常用的简单表达式的编译结果，求值时直接调用属性的 getter，不需要经过 OGNL。
+ * <p>
+ * 支持的语法：属性路径（a.b.c）、null、true、false、整数、小数、字符串常量、比较（== != &lt; &gt; &lt;= &gt;=
+ * 以及 eq、neq、lt、gt、lte、gte）、and、or、not（&amp;&amp; || !）、括号，以及路径末尾的 size()、isEmpty()、length()。
+ * 其他的表达式不会被编译。求值时遇到和 OGNL 的行为可能不一致的情况（例如不同类型的值比较、访问 null 的属性）时
+ * 返回 {@link #UNSUPPORTED}，由调用方使用 OGNL 重新求值，以保证结果和错误信息与 OGNL 完全一致。
+ *
+ * @since 3.5.7
+ */
+final class CompiledExpression {
+
+  // 求值结果需要交给 OGNL 重新计算
+  static final Object UNSUPPORTED = new Object();
+
+  private static final CompiledExpression NOT_COMPILABLE = new CompiledExpression(null);
+  private static final Map<String, CompiledExpression> compiledCache = new ConcurrentHashMap<>();
+
+  // OGNL 的 Map 属性访问器会特殊处理的属性名
+  private static final Set<String> MAP_SPECIAL_PROPERTIES = new HashSet<>(
+      Arrays.asList("size", "keys", "keySet", "values", "isEmpty", "class"));
+
+  private static final Map<String, String> KEYWORD_OPERATORS = new HashMap<>();
+
+  static {
+    KEYWORD_OPERATORS.put("and", "&&");
+    KEYWORD_OPERATORS.put("or", "||");
+    KEYWORD_OPERATORS.put("not", "!");
+    KEYWORD_OPERATORS.put("eq", "==");
+    KEYWORD_OPERATORS.put("neq", "!=");
+    KEYWORD_OPERATORS.put("lt", "<");
+    KEYWORD_OPERATORS.put("gt", ">");
+    KEYWORD_OPERATORS.put("lte", "<=");
+    KEYWORD_OPERATORS.put("gte", ">=");
+  }
+
+  // 其他的 OGNL 关键字，出现时不编译
+  private static final Set<String> UNSUPPORTED_KEYWORDS = new HashSet<>(
+      Arrays.asList("in", "instanceof", "shl", "shr", "ushr", "band", "bor", "xor", "new"));
+
+  private final Node root;
+
+  private CompiledExpression(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Gets the compiled form of an expression.
+   *
+   * @param expression
+   *          the OGNL expression
+   * @return the compiled expression, or null if the expression must be evaluated by OGNL
+   */
+  static CompiledExpression compile(String expression) {
+    CompiledExpression compiled = compiledCache.get(expression);
+    if (compiled == null) {
+      Node node = new Parser(expression).parse();
+      compiled = node == null ? NOT_COMPILABLE : new CompiledExpression(node);
+      compiledCache.put(expression, compiled);
+    }
+    return compiled == NOT_COMPILABLE ? null : compiled;
+  }
+
+  /**
+   * Evaluates the expression.
+   *
+   * @param root
+   *          the root object
+   * @param reflectorFactory
+   *          the reflector factory used to find the getters
+   * @return the value, or {@link #UNSUPPORTED} if the expression must be evaluated by OGNL
+   */
+  Object getValue(Object root, ReflectorFactory reflectorFactory) {
+    return this.root.eval(root, reflectorFactory);
+  }
+
+  @FunctionalInterface
+  private interface Node {
+    Object eval(Object root, ReflectorFactory reflectorFactory);
+  }
+
+  private static boolean isBooleanOrNull(Object value) {
+    return value == null || value instanceof Boolean;
+  }
+
+  private static boolean isTrue(Object value) {
+    return value != null && (Boolean) value;
+  }
+
+  private static Node or(Node left, Node right) {
+    return (root, reflectorFactory) -> {
+      Object value = left.eval(root, reflectorFactory);
+      if (value == UNSUPPORTED || !isBooleanOrNull(value)) {
+        return UNSUPPORTED;
+      }
+      if (isTrue(value)) {
+        return value;
+      }
+      value = right.eval(root, reflectorFactory);
+      return isBooleanOrNull(value) ? value : UNSUPPORTED;
+    };
+  }
+
+  private static Node and(Node left, Node right) {
+    return (root, reflectorFactory) -> {
+      Object value = left.eval(root, reflectorFactory);
+      if (value == UNSUPPORTED || !isBooleanOrNull(value)) {
+        return UNSUPPORTED;
+      }
+      if (!isTrue(value)) {
+        return value;
+      }
+      value = right.eval(root, reflectorFactory);
+      return isBooleanOrNull(value) ? value : UNSUPPORTED;
+    };
+  }
+
+  private static Node not(Node operand) {
+    return (root, reflectorFactory) -> {
+      Object value = operand.eval(root, reflectorFactory);
+      if (value == UNSUPPORTED || !isBooleanOrNull(value)) {
+        return UNSUPPORTED;
+      }
+      return isTrue(value) ? Boolean.FALSE : Boolean.TRUE;
+    };
+  }
+
+  private static Node compare(String operator, Node left, Node right) {
+    return (root, reflectorFactory) -> {
+      Object leftValue = left.eval(root, reflectorFactory);
+      if (leftValue == UNSUPPORTED) {
+        return UNSUPPORTED;
+      }
+      Object rightValue = right.eval(root, reflectorFactory);
+      if (rightValue == UNSUPPORTED) {
+        return UNSUPPORTED;
+      }
+      boolean equality = "==".equals(operator) || "!=".equals(operator);
+      if (leftValue == null || rightValue == null) {
+        if (!equality) {
+          return UNSUPPORTED;
+        }
+        return (leftValue == rightValue) == "==".equals(operator);
+      }
+      Integer result = compareValues(leftValue, rightValue);
+      if (result == null) {
+        return UNSUPPORTED;
+      }
+      switch (operator) {
+        case "==":
+          return result == 0;
+        case "!=":
+          return result != 0;
+        case "<":
+          return result < 0;
+        case "<=":
+          return result <= 0;
+        case ">":
+          return result > 0;
+        default:
+          return result >= 0;
+      }
+    };
+  }
+
+  /**
+   * 和 OGNL 的 compareWithConversion 结果一致的比较，不支持的组合返回 null
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Integer compareValues(Object left, Object right) {
+    if (left instanceof Number && right instanceof Number) {
+      if (!isStandardNumber(left) || !isStandardNumber(right)) {
+        return null;
+      }
+      if (isIntegral(left) && isIntegral(right)) {
+        return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+      }
+      if (left instanceof BigDecimal || right instanceof BigDecimal || left instanceof BigInteger
+          || right instanceof BigInteger) {
+        return new BigDecimal(String.valueOf(left)).compareTo(new BigDecimal(String.valueOf(right)));
+      }
+      double leftDouble = ((Number) left).doubleValue();
+      double rightDouble = ((Number) right).doubleValue();
+      return leftDouble == rightDouble ? 0 : leftDouble < rightDouble ? -1 : 1;
+    }
+    if ((left instanceof String && right instanceof String) || (left instanceof Boolean && right instanceof Boolean)) {
+      return ((Comparable) left).compareTo(right);
+    }
+    if (left instanceof Enum && right instanceof Enum
+        && ((Enum<?>) left).getDeclaringClass() == ((Enum<?>) right).getDeclaringClass()) {
+      return ((Enum) left).compareTo(right);
+    }
+    return null;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  private static boolean isStandardNumber(Object value) {
+    return isIntegral(value) || value instanceof Double || value instanceof Float || value instanceof BigDecimal
+        || value instanceof BigInteger;
+  }
+
+  private static Node literal(Object value) {
+    return (root, reflectorFactory) -> value;
+  }
+
+  /**
+   * 属性路径，每一段都缓存上一次访问的类型和对应的 getter
+   */
+  private static Node path(List<String> names, String method) {
+    Segment[] segments = new Segment[names.size()];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(names.get(i));
+    }
+    return (root, reflectorFactory) -> {
+      Object value = root;
+      try {
+        for (Segment segment : segments) {
+          if (value == null) {
+            return UNSUPPORTED;
+          }
+          value = segment.get(value, reflectorFactory);
+          if (value == UNSUPPORTED) {
+            return UNSUPPORTED;
+          }
+        }
+        return method == null ? value : invoke(value, method);
+      } catch (RuntimeException e) {
+        // 由 OGNL 重新求值，抛出和原来一样的异常
+        return UNSUPPORTED;
+      }
+    };
+  }
+
+  private static Object invoke(Object target, String method) {
+    if ("size".equals(method)) {
+      if (target instanceof Collection) {
+        return ((Collection<?>) target).size();
+      } else if (target instanceof Map) {
+        return ((Map<?, ?>) target).size();
+      }
+    } else if ("isEmpty".equals(method)) {
+      if (target instanceof Collection) {
+        return ((Collection<?>) target).isEmpty();
+      } else if (target instanceof Map) {
+        return ((Map<?, ?>) target).isEmpty();
+      } else if (target instanceof String) {
+        return ((String) target).isEmpty();
+      }
+    } else if ("length".equals(method) && target instanceof String) {
+      return ((String) target).length();
+    }
+    return UNSUPPORTED;
+  }
+
+  private static final class Segment {
+    private final String name;
+    // 最近一次访问的类型和 getter，以及查找 getter 所用的 ReflectorFactory
+    private volatile Accessor accessor;
+
+    Segment(String name) {
+      this.name = name;
+    }
+
+    Object get(Object target, ReflectorFactory reflectorFactory) {
+      if (target instanceof DynamicContext.ContextMap) {
+        // 和 DynamicContext.ContextAccessor 的逻辑相同
+        Map<String, Object> map = (DynamicContext.ContextMap) target;
+        Object result = map.get(name);
+        if (result != null || map.containsKey(name)) {
+          return result;
+        }
+        Object parameterObject = map.get(DynamicContext.PARAMETER_OBJECT_KEY);
+        return parameterObject instanceof Map ? ((Map<?, ?>) parameterObject).get(name) : null;
+      }
+      if (target instanceof Map) {
+        return MAP_SPECIAL_PROPERTIES.contains(name) ? UNSUPPORTED : ((Map<?, ?>) target).get(name);
+      }
+      if (target instanceof Collection || target instanceof Iterator || target instanceof Enumeration
+          || target.getClass().isArray() || "class".equals(name)) {
+        return UNSUPPORTED;
+      }
+      Accessor current = accessor;
+      try {
+        if (current == null || current.type != target.getClass() || current.reflectorFactory != reflectorFactory) {
+          Reflector reflector = reflectorFactory.findForClass(target.getClass());
+          if (!reflector.hasGetter(name)) {
+            return UNSUPPORTED;
+          }
+          current = new Accessor(reflectorFactory, target.getClass(), reflector.getGetInvoker(name));
+          accessor = current;
+        }
+        return current.invoker.invoke(target, null);
+      } catch (ReflectiveOperationException e) {
+        return UNSUPPORTED;
+      }
+    }
+  }
+
+  private static final class Accessor {
+    final ReflectorFactory reflectorFactory;
+    final Class<?> type;
+    final Invoker invoker;
+
+    Accessor(ReflectorFactory reflectorFactory, Class<?> type, Invoker invoker) {
+      this.reflectorFactory = reflectorFactory;
+      this.type = type;
+      this.invoker = invoker;
+    }
+  }
+
+  /**
+   * 递归下降的语法分析，遇到不支持的语法时返回 null
+   */
+  private static final class Parser {
+    private final List<Object> tokens;
+    private int position;
+
+    Parser(String expression) {
+      this.tokens = tokenize(expression);
+    }
+
+    Node parse() {
+      if (tokens == null) {
+        return null;
+      }
+      try {
+        Node node = parseOr();
+        return position == tokens.size() ? node : null;
+      } catch (UnsupportedOperationException e) {
+        return null;
+      }
+    }
+
+    private Node parseOr() {
+      Node node = parseAnd();
+      while (accept("||")) {
+        node = or(node, parseAnd());
+      }
+      return node;
+    }
+
+    private Node parseAnd() {
+      Node node = parseComparison();
+      while (accept("&&")) {
+        node = and(node, parseComparison());
+      }
+      return node;
+    }
+
+    private Node parseComparison() {
+      Node node = parseUnary();
+      String operator = comparisonOperator();
+      if (operator != null) {
+        position++;
+        node = compare(operator, node, parseUnary());
+        if (comparisonOperator() != null) {
+          // 连续的比较涉及到 OGNL 的优先级，不编译
+          throw new UnsupportedOperationException();
+        }
+      }
+      return node;
+    }
+
+    private Node parseUnary() {
+      if (accept("!")) {
+        return not(parseUnary());
+      }
+      return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+      Object token = next();
+      if ("(".equals(token)) {
+        Node node = parseOr();
+        expect(")");
+        return node;
+      }
+      if (token instanceof Literal) {
+        return literal(((Literal) token).value);
+      }
+      if (!(token instanceof Identifier)) {
+        throw new UnsupportedOperationException();
+      }
+      List<String> names = new ArrayList<>();
+      names.add(((Identifier) token).name);
+      String method = null;
+      if ("(".equals(peek())) {
+        throw new UnsupportedOperationException();
+      }
+      while (accept(".")) {
+        Object name = next();
+        if (!(name instanceof Identifier)) {
+          throw new UnsupportedOperationException();
+        }
+        if (accept("(")) {
+          expect(")");
+          method = ((Identifier) name).name;
+          if (".".equals(peek()) || "(".equals(peek())) {
+            throw new UnsupportedOperationException();
+          }
+          break;
+        }
+        names.add(((Identifier) name).name);
+      }
+      return path(names, method);
+    }
+
+    private String comparisonOperator() {
+      Object token = peek();
+      if ("==".equals(token) || "!=".equals(token) || "<".equals(token) || "<=".equals(token) || ">".equals(token)
+          || ">=".equals(token)) {
+        return (String) token;
+      }
+      return null;
+    }
+
+    private Object peek() {
+      return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private Object next() {
+      if (position >= tokens.size()) {
+        throw new UnsupportedOperationException();
+      }
+      return tokens.get(position++);
+    }
+
+    private boolean accept(String operator) {
+      if (operator.equals(peek())) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String operator) {
+      if (!accept(operator)) {
+        throw new UnsupportedOperationException();
+      }
+    }
+
+    /**
+     * 把表达式拆分为运算符（String）、{@link Identifier} 和 {@link Literal}，遇到不支持的字符时返回 null
+     */
+    private static List<Object> tokenize(String expression) {
+      List<Object> tokens = new ArrayList<>();
+      int length = expression.length();
+      int i = 0;
+      while (i < length) {
+        char c = expression.charAt(i);
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (Character.isJavaIdentifierStart(c)) {
+          int start = i;
+          while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+            i++;
+          }
+          String word = expression.substring(start, i);
+          if (KEYWORD_OPERATORS.containsKey(word)) {
+            tokens.add(KEYWORD_OPERATORS.get(word));
+          } else if (UNSUPPORTED_KEYWORDS.contains(word)) {
+            return null;
+          } else if ("null".equals(word)) {
+            tokens.add(new Literal(null));
+          } else if ("true".equals(word) || "false".equals(word)) {
+            tokens.add(new Literal(Boolean.valueOf(word)));
+          } else {
+            tokens.add(new Identifier(word));
+          }
+        } else if (c >= '0' && c <= '9') {
+          int start = i;
+          while (i < length && Character.isDigit(expression.charAt(i))) {
+            i++;
+          }
+          boolean decimal = i + 1 < length && expression.charAt(i) == '.' && Character.isDigit(expression.charAt(i + 1));
+          if (decimal) {
+            i++;
+            while (i < length && Character.isDigit(expression.charAt(i))) {
+              i++;
+            }
+          }
+          // 八进制、十六进制、带后缀以及指数形式的数字不编译
+          if ((i < length && Character.isLetterOrDigit(expression.charAt(i)))
+              || (expression.charAt(start) == '0' && i - start > 1 && expression.charAt(start + 1) != '.')) {
+            return null;
+          }
+          String number = expression.substring(start, i);
+          if (decimal) {
+            tokens.add(new Literal(Double.valueOf(number)));
+          } else {
+            try {
+              tokens.add(new Literal(Integer.valueOf(number)));
+            } catch (NumberFormatException e) {
+              return null;
+            }
+          }
+        } else if (c == '\'' || c == '"') {
+          int end = expression.indexOf(c, i + 1);
+          if (end < 0) {
+            return null;
+          }
+          String value = expression.substring(i + 1, end);
+          // 带转义的字符串以及单引号的单个字符（OGNL 中是 Character）不编译
+          if (value.indexOf('\\') >= 0 || (c == '\'' && value.length() == 1)) {
+            return null;
+          }
+          tokens.add(new Literal(value));
+          i = end + 1;
+        } else {
+          String operator = operator(expression, i);
+          if (operator == null) {
+            return null;
+          }
+          tokens.add(operator);
+          i += operator.length();
+        }
+      }
+      return tokens;
+    }
+
+    private static String operator(String expression, int i) {
+      String two = i + 1 < expression.length() ? expression.substring(i, i + 2) : "";
+      switch (two) {
+        case "==":
+        case "!=":
+        case "<=":
+        case ">=":
+        case "&&":
+        case "||":
+          return two;
+        default:
+          break;
+      }
+      char c = expression.charAt(i);
+      switch (c) {
+        case '<':
+        case '>':
+        case '!':
+        case '(':
+        case ')':
+        case '.':
+          return String.valueOf(c);
+        default:
+          return null;
+      }
+    }
+  }
+
+  private static final class Identifier {
+    final String name;
+
+    Identifier(String name) {
+      this.name = name;
+    }
+  }
+
+  private static final class Literal {
+    final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+  }
+
+}
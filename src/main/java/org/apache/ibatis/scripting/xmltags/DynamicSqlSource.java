@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,9 +15,19 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -29,6 +39,8 @@ public class DynamicSqlSource implements SqlSource {
   private final Configuration configuration;
   // 根节点的 SqlNode
   private final SqlNode rootSqlNode;
+  // 解析结果的缓存，动态节点生成相同的 SQL 时不再重新解析 #{}
+  private final Map<PlanKey, Plan> planCache = new ConcurrentHashMap<>();
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
@@ -40,10 +52,8 @@ public class DynamicSqlSource implements SqlSource {
     // 构建动态上下文
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     rootSqlNode.apply(context);
-    // 替换 SQL 中的 #{}，并构建对应的 ParameterMapping，生成最终的 StaticSqlSource
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    SqlSource sqlSource = getSqlSource(context, parameterType);
     // 得到 BoundSql
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     // 由于可能包含动态节点，所以要将动态节点生成的变量添加到 BoundSql 的附加参数上
@@ -52,4 +62,118 @@ public class DynamicSqlSource implements SqlSource {
     return boundSql;
   }
 
+  private SqlSource getSqlSource(DynamicContext context, Class<?> parameterType) {
+    int planCacheSize = configuration.getDynamicSqlPlanCacheSize();
+    if (planCacheSize <= 0) {
+      return parse(context, parameterType);
+    }
+    PlanKey key = new PlanKey(context.getSql(), parameterType, context.getBindings());
+    Plan plan = planCache.get(key);
+    if (plan != null && plan.matches(configuration, context.getBindings())) {
+      return plan.sqlSource;
+    }
+    SqlSource sqlSource = parse(context, parameterType);
+    // 缓存满了以后不再缓存新的解析结果
+    if (plan == null && planCache.size() < planCacheSize) {
+      planCache.putIfAbsent(key, new Plan(configuration, sqlSource, context.getBindings()));
+    }
+    return sqlSource;
+  }
+
+  private SqlSource parse(DynamicContext context, Class<?> parameterType) {
+    // 替换 SQL 中的 #{}，并构建对应的 ParameterMapping，生成最终的 StaticSqlSource
+    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+    return sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+  }
+
+  /**
+   * 缓存的解析结果。
+   * <p>
+   * 附加参数的嵌套属性（例如 foreach 中的 #{row.v}）的类型是根据运行时的值解析的，比如 Map 中的值，
+   * 所以要记录解析时这些值的类型，只有类型相同时才能重用
+   */
+  private static final class Plan {
+    private final SqlSource sqlSource;
+    // 根据运行时的值解析类型的属性
+    private final String[] properties;
+    // 解析时这些属性的值的类型
+    private final Class<?>[] valueTypes;
+
+    Plan(Configuration configuration, SqlSource sqlSource, Map<String, Object> bindings) {
+      this.sqlSource = sqlSource;
+      List<String> nestedProperties = new ArrayList<>();
+      for (ParameterMapping parameterMapping : sqlSource.getBoundSql(null).getParameterMappings()) {
+        String property = parameterMapping.getProperty();
+        if (isNestedBinding(property, bindings)) {
+          nestedProperties.add(property);
+        }
+      }
+      this.properties = nestedProperties.toArray(new String[0]);
+      this.valueTypes = valueTypes(configuration, properties, bindings);
+    }
+
+    boolean matches(Configuration configuration, Map<String, Object> bindings) {
+      return properties.length == 0 || Arrays.equals(valueTypes, valueTypes(configuration, properties, bindings));
+    }
+
+    private static boolean isNestedBinding(String property, Map<String, Object> bindings) {
+      if (property == null) {
+        return false;
+      }
+      int end = 0;
+      while (end < property.length() && property.charAt(end) != '.' && property.charAt(end) != '[') {
+        end++;
+      }
+      return end < property.length() && bindings.containsKey(property.substring(0, end));
+    }
+
+    private static Class<?>[] valueTypes(Configuration configuration, String[] properties, Map<String, Object> bindings) {
+      Class<?>[] types = new Class<?>[properties.length];
+      if (properties.length > 0) {
+        MetaObject metaBindings = configuration.newMetaObject(bindings);
+        for (int i = 0; i < properties.length; i++) {
+          Object value = metaBindings.getValue(properties[i]);
+          types[i] = value == null ? null : value.getClass();
+        }
+      }
+      return types;
+    }
+  }
+
+  /**
+   * 解析结果的缓存键。ParameterMapping 的类型取决于参数类型和附加参数的类型，所以它们也是键的一部分
+   */
+  private static final class PlanKey {
+    private final String sql;
+    private final Class<?> parameterType;
+    private final Map<String, Class<?>> bindingTypes;
+    private final int hashCode;
+
+    PlanKey(String sql, Class<?> parameterType, Map<String, Object> bindings) {
+      this.sql = sql;
+      this.parameterType = parameterType;
+      this.bindingTypes = new HashMap<>();
+      bindings.forEach((name, value) -> bindingTypes.put(name, value == null ? null : value.getClass()));
+      this.hashCode = Objects.hash(sql, parameterType, bindingTypes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PlanKey)) {
+        return false;
+      }
+      PlanKey other = (PlanKey) o;
+      return hashCode == other.hashCode && sql.equals(other.sql) && parameterType == other.parameterType
+          && bindingTypes.equals(other.bindingTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,14 +22,35 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.session.Configuration;
 
 /**
  * @author Clinton Begin
  */
 public class ExpressionEvaluator {
 
+  // 为 null 时所有的表达式都使用 OGNL 求值
+  private final ReflectorFactory reflectorFactory;
+
+  public ExpressionEvaluator() {
+    this.reflectorFactory = null;
+  }
+
+  /**
+   * Creates an evaluator that uses compiled expressions when they are enabled by the configuration.
+   *
+   * @param configuration
+   *          the configuration
+   * @since 3.5.7
+   * @see Configuration#setCompiledExpressionsEnabled(boolean)
+   */
+  public ExpressionEvaluator(Configuration configuration) {
+    this.reflectorFactory = configuration.isCompiledExpressionsEnabled() ? configuration.getReflectorFactory() : null;
+  }
+
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = getValue(expression, parameterObject);
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -40,7 +61,7 @@ public class ExpressionEvaluator {
   }
 
   public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = getValue(expression, parameterObject);
     if (value == null) {
       throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
     }
@@ -65,4 +86,20 @@ public class ExpressionEvaluator {
     throw new BuilderException("Error evaluating expression '" + expression + "'.  Return value (" + value + ") was not iterable.");
   }
 
+  /**
+   * 启用了编译表达式时，简单的表达式使用编译后的结果求值，其他的表达式以及编译后的结果无法处理的情况使用 OGNL 求值
+   */
+  private Object getValue(String expression, Object parameterObject) {
+    if (reflectorFactory != null) {
+      CompiledExpression compiled = CompiledExpression.compile(expression);
+      if (compiled != null) {
+        Object value = compiled.getValue(parameterObject, reflectorFactory);
+        if (value != CompiledExpression.UNSUPPORTED) {
+          return value;
+        }
+      }
+    }
+    return OgnlCache.getValue(expression, parameterObject);
+  }
+
 }
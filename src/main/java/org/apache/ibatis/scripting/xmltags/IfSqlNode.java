@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import org.apache.ibatis.session.Configuration;
+
 /**
  * @author Clinton Begin
  */
@@ -27,9 +29,28 @@ public class IfSqlNode implements SqlNode {
   private final SqlNode contents;
 
   public IfSqlNode(SqlNode contents, String test) {
+    this(contents, test, new ExpressionEvaluator());
+  }
+
+  /**
+   * Creates an if node that evaluates the test by the settings of the configuration.
+   *
+   * @param configuration
+   *          the configuration
+   * @param contents
+   *          the contents
+   * @param test
+   *          the test expression
+   * @since 3.5.7
+   */
+  public IfSqlNode(Configuration configuration, SqlNode contents, String test) {
+    this(contents, test, new ExpressionEvaluator(configuration));
+  }
+
+  private IfSqlNode(SqlNode contents, String test, ExpressionEvaluator evaluator) {
     this.test = test;
     this.contents = contents;
-    this.evaluator = new ExpressionEvaluator();
+    this.evaluator = evaluator;
   }
 
   @Override
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -25,6 +25,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -38,13 +44,17 @@ import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ParallelBatchExecutor;
 import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.executor.SimpleExecutor;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -52,10 +62,13 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.CompiledRowMapper;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.AdaptiveFetchSize;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.executor.statement.StreamingHint;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -73,6 +86,8 @@ import org.apache.ibatis.mapping.ParameterMap;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.apache.ibatis.metrics.InMemoryStatementMetrics;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -81,10 +96,14 @@ import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.DefaultInvokerFactory;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+import org.apache.ibatis.reflection.invoker.MethodHandleInvokerFactory;
 import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
+import org.apache.ibatis.scripting.defaults.ParameterBinder;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
@@ -117,6 +136,20 @@ public class Configuration {
   // 当没有一个属性成功映射时返回空实例
   protected boolean returnInstanceForEmptyRow;
   protected boolean shrinkWhitespacesInSql;
+  // 每个动态 SQL 最多缓存多少个解析结果，0 表示不缓存
+  protected int dynamicSqlPlanCacheSize;
+  // 是否使用编译后的表达式计算动态 SQL 中的简单表达式
+  protected boolean compiledExpressionsEnabled;
+  // 是否为简单的结果映射编译行映射器
+  protected boolean compiledRowMappersEnabled;
+  // 最多缓存多少个编译好的行映射器（结果映射和列布局的组合）
+  protected int compiledRowMapperCacheSize = 1024;
+  // 是否为参数对象编译参数绑定器
+  protected boolean compiledParameterBindersEnabled;
+  // 语句级别的指标监听器，为 null 时不收集指标
+  protected StatementMetricsListener statementMetricsListener;
+  // 批量执行器是否对交替执行的 INSERT 语句进行分组
+  protected boolean batchReorderingEnabled;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -127,6 +160,30 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  // 批量执行时每条语句最多缓存多少次调用，超过后自动刷新，null 表示不限制
+  protected Integer defaultBatchSize;
+  // 批量执行时最多缓存多少字节的参数（估算值），超过后自动刷新，0 表示不限制
+  protected long maxBatchBufferedBytes;
+  // 批量执行完成后，BatchResult 中是否保留请求参数对象
+  protected boolean retainBatchParameterObjects = true;
+  // 批量执行时是否将 INSERT 语句改写为多行插入
+  protected boolean multiRowInsertEnabled;
+  // 改写的多行插入语句最多包含多少个参数
+  protected int maxParametersPerStatement = 2000;
+  // 并行批量执行时最多使用多少个线程（连接）
+  protected int parallelBatchThreads = 4;
+  // 并行批量执行时各个连接的提交方式
+  protected ParallelBatchCommitMode parallelBatchCommitMode = ParallelBatchCommitMode.PER_CONNECTION;
+  // 并行批量执行的工作线程池，第一次并行刷新时创建，所有会话共享
+  protected volatile ThreadPoolExecutor parallelBatchWorkers;
+  // 批量加载嵌套查询时，每次查询最多包含多少个父对象的 column 值
+  protected int nestedSelectBatchSize = 100;
+  // 流式查询时，一次读取的数据量（字节，估算值）
+  protected int streamingFetchBufferSize = 1024 * 1024;
+  // 执行异步映射方法以及 Publisher 读取数据的线程池，为 null 时使用内置的线程池
+  protected java.util.concurrent.Executor asyncExecutor;
+  // 没有配置 asyncExecutor 时使用的线程池，第一次使用时创建
+  protected volatile ThreadPoolExecutor defaultAsyncExecutor;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -196,6 +253,16 @@ public class Configuration {
   // 用来存储跨 namespace 的缓存共享设置
   protected final Map<String, String> cacheRefMap = new HashMap<>();
 
+  // 编译好的行映射器，key 为结果映射编号和列布局
+  protected final Map<String, CompiledRowMapper> compiledRowMappers = new ConcurrentHashMap<>();
+  // 编译好的参数绑定器，key 为语句编号和参数类型
+  protected final Map<String, Map<Class<?>, ParameterBinder>> parameterBinders = new ConcurrentHashMap<>();
+
+  // 流式查询的驱动提示，key 为 databaseId
+  protected final Map<String, StreamingHint> streamingHints = new ConcurrentHashMap<>();
+  // 流式查询的 fetch size 统计，key 为语句编号
+  protected final Map<String, AdaptiveFetchSize> adaptiveFetchSizes = new ConcurrentHashMap<>();
+
   public Configuration(Environment environment) {
     this();
     this.environment = environment;
@@ -211,6 +278,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT", ConcurrentCache.class);
+    typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
@@ -232,10 +301,16 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("REFLECTION", DefaultInvokerFactory.class);
+    typeAliasRegistry.registerAlias("METHOD_HANDLE", MethodHandleInvokerFactory.class);
+
     // 设置默认的语言驱动
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     // 注册语言驱动
     languageRegistry.register(RawLanguageDriver.class);
+
+    // 内置的流式查询驱动提示，其他数据库使用 StreamingHint.DEFAULT
+    streamingHints.put("mysql", StreamingHint.MYSQL);
   }
 
   public String getLogPrefix() {
@@ -321,6 +396,244 @@ public class Configuration {
     this.shrinkWhitespacesInSql = shrinkWhitespacesInSql;
   }
 
+  /**
+   * Gets the maximum number of parsed SQL plans cached by each dynamic SQL source.
+   *
+   * @return the cache size, 0 if plans are not cached
+   * @since 3.5.7
+   */
+  public int getDynamicSqlPlanCacheSize() {
+    return dynamicSqlPlanCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of parsed SQL plans cached by each dynamic SQL source. A plan is the SQL with
+   * <code>#{}</code> replaced and its parameter mappings, reused when the dynamic nodes generate the same SQL again.
+   *
+   * @param dynamicSqlPlanCacheSize
+   *          the cache size, 0 (default) to disable the cache
+   * @since 3.5.7
+   */
+  public void setDynamicSqlPlanCacheSize(int dynamicSqlPlanCacheSize) {
+    this.dynamicSqlPlanCacheSize = dynamicSqlPlanCacheSize;
+  }
+
+  /**
+   * Gets whether simple expressions of dynamic SQL are evaluated by compiled expressions.
+   *
+   * @return true if compiled expressions are used
+   * @since 3.5.7
+   */
+  public boolean isCompiledExpressionsEnabled() {
+    return compiledExpressionsEnabled;
+  }
+
+  /**
+   * Sets whether simple expressions of dynamic SQL (property paths, literals, comparisons and boolean operators) are
+   * evaluated by compiled expressions that call the getters directly. Other expressions, and values a compiled
+   * expression cannot handle the same way as OGNL, are always evaluated by OGNL.
+   *
+   * @param compiledExpressionsEnabled
+   *          true to use compiled expressions, false (default) to evaluate every expression by OGNL
+   * @since 3.5.7
+   */
+  public void setCompiledExpressionsEnabled(boolean compiledExpressionsEnabled) {
+    this.compiledExpressionsEnabled = compiledExpressionsEnabled;
+  }
+
+  /**
+   * Gets whether flat result maps are mapped by compiled row mappers.
+   *
+   * @return true if compiled row mappers are used
+   * @since 3.5.7
+   */
+  public boolean isCompiledRowMappersEnabled() {
+    return compiledRowMappersEnabled;
+  }
+
+  /**
+   * Sets whether flat result maps are mapped by compiled row mappers. A compiled row mapper is resolved once per
+   * result map and column layout and reads the columns by index, result maps with discriminators, constructor
+   * mappings or nested mappings always use the generic mapping.
+   *
+   * @param compiledRowMappersEnabled
+   *          true to use compiled row mappers, false (default) to use the generic mapping
+   * @since 3.5.7
+   * @see CompiledRowMapper
+   */
+  public void setCompiledRowMappersEnabled(boolean compiledRowMappersEnabled) {
+    this.compiledRowMappersEnabled = compiledRowMappersEnabled;
+  }
+
+  /**
+   * Gets the maximum number of compiled row mappers kept by this configuration.
+   *
+   * @return the cache size
+   * @since 3.5.7
+   */
+  public int getCompiledRowMapperCacheSize() {
+    return compiledRowMapperCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of compiled row mappers kept by this configuration. There is one per result map and
+   * column layout, so ad-hoc SQL with varying projections would otherwise grow the cache without limit. Once the cache
+   * is full, new layouts use the generic mapping.
+   *
+   * @param compiledRowMapperCacheSize
+   *          the cache size, 1024 by default
+   * @since 3.5.7
+   */
+  public void setCompiledRowMapperCacheSize(int compiledRowMapperCacheSize) {
+    this.compiledRowMapperCacheSize = compiledRowMapperCacheSize;
+  }
+
+  /**
+   * Gets whether the parameters are bound by compiled parameter binders.
+   *
+   * @return true if compiled parameter binders are used
+   * @since 3.5.7
+   */
+  public boolean isCompiledParameterBindersEnabled() {
+    return compiledParameterBindersEnabled;
+  }
+
+  /**
+   * Sets whether the parameters are bound by compiled parameter binders. A compiled parameter binder is resolved once
+   * per mapped statement and parameter class and reads the placeholder properties through cached getters instead of
+   * a new {@code MetaObject} on every execution.
+   *
+   * @param compiledParameterBindersEnabled
+   *          true to use compiled parameter binders, false (default) to read the properties through {@code MetaObject}
+   * @since 3.5.7
+   * @see ParameterBinder
+   */
+  public void setCompiledParameterBindersEnabled(boolean compiledParameterBindersEnabled) {
+    this.compiledParameterBindersEnabled = compiledParameterBindersEnabled;
+  }
+
+  /**
+   * Gets the listener that statement execution metrics are reported to.
+   *
+   * @return the listener, or null if no metrics are collected
+   * @since 3.5.7
+   */
+  public StatementMetricsListener getStatementMetricsListener() {
+    return statementMetricsListener;
+  }
+
+  /**
+   * Sets the listener that statement execution metrics are reported to. The executors report the time of each phase of
+   * a statement execution, the processed rows and the cache lookups per mapped statement id.
+   *
+   * @param statementMetricsListener
+   *          the listener, null (default) to not collect any metrics
+   * @since 3.5.7
+   * @see InMemoryStatementMetrics
+   */
+  public void setStatementMetricsListener(StatementMetricsListener statementMetricsListener) {
+    this.statementMetricsListener = statementMetricsListener;
+  }
+
+  /**
+   * Gets whether the batch executor groups interleaved insert statements.
+   *
+   * @return true if interleaved inserts are grouped
+   * @since 3.5.7
+   */
+  public boolean isBatchReorderingEnabled() {
+    return batchReorderingEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor groups interleaved insert statements. When enabled, an insert joins the open
+   * statement of the same mapped statement and SQL instead of opening a new one, and the statements are executed in
+   * the order they were first opened. Any other statement is a barrier that later inserts are never moved across.
+   * <p>
+   * The executor does not know about foreign keys, so the order is only safe if the first insert into each table comes
+   * after the first insert into every table it references. For example, a child row, a parent row and then a child of
+   * that parent are executed as both child rows followed by the parent row. Insert a parent first, or flush in between,
+   * when the rows of a table reference rows that are inserted later.
+   *
+   * @param batchReorderingEnabled
+   *          true to group interleaved inserts, false (default) to only reuse the previous statement
+   * @since 3.5.7
+   */
+  public void setBatchReorderingEnabled(boolean batchReorderingEnabled) {
+    this.batchReorderingEnabled = batchReorderingEnabled;
+  }
+
+  /**
+   * Gets the compiled row mappers keyed by result map id and column layout.
+   *
+   * @return the compiled row mappers
+   * @since 3.5.7
+   */
+  public Map<String, CompiledRowMapper> getCompiledRowMappers() {
+    return compiledRowMappers;
+  }
+
+  /**
+   * Gets the parameter binder of a mapped statement and a parameter class, compiling it on first use.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param parameterType
+   *          the class of the parameter object
+   * @return the parameter binder
+   * @since 3.5.7
+   */
+  public ParameterBinder getParameterBinder(MappedStatement ms, Class<?> parameterType) {
+    // 先不加锁地查找，命中时不需要进入 computeIfAbsent
+    Map<Class<?>, ParameterBinder> binders = parameterBinders.get(ms.getId());
+    if (binders == null) {
+      binders = parameterBinders.computeIfAbsent(ms.getId(), k -> new ConcurrentHashMap<>());
+    }
+    ParameterBinder binder = binders.get(parameterType);
+    if (binder == null) {
+      binder = binders.computeIfAbsent(parameterType, k -> ParameterBinder.compile(k, this));
+    }
+    return binder;
+  }
+
+  /**
+   * Registers the hint applied to the statements in streaming mode when the database id is the given one.
+   *
+   * @param databaseId
+   *          the database id provided by the {@link org.apache.ibatis.mapping.DatabaseIdProvider}
+   * @param streamingHint
+   *          the streaming hint
+   * @since 3.5.7
+   */
+  public void addStreamingHint(String databaseId, StreamingHint streamingHint) {
+    streamingHints.put(databaseId, streamingHint);
+  }
+
+  /**
+   * Gets the hint applied to the statements in streaming mode.
+   *
+   * @param databaseId
+   *          the database id, may be null
+   * @return the hint registered for the database id, or {@link StreamingHint#DEFAULT}
+   * @since 3.5.7
+   */
+  public StreamingHint getStreamingHint(String databaseId) {
+    StreamingHint streamingHint = databaseId == null ? null : streamingHints.get(databaseId);
+    return streamingHint == null ? StreamingHint.DEFAULT : streamingHint;
+  }
+
+  /**
+   * Gets the fetch size statistics of a statement in streaming mode.
+   *
+   * @param statementId
+   *          the id of the mapped statement
+   * @return the statistics, created on first use
+   * @since 3.5.7
+   */
+  public AdaptiveFetchSize getAdaptiveFetchSize(String statementId) {
+    return adaptiveFetchSizes.computeIfAbsent(statementId, k -> new AdaptiveFetchSize());
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -502,6 +815,301 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * Gets the default batch size.
+   *
+   * @return the default batch size, null if batches are only flushed explicitly
+   * @since 3.5.7
+   */
+  public Integer getDefaultBatchSize() {
+    return defaultBatchSize;
+  }
+
+  /**
+   * Sets the default batch size. The batch executor flushes all buffered statements once a statement has buffered
+   * this many calls, a statement can override it with its own <code>batchSize</code>.
+   *
+   * @param defaultBatchSize
+   *          the new default batch size, null (default) to flush only on commit, query or explicit flush
+   * @since 3.5.7
+   */
+  public void setDefaultBatchSize(Integer defaultBatchSize) {
+    this.defaultBatchSize = defaultBatchSize;
+  }
+
+  /**
+   * Gets the maximum estimated size of the parameters buffered by the batch executor.
+   *
+   * @return the maximum size in bytes, 0 if not limited
+   * @since 3.5.7
+   */
+  public long getMaxBatchBufferedBytes() {
+    return maxBatchBufferedBytes;
+  }
+
+  /**
+   * Sets the maximum estimated size of the parameters buffered by the batch executor. The size is estimated from the
+   * bound parameter values, the batch executor flushes all buffered statements once it is exceeded.
+   *
+   * @param maxBatchBufferedBytes
+   *          the maximum size in bytes, 0 (default) to not limit it
+   * @since 3.5.7
+   */
+  public void setMaxBatchBufferedBytes(long maxBatchBufferedBytes) {
+    this.maxBatchBufferedBytes = maxBatchBufferedBytes;
+  }
+
+  /**
+   * Gets whether the batch results keep the parameter objects after the statements are executed.
+   *
+   * @return true if the parameter objects are kept
+   * @since 3.5.7
+   */
+  public boolean isRetainBatchParameterObjects() {
+    return retainBatchParameterObjects;
+  }
+
+  /**
+   * Sets whether the batch results keep the parameter objects after the statements are executed. When disabled, the
+   * parameter objects are released once the update counts and generated keys are collected, so only the update
+   * counts of automatically flushed batches stay in memory.
+   *
+   * @param retainBatchParameterObjects
+   *          true (default) to keep the parameter objects
+   * @since 3.5.7
+   */
+  public void setRetainBatchParameterObjects(boolean retainBatchParameterObjects) {
+    this.retainBatchParameterObjects = retainBatchParameterObjects;
+  }
+
+  /**
+   * Gets whether the batch executor rewrites simple insert statements into multi-row inserts.
+   *
+   * @return true if inserts are rewritten
+   * @since 3.5.7
+   */
+  public boolean isMultiRowInsertEnabled() {
+    return multiRowInsertEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor rewrites simple insert statements into multi-row inserts. An insert whose SQL ends
+   * with a single <code>VALUES (...)</code> holding all its parameters is executed as
+   * <code>VALUES (...), (...)</code> statements instead of one JDBC batch entry per call.
+   *
+   * @param multiRowInsertEnabled
+   *          true to rewrite inserts, false (default) to use JDBC batches
+   * @since 3.5.7
+   * @see #setMaxParametersPerStatement(int)
+   */
+  public void setMultiRowInsertEnabled(boolean multiRowInsertEnabled) {
+    this.multiRowInsertEnabled = multiRowInsertEnabled;
+  }
+
+  /**
+   * Gets the maximum number of parameters of a rewritten multi-row insert.
+   *
+   * @return the maximum number of parameters
+   * @since 3.5.7
+   */
+  public int getMaxParametersPerStatement() {
+    return maxParametersPerStatement;
+  }
+
+  /**
+   * Sets the maximum number of parameters of a rewritten multi-row insert, a statement holds at least one row.
+   *
+   * @param maxParametersPerStatement
+   *          the maximum number of parameters, 2000 by default
+   * @since 3.5.7
+   */
+  public void setMaxParametersPerStatement(int maxParametersPerStatement) {
+    this.maxParametersPerStatement = maxParametersPerStatement;
+  }
+
+  /**
+   * Gets the maximum number of threads, and therefore connections, used by a parallel batch flush.
+   *
+   * @return the maximum number of threads
+   * @since 3.5.7
+   */
+  public int getParallelBatchThreads() {
+    return parallelBatchThreads;
+  }
+
+  /**
+   * Sets the maximum number of threads used by {@link ExecutorType#PARALLEL_BATCH}. Each thread borrows its own
+   * connection from the data source of the environment.
+   *
+   * @param parallelBatchThreads
+   *          the maximum number of threads, 4 by default
+   * @since 3.5.7
+   */
+  public void setParallelBatchThreads(int parallelBatchThreads) {
+    this.parallelBatchThreads = parallelBatchThreads;
+    ThreadPoolExecutor workers = parallelBatchWorkers;
+    if (workers != null) {
+      // 线程池已经创建了，调整它的大小，核心线程数不能大于最大线程数
+      int threads = Math.max(1, parallelBatchThreads);
+      if (threads > workers.getMaximumPoolSize()) {
+        workers.setMaximumPoolSize(threads);
+        workers.setCorePoolSize(threads);
+      } else {
+        workers.setCorePoolSize(threads);
+        workers.setMaximumPoolSize(threads);
+      }
+    }
+  }
+
+  /**
+   * Gets the thread pool shared by the parallel batch flushes of all the sessions. It is created on first use with
+   * {@link #getParallelBatchThreads()} daemon threads, so that concurrent flushes never use more threads than that.
+   *
+   * @return the thread pool
+   * @since 3.5.7
+   */
+  public ExecutorService getParallelBatchWorkers() {
+    ThreadPoolExecutor workers = parallelBatchWorkers;
+    if (workers == null) {
+      synchronized (this) {
+        workers = parallelBatchWorkers;
+        if (workers == null) {
+          workers = newDaemonThreadPool("mybatis-parallel-batch-", parallelBatchThreads);
+          parallelBatchWorkers = workers;
+        }
+      }
+    }
+    return workers;
+  }
+
+  /**
+   * Gets how the connections of a parallel batch flush are committed.
+   *
+   * @return the commit mode
+   * @since 3.5.7
+   */
+  public ParallelBatchCommitMode getParallelBatchCommitMode() {
+    return parallelBatchCommitMode;
+  }
+
+  /**
+   * Sets how the connections of a parallel batch flush are committed.
+   *
+   * @param parallelBatchCommitMode
+   *          the commit mode, {@link ParallelBatchCommitMode#PER_CONNECTION} by default
+   * @since 3.5.7
+   */
+  public void setParallelBatchCommitMode(ParallelBatchCommitMode parallelBatchCommitMode) {
+    this.parallelBatchCommitMode = parallelBatchCommitMode;
+  }
+
+  /**
+   * Gets the maximum number of parent column values passed to a batch select of a nested query.
+   *
+   * @return the maximum number of values
+   * @since 3.5.7
+   */
+  public int getNestedSelectBatchSize() {
+    return nestedSelectBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of parent column values passed to a batch select of a nested query (see the
+   * {@code batchSelect} attribute of association and collection mappings). More parents are loaded with several queries.
+   *
+   * @param nestedSelectBatchSize
+   *          the maximum number of values, 100 by default
+   * @since 3.5.7
+   */
+  public void setNestedSelectBatchSize(int nestedSelectBatchSize) {
+    this.nestedSelectBatchSize = nestedSelectBatchSize;
+  }
+
+  /**
+   * Gets the number of bytes a statement in streaming mode should read in one round trip.
+   *
+   * @return the number of bytes
+   * @since 3.5.7
+   */
+  public int getStreamingFetchBufferSize() {
+    return streamingFetchBufferSize;
+  }
+
+  /**
+   * Sets the number of bytes a statement in streaming mode should read in one round trip. The fetch size is this size
+   * divided by the row width estimated from the result set meta data.
+   *
+   * @param streamingFetchBufferSize
+   *          the number of bytes, 1 MiB by default
+   * @since 3.5.7
+   */
+  public void setStreamingFetchBufferSize(int streamingFetchBufferSize) {
+    this.streamingFetchBufferSize = streamingFetchBufferSize;
+  }
+
+  /**
+   * Gets the executor that runs the mapper methods returning a {@code CompletableFuture} or a {@code CompletionStage},
+   * and fetches the rows of the mapper methods returning a {@link org.apache.ibatis.cursor.reactive.Publisher}.
+   *
+   * @return the executor, or null if the built-in executor is used
+   * @since 3.5.7
+   */
+  public java.util.concurrent.Executor getAsyncExecutor() {
+    return asyncExecutor;
+  }
+
+  /**
+   * Sets the executor that runs the asynchronous mapper methods. Each call is executed in its own {@link SqlSession},
+   * so it does not take part in the transaction of the session that created the mapper.
+   *
+   * @param asyncExecutor
+   *          the executor, null to use the {@link #getDefaultAsyncExecutor() built-in executor}
+   * @since 3.5.7
+   */
+  public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  /**
+   * Gets the built-in executor used when no {@link #getAsyncExecutor() async executor} is configured. It is created on
+   * first use with as many daemon threads as the maximum number of active connections of a {@link PooledDataSource}
+   * (10 for other data sources), so that pending calls wait in its queue instead of each taking a thread and a
+   * connection.
+   *
+   * @return the built-in executor
+   * @since 3.5.7
+   */
+  public java.util.concurrent.Executor getDefaultAsyncExecutor() {
+    ThreadPoolExecutor executor = defaultAsyncExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        executor = defaultAsyncExecutor;
+        if (executor == null) {
+          int threads = 10;
+          if (environment != null && environment.getDataSource() instanceof PooledDataSource) {
+            threads = ((PooledDataSource) environment.getDataSource()).getPoolMaximumActiveConnections();
+          }
+          executor = newDaemonThreadPool("mybatis-async-", threads);
+          defaultAsyncExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  // 创建固定大小的守护线程池，空闲的线程会被回收，不会一直占用资源
+  private static ThreadPoolExecutor newDaemonThreadPool(String namePrefix, int threads) {
+    final AtomicInteger threadCounter = new AtomicInteger();
+    final int size = Math.max(1, threads);
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, namePrefix + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   /**
    * Gets the default result set type.
    *
@@ -593,6 +1201,35 @@ public class Configuration {
     this.reflectorFactory = reflectorFactory;
   }
 
+  /**
+   * Gets the factory of the property invokers, only used when the reflector factory is a
+   * {@link DefaultReflectorFactory}.
+   *
+   * @return the invoker factory, or null if the reflector factory is not a {@link DefaultReflectorFactory}
+   * @since 3.5.7
+   */
+  public InvokerFactory getInvokerFactory() {
+    return reflectorFactory instanceof DefaultReflectorFactory
+        ? ((DefaultReflectorFactory) reflectorFactory).getInvokerFactory() : null;
+  }
+
+  /**
+   * Sets the factory of the property invokers. This has no effect if the reflector factory is not a
+   * {@link DefaultReflectorFactory}.
+   *
+   * @param invokerFactory
+   *          the invoker factory, null to use reflection
+   * @since 3.5.7
+   */
+  public void setInvokerFactory(InvokerFactory invokerFactory) {
+    if (invokerFactory == null) {
+      invokerFactory = new DefaultInvokerFactory();
+    }
+    if (reflectorFactory instanceof DefaultReflectorFactory) {
+      ((DefaultReflectorFactory) reflectorFactory).setInvokerFactory(invokerFactory);
+    }
+  }
+
   public ObjectFactory getObjectFactory() {
     return objectFactory;
   }
@@ -694,6 +1331,8 @@ public class Configuration {
     Executor executor;
     if (ExecutorType.BATCH == executorType) {
       executor = new BatchExecutor(this, transaction);
+    } else if (ExecutorType.PARALLEL_BATCH == executorType) {
+      executor = new ParallelBatchExecutor(this, transaction);
     } else if (ExecutorType.REUSE == executorType) {
       executor = new ReuseExecutor(this, transaction);
     } else {
@@ -853,6 +1492,29 @@ public class Configuration {
     interceptorChain.addInterceptor(interceptor);
   }
 
+  /**
+   * Gets whether the interceptors are applied through one composed proxy.
+   *
+   * @return true if the interceptors are composed
+   * @since 3.5.7
+   */
+  public boolean isComposedPluginsEnabled() {
+    return interceptorChain.isComposed();
+  }
+
+  /**
+   * Sets whether the interceptors are applied through one composed proxy per target instead of one proxy per
+   * interceptor. Interceptors that unwrap the proxies of other interceptors should keep the default.
+   *
+   * @param composedPluginsEnabled
+   *          true to compose the interceptors, false (default) to stack one proxy per interceptor
+   * @since 3.5.7
+   * @see InterceptorChain#setComposed(boolean)
+   */
+  public void setComposedPluginsEnabled(boolean composedPluginsEnabled) {
+    interceptorChain.setComposed(composedPluginsEnabled);
+  }
+
   public void addMappers(String packageName, Class<?> superType) {
     mapperRegistry.addMappers(packageName, superType);
   }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2015 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -23,5 +23,11 @@ public enum ExecutorType {
   /**
    * 简单执行器、可复用执行器、批操作执行器
    */
-  SIMPLE, REUSE, BATCH
+  SIMPLE, REUSE, BATCH,
+  /**
+   * 在多个连接上并行执行批量操作的执行器
+   *
+   * @since 3.5.7
+   */
+  PARALLEL_BATCH
 }
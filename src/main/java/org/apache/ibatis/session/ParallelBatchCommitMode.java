@@ -0,0 +1,32 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * 并行批量执行器提交事务的方式
+ *
+ * @since 3.5.7
+ */
+public enum ParallelBatchCommitMode {
+  /**
+   * 每个连接各自提交，某个连接失败时只回滚这个连接上的语句
+   */
+  PER_CONNECTION,
+  /**
+   * 所有连接都执行成功后才依次提交，任何一个连接失败时回滚所有连接。没有使用 XA，提交阶段失败时无法回滚已经提交的连接
+   */
+  ALL_OR_NOTHING
+}
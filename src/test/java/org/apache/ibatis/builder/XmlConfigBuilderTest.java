@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -50,6 +50,7 @@ import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.InMemoryStatementMetrics;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
@@ -57,6 +58,7 @@ import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.ParallelBatchCommitMode;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.EnumOrdinalTypeHandler;
@@ -101,6 +103,23 @@ class XmlConfigBuilderTest {
       assertNull(config.getConfigurationFactory());
       assertThat(config.getTypeHandlerRegistry().getTypeHandler(RoundingMode.class)).isInstanceOf(EnumTypeHandler.class);
       assertThat(config.isShrinkWhitespacesInSql()).isFalse();
+      assertThat(config.getDynamicSqlPlanCacheSize()).isZero();
+      assertThat(config.isCompiledExpressionsEnabled()).isFalse();
+      assertThat(config.isCompiledRowMappersEnabled()).isFalse();
+      assertThat(config.getCompiledRowMapperCacheSize()).isEqualTo(1024);
+      assertThat(config.isCompiledParameterBindersEnabled()).isFalse();
+      assertThat(config.isComposedPluginsEnabled()).isFalse();
+      assertThat(config.getStatementMetricsListener()).isNull();
+      assertThat(config.isBatchReorderingEnabled()).isFalse();
+      assertThat(config.getDefaultBatchSize()).isNull();
+      assertThat(config.getMaxBatchBufferedBytes()).isZero();
+      assertThat(config.isRetainBatchParameterObjects()).isTrue();
+      assertThat(config.isMultiRowInsertEnabled()).isFalse();
+      assertThat(config.getMaxParametersPerStatement()).isEqualTo(2000);
+      assertThat(config.getParallelBatchThreads()).isEqualTo(4);
+      assertThat(config.getParallelBatchCommitMode()).isEqualTo(ParallelBatchCommitMode.PER_CONNECTION);
+      assertThat(config.getNestedSelectBatchSize()).isEqualTo(100);
+      assertThat(config.getStreamingFetchBufferSize()).isEqualTo(1024 * 1024);
       assertThat(config.getDefaultSqlProviderType()).isNull();
     }
   }
@@ -197,6 +216,23 @@ class XmlConfigBuilderTest {
       assertThat(config.getVfsImpl().getName()).isEqualTo(JBoss6VFS.class.getName());
       assertThat(config.getConfigurationFactory().getName()).isEqualTo(String.class.getName());
       assertThat(config.isShrinkWhitespacesInSql()).isTrue();
+      assertThat(config.getDynamicSqlPlanCacheSize()).isEqualTo(64);
+      assertThat(config.isCompiledExpressionsEnabled()).isTrue();
+      assertThat(config.isCompiledRowMappersEnabled()).isTrue();
+      assertThat(config.getCompiledRowMapperCacheSize()).isEqualTo(256);
+      assertThat(config.isCompiledParameterBindersEnabled()).isTrue();
+      assertThat(config.isComposedPluginsEnabled()).isTrue();
+      assertThat(config.getStatementMetricsListener()).isInstanceOf(InMemoryStatementMetrics.class);
+      assertThat(config.isBatchReorderingEnabled()).isTrue();
+      assertThat(config.getDefaultBatchSize()).isEqualTo(500);
+      assertThat(config.getMaxBatchBufferedBytes()).isEqualTo(1048576L);
+      assertThat(config.isRetainBatchParameterObjects()).isFalse();
+      assertThat(config.isMultiRowInsertEnabled()).isTrue();
+      assertThat(config.getMaxParametersPerStatement()).isEqualTo(1000);
+      assertThat(config.getParallelBatchThreads()).isEqualTo(2);
+      assertThat(config.getParallelBatchCommitMode()).isEqualTo(ParallelBatchCommitMode.ALL_OR_NOTHING);
+      assertThat(config.getNestedSelectBatchSize()).isEqualTo(50);
+      assertThat(config.getStreamingFetchBufferSize()).isEqualTo(65536);
       assertThat(config.getDefaultSqlProviderType().getName()).isEqualTo(MySqlProvider.class.getName());
 
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blogauthor")).isEqualTo(Author.class);
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -16,12 +16,15 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +44,8 @@ import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -399,6 +404,65 @@ class DynamicSqlSourceTest extends BaseDataTest {
     Assertions.assertEquals("id=", sql);
   }
 
+  @Test
+  void shouldReuseCachedPlanForSameSql() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlPlanCacheSize(2);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new IfSqlNode(mixedContents(new TextSqlNode("WHERE ID = #{id}")), "id != null")));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    BoundSql second = source.getBoundSql(new Bean("2"));
+    assertEquals("SELECT * FROM BLOG WHERE ID = ?", second.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals("2", ((Bean) second.getParameterObject()).getId());
+
+    BoundSql other = source.getBoundSql(new Bean(null));
+    assertEquals("SELECT * FROM BLOG", other.getSql());
+    assertEquals(0, other.getParameterMappings().size());
+  }
+
+  @Test
+  void shouldNotShareCachedPlanBetweenDifferentBindingTypes() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlPlanCacheSize(10);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    Map<String, Object> strings = new HashMap<>();
+    strings.put("list", Arrays.asList("1", "2"));
+    Map<String, Object> integers = new HashMap<>();
+    integers.put("list", Arrays.asList(1, 2));
+    BoundSql first = source.getBoundSql(strings);
+    BoundSql second = source.getBoundSql(integers);
+    assertEquals(first.getSql(), second.getSql());
+    assertEquals(String.class, first.getParameterMappings().get(0).getJavaType());
+    assertEquals(Integer.class, second.getParameterMappings().get(0).getJavaType());
+    assertSame(second.getParameterMappings(), source.getBoundSql(integers).getParameterMappings());
+  }
+
+  @Test
+  void shouldNotReuseCachedPlanWhenNestedMapValueTypeChanges() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlPlanCacheSize(10);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new TextSqlNode("#{row.v}")), "list", null, "row", "(", ")", ",")));
+    Map<String, Object> integers = new HashMap<>();
+    integers.put("list", Collections.singletonList(Collections.singletonMap("v", 1)));
+    Map<String, Object> strings = new HashMap<>();
+    strings.put("list", Collections.singletonList(Collections.singletonMap("v", "a")));
+
+    BoundSql first = source.getBoundSql(integers);
+    assertEquals(Integer.class, first.getParameterMappings().get(0).getJavaType());
+    assertTrue(first.getParameterMappings().get(0).getTypeHandler() instanceof IntegerTypeHandler);
+    BoundSql second = source.getBoundSql(strings);
+    assertEquals(first.getSql(), second.getSql());
+    assertEquals(String.class, second.getParameterMappings().get(0).getJavaType());
+    assertTrue(second.getParameterMappings().get(0).getTypeHandler() instanceof StringTypeHandler);
+    assertSame(first.getParameterMappings(), source.getBoundSql(integers).getParameterMappings());
+  }
+
   public static class Bean {
     public String id;
     Bean(String property) {
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -86,10 +86,41 @@ class CacheKeyTest {
     assertEquals(key1, key2);
   }
 
+  @Test
+  void shouldTreatPrimitiveAndBoxedUpdatesAsEqual() {
+    CacheKey key1 = new CacheKey();
+    key1.update(1);
+    key1.update(2L);
+    key1.update("hello");
+    CacheKey key2 = new CacheKey(new Object[] { 1, 2L, "hello" });
+    assertEquals(key1, key2);
+    assertEquals(key2, key1);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+    CacheKey key3 = new CacheKey(new Object[] { 1L, 2, "hello" });
+    assertNotEquals(key1, key3);
+  }
+
+  @Test
+  void shouldKeepClonedKeysIndependent() throws Exception {
+    CacheKey key = new CacheKey(1);
+    for (int i = 0; i < 20; i++) {
+      key.update(i);
+      key.update("value" + i);
+    }
+    CacheKey cloned = key.clone();
+    assertEquals(key, cloned);
+    cloned.update(key);
+    key.update("other");
+    assertNotEquals(key, cloned);
+    assertEquals(41, cloned.getUpdateCount());
+  }
+
   @Test
   void throwExceptionWhenTryingToUpdateNullCacheKey() {
     CacheKey cacheKey = CacheKey.NULL_CACHE_KEY;
     assertThrows(CacheException.class, () -> cacheKey.update("null"));
+    assertThrows(CacheException.class, () -> cacheKey.update(1));
   }
 
   @Test
@@ -0,0 +1,239 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentCacheTest {
+
+  @Test
+  void shouldDemonstrateHowAllObjectsAreKept() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(0);
+    for (int i = 0; i < 100000; i++) {
+      cache.putObject(i, i);
+      assertEquals(i, cache.getObject(i));
+    }
+    assertEquals(100000, cache.getSize());
+  }
+
+  @Test
+  void shouldKeepSizeBoundWithTinyLfu() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(100, cache.getSize());
+    assertEquals(900, cache.getEvictionCount());
+  }
+
+  @Test
+  void shouldKeepFrequentlyUsedItemsWithTinyLfu() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(10);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, i);
+    }
+    for (int n = 0; n < 5; n++) {
+      for (int i = 0; i < 5; i++) {
+        cache.getObject(i);
+      }
+    }
+    // 扫描式的访问不会把经常使用的条目挤出去
+    for (int i = 100; i < 200; i++) {
+      cache.putObject(i, i);
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i, cache.getObject(i));
+    }
+    assertEquals(10, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveLeastRecentlyUsedItemWithSegmentedLru() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setEvictionPolicy("slru");
+    cache.setSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(5, 5);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getObject(0));
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test
+  void shouldKeepWeightBound() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(0);
+    cache.setMaximumWeight(10);
+    cache.putObject("a", Arrays.asList(1, 2, 3, 4, 5, 6));
+    cache.putObject("b", Arrays.asList(1, 2, 3, 4));
+    assertEquals(2, cache.getSize());
+    cache.putObject("c", Arrays.asList(1, 2, 3));
+    assertTrue(cache.getSize() < 3);
+  }
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject("a", null);
+    assertNull(cache.getObject("a"));
+    assertNull(cache.getObject("b"));
+    cache.putObject("b", "b");
+    assertEquals("b", cache.getObject("b"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2.0 / 3, cache.getHitRatio(), 0.0001);
+  }
+
+  @Test
+  void shouldRejectUnknownEvictionPolicy() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    assertThrows(CacheException.class, () -> cache.setEvictionPolicy("random"));
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    cache.putObject(0, 0);
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(50);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int seed = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 20000; i++) {
+            int key = (i * 31 + seed) % 500;
+            if (cache.getObject(key) == null) {
+              cache.putObject(key, key);
+            }
+            if (i % 1000 == 0) {
+              cache.removeObject(key);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(cache.getSize() <= 50, "size was " + cache.getSize());
+    cache.putObject("last", "last");
+    assertEquals("last", cache.getObject("last"));
+  }
+
+  @Test
+  void shouldCountLoggingCacheRequestsUnderConcurrentAccess() throws Exception {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject("a", "a");
+    LoggingCache logging = new LoggingCache(cache);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; i++) {
+            logging.getObject(i % 2 == 0 ? "a" : "b");
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(80000, logging.getRequestCount());
+    assertEquals(40000, logging.getHitCount());
+  }
+
+  @Test
+  void shouldReadThroughLoggingCacheWithoutItsMonitor() throws Exception {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject("a", "a");
+    LoggingCache logging = new LoggingCache(cache);
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      synchronized (logging) {
+        locked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    holder.start();
+    try {
+      locked.await();
+      assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+        assertEquals("a", logging.getObject("a"));
+        assertNull(logging.getObject("b"));
+        assertEquals(2, logging.getRequestCount());
+        assertEquals(1, logging.getHitCount());
+      });
+    } finally {
+      release.countDown();
+      holder.join();
+    }
+  }
+
+}
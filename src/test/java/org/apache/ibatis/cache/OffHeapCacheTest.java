@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.cache.impl.SerializableCacheCodec;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnCopiesOfCachedObjects() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Author author = new Author(1, "cbegin", "******", "cbegin@somewhere.com", "N/A", Section.NEWS);
+    cache.putObject("author", author);
+    Object cached = cache.getObject("author");
+    assertEquals(author, cached);
+    assertNotSame(author, cached);
+    assertNotSame(cached, cache.getObject("author"));
+  }
+
+  @Test
+  void shouldRoundTripValuesAndCollections() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", 1L);
+    row.put("price", new BigDecimal("12.50"));
+    row.put("created", new Timestamp(123456789L));
+    row.put("updated", new Date(987654321L));
+    row.put("name", "中文");
+    row.put("flag", Boolean.TRUE);
+    row.put("empty", null);
+    List<Object> list = new ArrayList<>(Arrays.asList(row, -5, 2.5d, 'c', Section.IMAGES, new byte[] { 1, 2 }));
+    cache.putObject("list", list);
+    @SuppressWarnings("unchecked")
+    List<Object> cached = (List<Object>) cache.getObject("list");
+    assertEquals(list.subList(0, 5), cached.subList(0, 5));
+    assertArrayEquals(new byte[] { 1, 2 }, (byte[]) cached.get(5));
+    cache.putObject("null", null);
+    assertNull(cache.getObject("null"));
+    assertEquals(2, cache.getSize());
+  }
+
+  @Test
+  void shouldKeepSharedAndCyclicReferences() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Node node = new Node();
+    node.next = new Node();
+    node.next.next = node;
+    cache.putObject("node", node);
+    Node cached = (Node) cache.getObject("node");
+    assertSame(cached, cached.next.next);
+  }
+
+  @Test
+  void shouldEvictOldestSegmentWhenFull() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(4096);
+    cache.setSegmentSize(1024);
+    char[] chars = new char[200];
+    Arrays.fill(chars, 'x');
+    String value = new String(chars);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, value);
+    }
+    assertTrue(cache.getSize() < 100);
+    assertTrue(cache.getEvictionCount() > 0);
+    assertNull(cache.getObject(0));
+    assertEquals(value, cache.getObject(99));
+  }
+
+  @Test
+  void shouldNotCacheValuesLargerThanASegment() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(2048);
+    cache.setSegmentSize(1024);
+    cache.putObject("large", new byte[2000]);
+    assertNull(cache.getObject("large"));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldRejectNonSerializableObjects() {
+    OffHeapCache cache = new OffHeapCache("default");
+    assertThrows(CacheException.class, () -> cache.putObject("key", new Object()));
+  }
+
+  @Test
+  void shouldRemoveAndClear() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(1, "one");
+    cache.putObject(2, "two");
+    assertEquals("one", cache.removeObject(1));
+    assertNull(cache.getObject(1));
+    cache.clear();
+    assertNull(cache.getObject(2));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldUseConfiguredCodecAndMappedFile(@TempDir Path dir) {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCodec(SerializableCacheCodec.class.getName());
+    cache.setMappedFile(new File(dir.toFile(), "cache.dat").getAbsolutePath());
+    cache.setCapacity(8192);
+    cache.setSegmentSize(4096);
+    cache.initialize();
+    Author author = new Author(1, "cbegin", "******", "cbegin@somewhere.com", "N/A", Section.NEWS);
+    cache.putObject("author", author);
+    assertEquals(author, cache.getObject("author"));
+    assertEquals(1, cache.getHitCount());
+  }
+
+  static class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+    Node next;
+  }
+
+}
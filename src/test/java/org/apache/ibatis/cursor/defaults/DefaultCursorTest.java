@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -13,7 +13,6 @@
  *    See the License for the specific language governing permissions and
  *    limitations under the License.
  */
-
 package org.apache.ibatis.cursor.defaults;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -169,6 +168,16 @@ class DefaultCursorTest {
       return (Integer) rows.get(rowIndex).get(columnLabel);
     }
 
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+      return getString(rsmd.getColumnLabel(columnIndex));
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+      return getInt(rsmd.getColumnLabel(columnIndex));
+    }
+
     @Override
     public boolean wasNull() throws SQLException {
       throwIfClosed();
@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  @Test
+  void shouldRewriteSimpleInsert() {
+    MultiRowInsert insert = MultiRowInsert.parse("insert into item (id, name) values (?, ?)", 2);
+    assertNotNull(insert);
+    assertEquals("insert into item (id, name) values (?, ?)", insert.getSql(1));
+    assertEquals("insert into item (id, name) values (?, ?), (?, ?), (?, ?)", insert.getSql(3));
+  }
+
+  @Test
+  void shouldKeepFunctionsAndLiteralsInRow() {
+    MultiRowInsert insert = MultiRowInsert.parse("INSERT INTO item (id, name, created) VALUES\n (?, upper(?), 'values (?)')", 2);
+    assertNotNull(insert);
+    assertEquals("INSERT INTO item (id, name, created) VALUES\n (?, upper(?), 'values (?)'), (?, upper(?), 'values (?)')",
+        insert.getSql(2));
+  }
+
+  @Test
+  void shouldNotRewriteOtherInserts() {
+    assertNull(MultiRowInsert.parse("insert into item (id, name) select id, ? from other", 1));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) values (?, ?) on conflict do nothing", 2));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) values (?, ?), (?, ?)", 4));
+    assertNull(MultiRowInsert.parse("insert into item_values (id) values (?) returning ?", 2));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) values (?, ?", 2));
+  }
+
+}
@@ -0,0 +1,192 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompiledRowMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    Environment environment = new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource());
+    Configuration configuration = new Configuration(environment);
+    configuration.setMapUnderscoreToCamelCase(true);
+    configuration.addMapper(AuthorMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @BeforeEach
+  void reset() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCompiledRowMappersEnabled(false);
+    configuration.setReturnInstanceForEmptyRow(false);
+    configuration.setCompiledRowMapperCacheSize(1024);
+    configuration.getCompiledRowMappers().clear();
+  }
+
+  @Test
+  void shouldMapRowsLikeTheGenericMapping() {
+    List<Author> expected = selectAuthors();
+    sqlSessionFactory.getConfiguration().setCompiledRowMappersEnabled(true);
+    List<Author> actual = selectAuthors();
+    assertEquals(2, actual.size());
+    assertEquals(expected, actual);
+    assertEquals("jim", actual.get(0).getUsername());
+    assertEquals(Section.VIDEOS, actual.get(1).getFavouriteSection());
+    assertNull(actual.get(1).getBio());
+
+    Map<String, CompiledRowMapper> rowMappers = sqlSessionFactory.getConfiguration().getCompiledRowMappers();
+    assertEquals(1, rowMappers.size());
+    assertNotSame(CompiledRowMapper.UNSUPPORTED, rowMappers.values().iterator().next());
+    // 再次查询复用编译好的行映射器
+    assertEquals(expected, selectAuthors());
+    assertEquals(1, rowMappers.size());
+  }
+
+  @Test
+  void shouldFallBackForMaps() {
+    sqlSessionFactory.getConfiguration().setCompiledRowMappersEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> authors = sqlSession.getMapper(AuthorMapper.class).selectAuthorMaps();
+      assertEquals(2, authors.size());
+      assertEquals("jim", authors.get(0).get("USERNAME"));
+    }
+    Map<String, CompiledRowMapper> rowMappers = sqlSessionFactory.getConfiguration().getCompiledRowMappers();
+    assertSame(CompiledRowMapper.UNSUPPORTED, rowMappers.values().iterator().next());
+  }
+
+  @Test
+  void shouldHonorReturnInstanceForEmptyRow() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCompiledRowMappersEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = sqlSession.getMapper(AuthorMapper.class);
+      assertNull(mapper.selectEmptyAuthor());
+      configuration.setReturnInstanceForEmptyRow(true);
+      sqlSession.clearCache();
+      Author author = mapper.selectEmptyAuthor();
+      assertNotNull(author);
+      assertNull(author.getUsername());
+    }
+  }
+
+  @Test
+  void shouldReadByNameWithCustomTypeHandlers() {
+    sqlSessionFactory.getConfiguration().setCompiledRowMappersEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.getMapper(AuthorMapper.class).selectAuthorsWithCustomTypeHandler();
+      assertEquals("JIM", authors.get(0).getUsername());
+    }
+    Map<String, CompiledRowMapper> rowMappers = sqlSessionFactory.getConfiguration().getCompiledRowMappers();
+    assertNotSame(CompiledRowMapper.UNSUPPORTED, rowMappers.values().iterator().next());
+  }
+
+  @Test
+  void shouldNotCacheMoreRowMappersThanTheCacheSize() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCompiledRowMappersEnabled(true);
+    configuration.setCompiledRowMapperCacheSize(1);
+    List<Author> expected = selectAuthors();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      // 缓存满了以后，新的列布局使用通用的映射
+      assertNull(sqlSession.getMapper(AuthorMapper.class).selectEmptyAuthor());
+    }
+    assertEquals(1, configuration.getCompiledRowMappers().size());
+    assertEquals(expected, selectAuthors());
+  }
+
+  private List<Author> selectAuthors() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(AuthorMapper.class).selectAuthors();
+    }
+  }
+
+  interface AuthorMapper {
+
+    @Results(id = "authorResult", value = {
+        @Result(column = "name", property = "username"),
+        @Result(column = "email", property = "email") })
+    @Select("select id, username as name, password, email, bio, favourite_section from author order by id")
+    List<Author> selectAuthors();
+
+    @Select("select id, username from author order by id")
+    List<Map<String, Object>> selectAuthorMaps();
+
+    @Select("select cast(null as varchar(10)) as username, cast(null as varchar(10)) as email from author where id = 101")
+    Author selectEmptyAuthor();
+
+    @Results({ @Result(column = "username", property = "username", typeHandler = UpperCaseByNameTypeHandler.class) })
+    @Select("select id, username from author order by id")
+    List<Author> selectAuthorsWithCustomTypeHandler();
+
+  }
+
+  /**
+   * A type handler that only implements reading by column name.
+   */
+  public static class UpperCaseByNameTypeHandler extends BaseTypeHandler<String> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType) throws SQLException {
+      ps.setString(i, parameter);
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+      String value = rs.getString(columnName);
+      return value == null ? null : value.toUpperCase(Locale.ENGLISH);
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, int columnIndex) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getNullableResult(CallableStatement cs, int columnIndex) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
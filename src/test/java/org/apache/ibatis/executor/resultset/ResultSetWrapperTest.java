@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ResultSetWrapperTest {
+
+  @Mock
+  private ResultSet rs;
+  @Mock
+  private ResultSetMetaData rsmd;
+
+  private final Configuration configuration = new Configuration();
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getName());
+    when(rsmd.getColumnLabel(2)).thenReturn("NAME");
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnClassName(2)).thenReturn(String.class.getName());
+  }
+
+  @Test
+  void shouldResolveColumnIndexIgnoringCase() throws SQLException {
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    assertEquals(1, rsw.getColumnIndex("id"));
+    assertEquals(2, rsw.getColumnIndex("Name"));
+    assertEquals(-1, rsw.getColumnIndex("missing"));
+    assertEquals(JdbcType.VARCHAR, rsw.getJdbcType("name"));
+  }
+
+  @Test
+  void shouldReadBuiltInTypeHandlersByColumnIndex() throws SQLException {
+    when(rs.getInt(1)).thenReturn(7);
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    TypeHandler<?> typeHandler = configuration.getTypeHandlerRegistry().getTypeHandler(Integer.class);
+    assertEquals(7, rsw.getResult(typeHandler, "id"));
+    assertEquals(7, rsw.getResult(typeHandler, "id"));
+    verify(rs, never()).getInt("id");
+  }
+
+  @Test
+  void shouldResolveUnknownTypeHandlerOncePerColumn() throws SQLException {
+    when(rs.getString(2)).thenReturn("jim");
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    TypeHandler<?> typeHandler = configuration.getTypeHandlerRegistry().getUnknownTypeHandler();
+    for (int i = 0; i < 3; i++) {
+      assertEquals("jim", rsw.getResult(typeHandler, "name"));
+    }
+    // 列的类型只在创建 ResultSetWrapper 时读取一次
+    verify(rs, times(1)).getMetaData();
+  }
+
+  @Test
+  void shouldReadCustomTypeHandlersByColumnName() throws SQLException {
+    when(rs.getString("name")).thenReturn("jim");
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    assertEquals("JIM", rsw.getResult(new UpperCaseTypeHandler(), "name"));
+  }
+
+  private static class UpperCaseTypeHandler extends BaseTypeHandler<String> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+      return rs.getString(columnName).toUpperCase();
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, int columnIndex) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getNullableResult(CallableStatement cs, int columnIndex) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
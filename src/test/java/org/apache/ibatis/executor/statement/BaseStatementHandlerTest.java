@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.apache.ibatis.executor.statement;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
@@ -145,4 +146,63 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void streamingWithoutObservedRows() throws SQLException {
+        mappedStatementBuilder.streaming(true);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(AdaptiveFetchSize.INITIAL_FETCH_SIZE); // apply an initial fetch size
+    }
+
+    @Test
+    void streamingAdaptsToObservedRows() throws SQLException {
+        mappedStatementBuilder.streaming(true);
+        configuration.setStreamingFetchBufferSize(1000);
+        AdaptiveFetchSize adaptiveFetchSize = configuration.getAdaptiveFetchSize("id");
+        adaptiveFetchSize.recordRowWidth(100);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(10); // buffer size / row width
+
+        adaptiveFetchSize.recordRowCount(0);
+        handler.setFetchSize(statement);
+        verify(statement, times(2)).setFetchSize(10); // an empty run does not shrink the fetch size below the initial size
+    }
+
+    @Test
+    void streamingCapsFetchSizeAtObservedRows() throws SQLException {
+        mappedStatementBuilder.streaming(true);
+        AdaptiveFetchSize adaptiveFetchSize = configuration.getAdaptiveFetchSize("id");
+        adaptiveFetchSize.recordRowWidth(10);
+        adaptiveFetchSize.recordRowCount(500);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+        verify(statement).setFetchSize(501); // read the rows in one round trip
+    }
+
+    @Test
+    void streamingDoesNotExceedMappedStatementFetchSize() throws SQLException {
+        mappedStatementBuilder.streaming(true).fetchSize(50);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(50);
+    }
+
+    @Test
+    void streamingUsesHintOfDatabase() throws SQLException {
+        mappedStatementBuilder.streaming(true);
+        configuration.setDatabaseId("mysql");
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(Integer.MIN_VALUE); // apply a MySQL streaming hint
+    }
+
 }
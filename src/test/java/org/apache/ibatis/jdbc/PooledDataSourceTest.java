@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -21,12 +21,21 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PoolMetricsListener;
+import org.apache.ibatis.datasource.pooled.PoolState;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
 import org.junit.jupiter.api.Disabled;
@@ -34,6 +43,8 @@ import org.junit.jupiter.api.Test;
 
 class PooledDataSourceTest extends BaseDataTest {
 
+  private static final String HSQLDB_QUERY = "SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS";
+
   @Test
   void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -69,12 +80,416 @@ class PooledDataSourceTest extends BaseDataTest {
       assertEquals(0, ds.getPoolState().getAverageOverdueCheckoutTime());
       assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
       assertEquals(0, ds.getPoolState().getAverageWaitTime());
+      assertEquals(0, ds.getPoolState().getWaitTimeHistogram().getCount());
       assertNotNull(ds.getPoolState().toString());
     } finally {
       ds.forceCloseAll();
     }
   }
 
+  @Test
+  void shouldProperlyMaintainPoolWithConcurrentBag() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(true);
+      ds.setPoolMaximumActiveConnections(3);
+      ds.setPoolMaximumIdleConnections(2);
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(3, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+
+      Connection reused = ds.getConnection();
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      executeHsqldbQuery(reused);
+      reused.close();
+      assertThrows(SQLException.class, () -> reused.createStatement());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldHandOffConnectionsBetweenThreadsWithConcurrentBag() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      ds.setPoolConcurrentBagEnabled(true);
+      ds.setPoolMaximumActiveConnections(2);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolTimeToWait(10000);
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < 50; j++) {
+            try (Connection c = ds.getConnection()) {
+              executeHsqldbQuery(c);
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(400, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldClaimOverdueConnectionWithConcurrentBag() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(true);
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolMaximumCheckoutTime(100);
+      ds.setPoolTimeToWait(50);
+      Connection leaked = ds.getConnection();
+      Connection c = ds.getConnection();
+      assertEquals(PooledDataSource.unwrapConnection(leaked), PooledDataSource.unwrapConnection(c));
+      assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(1, ds.getPoolState().getHadToWaitCount());
+      assertEquals(1, ds.getPoolState().getWaitTimeHistogram().getCount());
+      assertTrue(ds.getPoolState().getWaitTimeHistogram().getMax() >= ds.getPoolState().getAverageWaitTime());
+      assertThrows(SQLException.class, () -> leaked.createStatement());
+      executeHsqldbQuery(c);
+      leaked.close();
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      c.close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldKeepMinimumIdleConnectionsWarmInBackground() throws Exception {
+    shouldKeepMinimumIdleConnectionsWarmInBackgroundWith(false);
+    shouldKeepMinimumIdleConnectionsWarmInBackgroundWith(true);
+  }
+
+  private void shouldKeepMinimumIdleConnectionsWarmInBackgroundWith(boolean concurrentBag) throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(concurrentBag);
+      ds.setPoolMaximumActiveConnections(5);
+      ds.setPoolMaximumIdleConnections(5);
+      ds.setPoolMinimumIdle(3);
+      ds.setPoolHousekeepingPeriod(20);
+      ds.getConnection().close();
+      waitFor(() -> ds.getPoolState().getIdleConnectionCount() == 3);
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+
+      Connection c = ds.getConnection();
+      executeHsqldbQuery(c);
+      c.close();
+      assertEquals(2, ds.getPoolState().getRequestCount());
+    } finally {
+      ds.setPoolHousekeepingPeriod(0);
+    }
+  }
+
+  @Test
+  void shouldEvictIdleConnectionsInBackground() throws Exception {
+    shouldEvictIdleConnectionsInBackgroundWith(false);
+    shouldEvictIdleConnectionsInBackgroundWith(true);
+  }
+
+  private void shouldEvictIdleConnectionsInBackgroundWith(boolean concurrentBag) throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(concurrentBag);
+      ds.setPoolMaximumIdleConnections(3);
+      ds.setPoolMinimumIdle(1);
+      ds.setPoolIdleTimeout(50);
+      ds.setPoolHousekeepingPeriod(20);
+      List<Connection> connections = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      waitFor(() -> ds.getPoolState().getIdleConnectionCount() == 1);
+      Thread.sleep(100);
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.setPoolHousekeepingPeriod(0);
+    }
+  }
+
+  @Test
+  void shouldValidateIdleConnectionsInBackground() throws Exception {
+    shouldValidateIdleConnectionsInBackgroundWith(false);
+    shouldValidateIdleConnectionsInBackgroundWith(true);
+  }
+
+  private void shouldValidateIdleConnectionsInBackgroundWith(boolean concurrentBag) throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(concurrentBag);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT COUNT(*) FROM PING_CHECK");
+      ds.setPoolPingConnectionsNotUsedFor(0);
+      ds.setPoolHousekeepingPeriod(20);
+      Connection c = ds.getConnection();
+      c.createStatement().execute("CREATE TABLE PING_CHECK (ID INT)");
+      c.close();
+      // ping 语句失败后，后台线程会丢弃这个空闲连接
+      c = ds.getConnection();
+      c.createStatement().execute("DROP TABLE PING_CHECK");
+      c.close();
+      waitFor(() -> ds.getPoolState().getBadConnectionCount() > 0);
+      waitFor(() -> ds.getPoolState().getIdleConnectionCount() == 0);
+
+      c = ds.getConnection();
+      executeHsqldbQuery(c);
+      c.close();
+      assertEquals(3, ds.getPoolState().getRequestCount());
+    } finally {
+      ds.setPoolHousekeepingPeriod(0);
+    }
+  }
+
+  @Test
+  void shouldNotPingValidatedIdleConnectionsAgainInBackground() throws Exception {
+    shouldNotPingValidatedIdleConnectionsAgainInBackgroundWith(false);
+    shouldNotPingValidatedIdleConnectionsAgainInBackgroundWith(true);
+  }
+
+  private void shouldNotPingValidatedIdleConnectionsAgainInBackgroundWith(boolean concurrentBag) throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(concurrentBag);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT NEXT VALUE FOR PING_COUNT FROM (VALUES(0))");
+      ds.setPoolPingConnectionsNotUsedFor(200);
+      ds.setPoolHousekeepingPeriod(20);
+      Connection c = ds.getConnection();
+      c.createStatement().execute("CREATE SEQUENCE PING_COUNT START WITH 0");
+      c.close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      Thread.sleep(500);
+      // ping 成功的空闲连接仍然留在连接池中
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+
+      c = ds.getConnection();
+      try (ResultSet rs = c.createStatement().executeQuery("SELECT NEXT VALUE FOR PING_COUNT FROM (VALUES(0))")) {
+        rs.next();
+        // 每次 ping 成功后都会刷新最后使用时间，不会在每个检测周期都 ping
+        long pings = rs.getLong(1);
+        assertTrue(pings >= 1 && pings <= 3, "Unexpected number of pings: " + pings);
+      }
+      c.createStatement().execute("DROP SEQUENCE PING_COUNT");
+      c.close();
+    } finally {
+      ds.setPoolHousekeepingPeriod(0);
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldCloseExpiredConnectionOnReturn() throws Exception {
+    shouldCloseExpiredConnectionOnReturnWith(false);
+    shouldCloseExpiredConnectionOnReturnWith(true);
+  }
+
+  private void shouldCloseExpiredConnectionOnReturnWith(boolean concurrentBag) throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(concurrentBag);
+      ds.setPoolMaximumLifetime(50);
+      Connection c = ds.getConnection();
+      Thread.sleep(100);
+      c.close();
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldPublishStatisticsToMetricsListener() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      AtomicLong checkouts = new AtomicLong();
+      AtomicLong returns = new AtomicLong();
+      ds.setPoolMetricsListener(new PoolMetricsListener() {
+        @Override
+        public void connectionCheckedOut(long requestTime, long waitTime) {
+          checkouts.incrementAndGet();
+        }
+
+        @Override
+        public void connectionReturned(long checkoutTime) {
+          returns.incrementAndGet();
+        }
+      });
+      for (int i = 0; i < 5; i++) {
+        ds.getConnection().close();
+      }
+      assertEquals(5, checkouts.get());
+      assertEquals(5, returns.get());
+      assertEquals(5, ds.getPoolState().getRequestTimeHistogram().getCount());
+      assertEquals(5, ds.getPoolState().getCheckoutTimeHistogram().getCount());
+      assertTrue(ds.getPoolState().getCheckoutTimeHistogram().getPercentile(99) >= 0);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldReadStatisticsWithoutThePoolStateLock() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.getConnection().close();
+      whileLocked(ds.getPoolState(), () -> {
+        assertEquals(1, ds.getPoolState().getRequestCount());
+        assertEquals(0, ds.getPoolState().getHadToWaitCount());
+        assertEquals(0, ds.getPoolState().getBadConnectionCount());
+        assertTrue(ds.getPoolState().getAverageCheckoutTime() >= 0);
+      });
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldBorrowAndReturnFromConcurrentBagWithoutThePoolStateLock() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(true);
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolMaximumCheckoutTime(100);
+      ds.setPoolTimeToWait(50);
+      ds.getConnection().close();
+      // 借出、等待、回收超时连接和归还都不能进入 PoolState 的监视器
+      whileLocked(ds.getPoolState(), () -> {
+        Connection leaked = ds.getConnection();
+        Connection c = ds.getConnection();
+        executeHsqldbQuery(c);
+        leaked.close();
+        c.close();
+        assertEquals(3, ds.getPoolState().getRequestCount());
+        assertEquals(1, ds.getPoolState().getHadToWaitCount());
+        assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+        assertEquals(1, ds.getPoolState().getBadConnectionCount());
+        assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      });
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldReusePreparedStatementsAcrossCheckouts() throws Exception {
+    shouldReusePreparedStatementsAcrossCheckoutsWith(false);
+    shouldReusePreparedStatementsAcrossCheckoutsWith(true);
+  }
+
+  private void shouldReusePreparedStatementsAcrossCheckoutsWith(boolean concurrentBag) throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolConcurrentBagEnabled(concurrentBag);
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(2);
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement st = c.prepareStatement(HSQLDB_QUERY);
+        st.setMaxRows(1);
+        assertSame(c, st.getConnection());
+        st.executeQuery();
+        st.close();
+        assertTrue(st.isClosed());
+        assertThrows(SQLException.class, st::executeQuery);
+      }
+      try (Connection c = ds.getConnection()) {
+        try (PreparedStatement st = c.prepareStatement(HSQLDB_QUERY)) {
+          // 上一次修改的设置已经恢复
+          assertEquals(0, st.getMaxRows());
+        }
+        // 不同的结果集类型需要另外的语句
+        try (PreparedStatement st = c.prepareStatement(HSQLDB_QUERY, ResultSet.TYPE_SCROLL_INSENSITIVE,
+            ResultSet.CONCUR_READ_ONLY)) {
+          assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, st.getResultSetType());
+        }
+        executeHsqldbQuery(c);
+      }
+      assertEquals(2, ds.getPoolState().getStatementCacheHitCount());
+      assertEquals(2, ds.getPoolState().getStatementCacheMissCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedStatement() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(2);
+      try (Connection c = ds.getConnection()) {
+        c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+        c.prepareStatement("SELECT 2 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+        c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+        c.prepareStatement("SELECT 3 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+        assertEquals(1, ds.getPoolState().getStatementCacheHitCount());
+        // SELECT 2 最久没有使用，已经被淘汰
+        c.prepareStatement("SELECT 2 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+        assertEquals(1, ds.getPoolState().getStatementCacheHitCount());
+        c.prepareStatement("SELECT 3 FROM INFORMATION_SCHEMA.SYSTEM_USERS").close();
+        assertEquals(2, ds.getPoolState().getStatementCacheHitCount());
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotReuseStatementThatFailed() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(2);
+      try (Connection c = ds.getConnection()) {
+        try (PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS WHERE USER_NAME = ?")) {
+          // 缺少参数
+          assertThrows(SQLException.class, st::executeQuery);
+        }
+        try (PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS WHERE USER_NAME = ?")) {
+          st.setString(1, "SA");
+          st.executeQuery().close();
+        }
+        assertEquals(0, ds.getPoolState().getStatementCacheHitCount());
+        assertEquals(2, ds.getPoolState().getStatementCacheMissCount());
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Test
   void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -144,4 +559,51 @@ class PooledDataSourceTest extends BaseDataTest {
       }
     }
   }
+
+  /**
+   * 在另一个线程持有连接池状态的锁时执行，如果执行过程中需要获取这个锁就会超时失败
+   */
+  private void whileLocked(PoolState state, ThrowingRunnable runnable) throws Exception {
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      synchronized (state) {
+        locked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    holder.start();
+    try {
+      assertTrue(locked.await(10, TimeUnit.SECONDS));
+      assertTimeoutPreemptively(Duration.ofSeconds(5), runnable::run);
+    } finally {
+      release.countDown();
+      holder.join();
+    }
+  }
+
+  @FunctionalInterface
+  private interface ThrowingRunnable {
+    void run() throws Exception;
+  }
+
+  private void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the pool housekeeper");
+      Thread.sleep(10);
+    }
+  }
+
+  private void executeHsqldbQuery(Connection con) throws SQLException {
+    try (PreparedStatement st = con.prepareStatement(HSQLDB_QUERY);
+         ResultSet rs = st.executeQuery()) {
+      assertTrue(rs.next());
+      assertEquals(1, rs.getInt(1));
+    }
+  }
 }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -23,6 +23,10 @@ import java.lang.reflect.Field;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -43,6 +47,25 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void shouldNotSynchronizeConcurrentCache() {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentCache.class).addDecorator(LruCache.class).size(10).build();
+
+    then(cache).isInstanceOf(LoggingCache.class);
+    ConcurrentCache concurrentCache = unwrap(cache);
+    for (int i = 0; i < 20; i++) {
+      cache.putObject(i, i);
+    }
+    then(concurrentCache.getSize()).isEqualTo(10);
+  }
+
+  @Test
+  void shouldSynchronizePerpetualCache() {
+    Cache cache = new CacheBuilder("test").implementation(PerpetualCache.class).build();
+
+    then(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void shouldReturnZeroWhenEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMean());
+    assertEquals(0, histogram.getPercentile(99));
+  }
+
+  @Test
+  void shouldKeepSmallValuesExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(3);
+    assertEquals(4, histogram.getCount());
+    assertEquals(6, histogram.getSum());
+    assertEquals(1, histogram.getPercentile(50));
+    assertEquals(3, histogram.getPercentile(100));
+    assertEquals(3, histogram.getMax());
+  }
+
+  @Test
+  void shouldEstimatePercentilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(500, histogram.getMean());
+    assertWithin(500, histogram.getPercentile(50));
+    assertWithin(990, histogram.getPercentile(99));
+    assertEquals(1000, histogram.getPercentile(100));
+  }
+
+  @Test
+  void shouldCoverWholeLongRange() {
+    for (long value : new long[] { 4, 7, 8, 9, 1023, 1024, Long.MAX_VALUE }) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(LatencyHistogram.bucketUpperBound(index) >= value);
+      assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+    }
+  }
+
+  @Test
+  void shouldRecordFromManyThreads() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 10000; j++) {
+          histogram.record(j % 100);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, histogram.getCount());
+    assertEquals(99, histogram.getMax());
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+  private void assertWithin(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.25, "expected about " + expected + " but was " + actual);
+  }
+
+}
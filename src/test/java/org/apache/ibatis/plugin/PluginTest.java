@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,7 +17,11 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -38,6 +42,103 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void composedPluginShouldBehaveLikeStackedPlugins() {
+    List<String> stacked = new ArrayList<>();
+    List<String> composed = new ArrayList<>();
+    assertEquals("v", newPluggedMap(false, stacked).get("k"));
+    assertEquals("v", newPluggedMap(true, composed).get("k"));
+    // 后添加的拦截器先执行，拦截器看到的目标对象是被之前的拦截器代理过的对象
+    assertEquals(stacked, composed);
+    assertEquals(6, composed.size());
+  }
+
+  @Test
+  void composedPluginShouldUseOneProxyAndCallUninterceptedMethodsDirectly() {
+    List<String> log = new ArrayList<>();
+    Map<String, String> map = newPluggedMap(true, log);
+    assertTrue(Proxy.getInvocationHandler(map) instanceof ComposedPlugin);
+    assertEquals(1, map.size());
+    assertTrue(log.isEmpty());
+  }
+
+  @Test
+  void composedPluginShouldWrapInnerExceptionsLikeStackedPlugins() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setComposed(true);
+    chain.addInterceptor(new ThrowingMapPlugin());
+    chain.addInterceptor(new UnwrappingMapPlugin());
+    @SuppressWarnings("unchecked")
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<String, String>());
+    assertEquals("caught boom", map.get("k"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> newPluggedMap(boolean composed, List<String> log) {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setComposed(composed);
+    chain.addInterceptor(new RecordingMapPlugin("first", log));
+    chain.addInterceptor(new CustomPluginMapPlugin("custom", log));
+    chain.addInterceptor(new RecordingMapPlugin("last", log));
+    Map<String, String> map = new HashMap<>();
+    map.put("k", "v");
+    return (Map<String, String>) chain.pluginAll(map);
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class RecordingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> log;
+
+    RecordingMapPlugin(String name, List<String> log) {
+      this.name = name;
+      this.log = log;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      log.add(name);
+      log.add(name + (invocation.getTarget() instanceof HashMap ? " -> target" : " -> proxy"));
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class CustomPluginMapPlugin extends RecordingMapPlugin {
+    CustomPluginMapPlugin(String name, List<String> log) {
+      super(name, log);
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class ThrowingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) {
+      throw new IllegalStateException("boom");
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class UnwrappingMapPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      try {
+        return invocation.proceed();
+      } catch (InvocationTargetException e) {
+        return "caught " + e.getTargetException().getMessage();
+      }
+    }
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
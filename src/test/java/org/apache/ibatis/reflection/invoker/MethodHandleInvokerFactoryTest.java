@@ -0,0 +1,168 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class MethodHandleInvokerFactoryTest {
+
+  private final Reflector reflector = new Reflector(PublicBean.class, new MethodHandleInvokerFactory());
+
+  @Test
+  void shouldAccessPropertiesThroughGeneratedInvokers() throws Exception {
+    PublicBean bean = new PublicBean();
+    reflector.getSetInvoker("id").invoke(bean, new Object[] { 10 });
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "mybatis" });
+    reflector.getSetInvoker("tags").invoke(bean, new Object[] { Arrays.asList("a", "b") });
+    reflector.getSetInvoker("hidden").invoke(bean, new Object[] { 5L });
+    assertEquals(10, reflector.getGetInvoker("id").invoke(bean, null));
+    assertEquals("mybatis", reflector.getGetInvoker("name").invoke(bean, null));
+    assertEquals(Arrays.asList("a", "b"), reflector.getGetInvoker("tags").invoke(bean, null));
+    assertEquals(5L, reflector.getGetInvoker("hidden").invoke(bean, null));
+    assertEquals(int.class, reflector.getGetInvoker("id").getType());
+    assertEquals(long.class, reflector.getSetInvoker("hidden").getType());
+  }
+
+  @Test
+  void shouldKeepInvokerTypes() {
+    assertTrue(reflector.getGetInvoker("id") instanceof MethodInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof MethodInvoker);
+    assertTrue(reflector.getGetInvoker("hidden") instanceof GetFieldInvoker);
+    assertTrue(reflector.getSetInvoker("hidden") instanceof SetFieldInvoker);
+  }
+
+  @Test
+  void shouldWrapExceptionsThrownByGetters() {
+    InvocationTargetException e = assertThrows(InvocationTargetException.class,
+        () -> reflector.getGetInvoker("failing").invoke(new PublicBean(), null));
+    assertTrue(e.getTargetException() instanceof IllegalStateException);
+  }
+
+  @Test
+  void shouldRejectNullForPrimitivesLikeReflection() {
+    Reflector reflective = new Reflector(PublicBean.class, new DefaultInvokerFactory());
+    for (Reflector r : Arrays.asList(reflective, reflector)) {
+      assertThrows(IllegalArgumentException.class,
+          () -> r.getSetInvoker("id").invoke(new PublicBean(), new Object[] { null }));
+      assertThrows(IllegalArgumentException.class,
+          () -> r.getSetInvoker("hidden").invoke(new PublicBean(), new Object[] { null }));
+    }
+    Reflector privateReflector = new Reflector(PrivateBean.class, new MethodHandleInvokerFactory());
+    assertThrows(IllegalArgumentException.class,
+        () -> privateReflector.getSetInvoker("count").invoke(new PrivateBean(), new Object[] { null }));
+  }
+
+  @Test
+  void shouldAccessNonPublicClasses() throws Exception {
+    Reflector privateReflector = new Reflector(PrivateBean.class, new MethodHandleInvokerFactory());
+    PrivateBean bean = new PrivateBean();
+    privateReflector.getSetInvoker("value").invoke(bean, new Object[] { "x" });
+    assertEquals("x", privateReflector.getGetInvoker("value").invoke(bean, null));
+  }
+
+  @Test
+  void shouldBeUsedByMetaObject() {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setInvokerFactory(new MethodHandleInvokerFactory());
+    PublicBean bean = new PublicBean();
+    MetaObject metaObject = MetaObject.forObject(bean, new DefaultObjectFactory(), new DefaultObjectWrapperFactory(),
+        reflectorFactory);
+    metaObject.setValue("name", "meta");
+    metaObject.setValue("id", 3);
+    assertEquals("meta", bean.getName());
+    assertEquals(3, metaObject.getValue("id"));
+    assertEquals(String.class, metaObject.getGetterType("tags[0]"));
+  }
+
+  @Test
+  void shouldBeConfigurable() {
+    Configuration configuration = new Configuration();
+    configuration.setInvokerFactory(new MethodHandleInvokerFactory());
+    assertTrue(configuration.getInvokerFactory() instanceof MethodHandleInvokerFactory);
+    assertEquals(MethodHandleInvokerFactory.class, configuration.getTypeAliasRegistry().resolveAlias("METHOD_HANDLE"));
+    configuration.setInvokerFactory(null);
+    assertTrue(configuration.getInvokerFactory() instanceof DefaultInvokerFactory);
+  }
+
+  public static class PublicBean {
+    private int id;
+    private String name;
+    private List<String> tags;
+    private long hidden;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public List<String> getTags() {
+      return tags;
+    }
+
+    public void setTags(List<String> tags) {
+      this.tags = tags;
+    }
+
+    public String getFailing() {
+      throw new IllegalStateException("failing");
+    }
+  }
+
+  private static class PrivateBean {
+    private String value;
+    private int count;
+
+    private String getValue() {
+      return value;
+    }
+
+    private void setValue(String value) {
+      this.value = value;
+    }
+
+    private int getCount() {
+      return count;
+    }
+
+    private void setCount(int count) {
+      this.count = count;
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -19,16 +19,22 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
@@ -70,6 +76,48 @@ class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  void setParametersWithCompiledParameterBinder() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    config.setCompiledParameterBindersEnabled(true);
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    List<ParameterMapping> parameterMappings = Arrays.asList(
+        new ParameterMapping.Builder(config, "title", registry.getTypeHandler(String.class)).build(),
+        new ParameterMapping.Builder(config, "author.username", registry.getTypeHandler(String.class)).build());
+
+    // 第二次执行时使用已经编译好的属性读取器，中间对象为 null 时属性值也是 null
+    Blog first = new Blog(1, "first", new Author(1, "jim", "pwd", "jim@example.com", null, Section.NEWS), Arrays.asList());
+    Blog second = new Blog(2, "second", null, null);
+    for (Blog blog : Arrays.asList(first, second)) {
+      PreparedStatement ps = mock(PreparedStatement.class);
+      BoundSql boundSql = new BoundSql(config, "some select statement", parameterMappings, blog);
+      new DefaultParameterHandler(mappedStatement, blog, boundSql).setParameters(ps);
+      verify(ps).setString(1, blog.getTitle());
+      if (blog == first) {
+        verify(ps).setString(2, "jim");
+      } else {
+        verify(ps).setNull(2, JdbcType.OTHER.TYPE_CODE);
+      }
+    }
+    ParameterBinder binder = config.getParameterBinder(mappedStatement, Blog.class);
+    Assertions.assertSame(binder, config.getParameterBinder(mappedStatement, Blog.class));
+    // 带下标的属性通过 MetaObject 读取
+    Post post = new Post();
+    Assertions.assertSame(post, binder.getValue(new Blog(3, "third", null, Arrays.asList(post)), "posts[0]"));
+  }
+
+  @Test
+  void compiledParameterBinderShouldReadMapsAndSimpleParameters() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    config.setCompiledParameterBindersEnabled(true);
+    HashMap<String, Object> param = new HashMap<>();
+    param.put("name", "jim");
+    Assertions.assertEquals("jim", config.getParameterBinder(mappedStatement, HashMap.class).getValue(param, "name"));
+    Assertions.assertEquals(1, config.getParameterBinder(mappedStatement, Integer.class).getValue(1, "any"));
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,140 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private static final String[] EXPRESSIONS = {
+      "username", "username != null", "username == 'cbegin'", "username neq \"jdoe\"",
+      "username != null and username != ''", "password == null or password.isEmpty()",
+      "!(id > 1)", "not favouriteSection", "id >= 1 && id lt 10", "id == 1.0", "id < 2147483647",
+      "favouriteSection == favouriteSection", "username.length() > 3", "author.username == 'cbegin'",
+      "ids != null and ids.size() > 0", "ids.isEmpty()", "ids.size", "map.size", "map.key == 'value'",
+      "amount > 10", "amount == 12.5", "flag", "flag and true", "(flag or false) and !flag", "missing == null",
+      "_parameter != null", "_databaseId == null" };
+
+  @Test
+  void shouldEvaluateLikeOgnl() {
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("author", author);
+    parameter.put("ids", new ArrayList<>(Arrays.asList(1, 2, 3)));
+    parameter.put("map", new HashMap<>(Collections.singletonMap("key", "value")));
+    parameter.put("amount", new BigDecimal("12.50"));
+    parameter.put("flag", Boolean.TRUE);
+    parameter.put("id", 1L);
+    parameter.put("username", "cbegin");
+
+    Configuration configuration = new Configuration();
+    Object[] roots = { author, parameter, new DynamicContext(configuration, author).getBindings(),
+        new DynamicContext(configuration, parameter).getBindings() };
+    int evaluated = 0;
+    for (Object root : roots) {
+      for (String expression : EXPRESSIONS) {
+        Object expected;
+        try {
+          expected = OgnlCache.getValue(expression, root);
+        } catch (RuntimeException e) {
+          expected = e.getClass();
+        }
+        CompiledExpression compiled = CompiledExpression.compile(expression);
+        assertNotNull(compiled, expression);
+        Object actual = compiled.getValue(root, configuration.getReflectorFactory());
+        if (actual == CompiledExpression.UNSUPPORTED) {
+          continue;
+        }
+        assertFalse(expected instanceof Class, expression);
+        evaluated++;
+        assertEquals(expected instanceof Boolean, actual instanceof Boolean, expression);
+        assertEquals(String.valueOf(expected), String.valueOf(actual), expression + " on " + root.getClass());
+      }
+    }
+    // 大部分表达式都不需要回退到 OGNL
+    assertTrue(evaluated > EXPRESSIONS.length * 2, String.valueOf(evaluated));
+  }
+
+  @Test
+  void shouldNotCompileUnsupportedExpressions() {
+    assertNull(CompiledExpression.compile("name == 'a'"));
+    assertNull(CompiledExpression.compile("id in {1, 2}"));
+    assertNull(CompiledExpression.compile("id + 1 > 2"));
+    assertNull(CompiledExpression.compile("@java.lang.Math@max(1, 2)"));
+    assertNull(CompiledExpression.compile("name.indexOf('v') > 0"));
+    assertNull(CompiledExpression.compile("list[0] != null"));
+    assertNull(CompiledExpression.compile("id == 010"));
+    assertNull(CompiledExpression.compile("a == b == c"));
+  }
+
+  @Test
+  void shouldFallBackToOgnlForMismatchedTypes() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("date", new java.util.Date());
+    parameter.put("id", 1);
+    Configuration configuration = new Configuration();
+    configuration.setCompiledExpressionsEnabled(true);
+    ReflectorFactory reflectorFactory = configuration.getReflectorFactory();
+    CompiledExpression compiled = CompiledExpression.compile("date != ''");
+    assertSame(CompiledExpression.UNSUPPORTED, compiled.getValue(parameter, reflectorFactory));
+    assertSame(CompiledExpression.UNSUPPORTED,
+        CompiledExpression.compile("id == \"1\"").getValue(parameter, reflectorFactory));
+    assertSame(CompiledExpression.UNSUPPORTED,
+        CompiledExpression.compile("missing.name == null").getValue(parameter, reflectorFactory));
+    ExpressionEvaluator evaluator = new ExpressionEvaluator(configuration);
+    assertThrows(IllegalArgumentException.class, () -> evaluator.evaluateBoolean("date != ''", parameter));
+    assertTrue(evaluator.evaluateBoolean("id == \"1\"", parameter));
+  }
+
+  @Test
+  void shouldUseReflectorFactoryOfConfigurationOnlyWhenEnabled() {
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    List<Class<?>> reflected = new ArrayList<>();
+    Configuration configuration = new Configuration();
+    configuration.setReflectorFactory(new DefaultReflectorFactory() {
+      @Override
+      public Reflector findForClass(Class<?> type) {
+        reflected.add(type);
+        return super.findForClass(type);
+      }
+    });
+
+    assertTrue(new ExpressionEvaluator(configuration).evaluateBoolean("username == 'cbegin'", author));
+    assertTrue(reflected.isEmpty());
+
+    configuration.setCompiledExpressionsEnabled(true);
+    assertTrue(new ExpressionEvaluator(configuration).evaluateBoolean("username == 'cbegin'", author));
+    assertEquals(Collections.singletonList(Author.class), reflected);
+  }
+
+}
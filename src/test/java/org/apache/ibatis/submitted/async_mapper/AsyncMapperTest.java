@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncMapperTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:async_mapper", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/async_mapper/CreateDB.sql");
+  }
+
+  @Test
+  void shouldSelectConcurrently() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      CompletableFuture<List<Item>> items = mapper.selectItems();
+      CompletableFuture<Item> item = mapper.selectItem(2).toCompletableFuture();
+      CompletableFuture.allOf(items, item).get();
+      assertEquals(2, items.get().size());
+      assertEquals("first", items.get().get(0).getName());
+      assertEquals("second", item.get().getName());
+      assertFalse(mapper.selectOptionalItem(3).get().isPresent());
+      assertEquals("first", mapper.selectOptionalItem(1).get().get().getName());
+    }
+  }
+
+  @Test
+  void shouldCommitUpdatesInOwnSession() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.insertItem(new Item(3, "third")).get());
+      assertNull(mapper.deleteItem(1).get());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(2, sqlSession.getMapper(Mapper.class).countItems());
+    }
+  }
+
+  @Test
+  void shouldUseConfiguredExecutor() throws Exception {
+    AtomicInteger tasks = new AtomicInteger();
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(command -> {
+      tasks.incrementAndGet();
+      command.run();
+    });
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(2, mapper.selectItems().get().size());
+      assertEquals(1, tasks.get());
+    }
+  }
+
+  @Test
+  void shouldBoundDefaultExecutorByPooledConnections() throws Exception {
+    PooledDataSource dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:async_mapper", "sa", "");
+    dataSource.setPoolMaximumActiveConnections(2);
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) configuration.getDefaultAsyncExecutor();
+    assertEquals(2, executor.getMaximumPoolSize());
+    assertSame(executor, configuration.getDefaultAsyncExecutor());
+
+    SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = factory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<CompletableFuture<List<Item>>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        futures.add(mapper.selectItems());
+      }
+      for (CompletableFuture<List<Item>> future : futures) {
+        assertEquals(2, future.get().size());
+      }
+      // 等待的调用在队列中排队，不会为每个调用创建线程
+      assertTrue(executor.getLargestPoolSize() <= 2);
+    }
+    dataSource.forceCloseAll();
+  }
+
+  @Test
+  void shouldCompleteExceptionally() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      ExecutionException e = assertThrows(ExecutionException.class, () -> mapper.insertItem(new Item(1, "duplicate")).get());
+      assertTrue(e.getCause() instanceof PersistenceException);
+    }
+  }
+
+  @Test
+  void shouldRejectAsyncCursor() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      BindingException e = assertThrows(BindingException.class, mapper::selectCursor);
+      assertTrue(e.getMessage().contains("can not return a Cursor asynchronously"));
+    }
+  }
+
+}
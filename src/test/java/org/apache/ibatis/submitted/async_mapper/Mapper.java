@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+
+public interface Mapper {
+
+  @Select("select * from item order by id")
+  CompletableFuture<List<Item>> selectItems();
+
+  @Select("select * from item where id = #{id}")
+  CompletionStage<Item> selectItem(int id);
+
+  @Select("select * from item where id = #{id}")
+  CompletableFuture<Optional<Item>> selectOptionalItem(int id);
+
+  @Select("select count(*) from item")
+  int countItems();
+
+  @Insert("insert into item (id, name) values (#{id}, #{name})")
+  CompletableFuture<Integer> insertItem(Item item);
+
+  @Delete("delete from item where id = #{id}")
+  CompletableFuture<Void> deleteItem(int id);
+
+  @Select("select * from item")
+  CompletableFuture<Cursor<Item>> selectCursor();
+
+}
@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_auto_flush;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchAutoFlushTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:batch_auto_flush", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/batch_auto_flush/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFlushWhenDefaultBatchSizeIsReached() {
+    sqlSessionFactory.getConfiguration().setDefaultBatchSize(4);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 10; i++) {
+        mapper.insertItem(new Item(i, "item" + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(4, results.get(0).getUpdateCounts().length);
+      assertEquals(4, results.get(1).getParameterObjects().size());
+      assertEquals(2, results.get(2).getUpdateCounts().length);
+      assertEquals(10, mapper.countItems());
+    }
+  }
+
+  @Test
+  void shouldUseBatchSizeOfStatement() {
+    sqlSessionFactory.getConfiguration().setDefaultBatchSize(100);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 5; i++) {
+        mapper.insertItemInPairs(new Item(i, "item" + i));
+      }
+      for (int i = 5; i < 11; i++) {
+        mapper.insertItemInTriples(new Item(i, "item" + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(5, results.size());
+      assertEquals(1, results.get(2).getUpdateCounts().length);
+      assertEquals(11, mapper.countItems());
+    }
+  }
+
+  @Test
+  void shouldFlushWhenBufferedBytesAreExceeded() {
+    sqlSessionFactory.getConfiguration().setMaxBatchBufferedBytes(1000);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      StringBuilder name = new StringBuilder();
+      for (int i = 0; i < 90; i++) {
+        name.append('x');
+      }
+      for (int i = 0; i < 10; i++) {
+        mapper.insertItem(new Item(i, name.toString()));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertTrue(results.size() > 1);
+      assertEquals(10, results.stream().mapToInt(r -> r.getUpdateCounts().length).sum());
+      assertEquals(10, mapper.countItems());
+    }
+  }
+
+  @Test
+  void shouldReleaseParameterObjects() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDefaultBatchSize(2);
+    configuration.setRetainBatchParameterObjects(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertItem(new Item(i, "item" + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertTrue(results.get(0).getParameterObjects().isEmpty());
+      assertArrayEquals(new int[] { 1, 1 }, results.get(0).getUpdateCounts());
+      assertArrayEquals(new int[] { 1 }, results.get(1).getUpdateCounts());
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_reordering;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchReorderingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:batch_reordering", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.setBatchReorderingEnabled(true);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/batch_reordering/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupInterleavedInserts() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertParent(i, "parent" + i);
+        mapper.insertChild(i, i, "child" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertTrue(results.get(0).getMappedStatement().getId().endsWith("insertParent"));
+      assertEquals(3, results.get(0).getParameterObjects().size());
+      assertArrayEquals(new int[] { 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertTrue(results.get(1).getMappedStatement().getId().endsWith("insertChild"));
+      assertEquals(3, results.get(1).getUpdateCounts().length);
+      assertEquals(3, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldNotMoveInsertsAcrossOtherStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "parent1");
+      mapper.updateParent(1, "updated1");
+      mapper.insertParent(2, "parent2");
+      mapper.updateParent(2, "updated2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      assertEquals("updated1", mapper.selectParentName(1));
+      assertEquals("updated2", mapper.selectParentName(2));
+    }
+  }
+
+  @Test
+  void shouldExecuteGroupsInTheOrderTheyWereFirstOpened() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "parent1");
+      sqlSession.flushStatements();
+      // 子1、父2、子2 按照 子1、子2、父2 的顺序执行，子2 引用的父2 还没有插入
+      mapper.insertChild(1, 1, "child1");
+      mapper.insertParent(2, "parent2");
+      mapper.insertChild(2, 2, "child2");
+      assertThrows(PersistenceException.class, sqlSession::flushStatements);
+    }
+    sqlSessionFactory.getConfiguration().setBatchReorderingEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "parent1");
+      mapper.insertChild(1, 1, "child1");
+      mapper.insertParent(2, "parent2");
+      mapper.insertChild(2, 2, "child2");
+      assertEquals(4, sqlSession.flushStatements().size());
+      assertEquals(2, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldOnlyReusePreviousStatementWhenDisabled() {
+    sqlSessionFactory.getConfiguration().setBatchReorderingEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertParent(i, "parent" + i);
+        mapper.insertChild(i, i, "child" + i);
+      }
+      assertEquals(6, sqlSession.flushStatements().size());
+    }
+  }
+
+}
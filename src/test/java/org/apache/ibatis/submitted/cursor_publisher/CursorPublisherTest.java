@@ -0,0 +1,173 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_publisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.cursor.reactive.Publisher;
+import org.apache.ibatis.cursor.reactive.Subscriber;
+import org.apache.ibatis.cursor.reactive.Subscription;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CursorPublisherTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:cursor_publisher", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/cursor_publisher/CreateDB.sql");
+  }
+
+  @Test
+  void shouldStreamAllRowsInChunks() throws Exception {
+    TestSubscriber subscriber = new TestSubscriber(3);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).streamItems().subscribe(subscriber);
+    }
+    // 会话关闭后才开始读取数据
+    assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+    assertNull(subscriber.error);
+    assertTrue(subscriber.completed);
+    assertEquals(7, subscriber.items.size());
+    assertEquals("item7", subscriber.items.get(6).getName());
+  }
+
+  @Test
+  void shouldRespectDemandAndStopOnCancel() {
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(Runnable::run);
+    TestSubscriber subscriber = new TestSubscriber(0);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).streamItems().subscribe(subscriber);
+    }
+    assertTrue(subscriber.items.isEmpty());
+    subscriber.subscription.request(2);
+    assertEquals(2, subscriber.items.size());
+    subscriber.subscription.request(1);
+    assertEquals(3, subscriber.items.size());
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(10);
+    assertEquals(3, subscriber.items.size());
+    assertFalse(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(Runnable::run);
+    TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).streamItemsWithRowBounds(new RowBounds(2, 3)).subscribe(subscriber);
+    }
+    assertTrue(subscriber.completed);
+    assertEquals("3,4,5", subscriber.items.stream().map(item -> item.getId().toString()).collect(Collectors.joining(",")));
+  }
+
+  @Test
+  void shouldRejectInvalidRequest() {
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(Runnable::run);
+    TestSubscriber subscriber = new TestSubscriber(0);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).streamItems().subscribe(subscriber);
+    }
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  void shouldSupportOnlyOneSubscriber() {
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(Runnable::run);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Publisher<Item> publisher = sqlSession.getMapper(Mapper.class).streamItems();
+      publisher.subscribe(new TestSubscriber(0));
+      TestSubscriber second = new TestSubscriber(0);
+      publisher.subscribe(second);
+      assertTrue(second.error instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  void shouldRejectNonSelectStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThrows(BindingException.class, mapper::deleteItems);
+    }
+  }
+
+  private static class TestSubscriber implements Subscriber<Item> {
+    private final long batch;
+    private final List<Item> items = new CopyOnWriteArrayList<>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile Subscription subscription;
+    private volatile boolean completed;
+    private volatile Throwable error;
+    private long received;
+
+    TestSubscriber(long batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      if (batch > 0) {
+        subscription.request(batch);
+      }
+    }
+
+    @Override
+    public void onNext(Item item) {
+      items.add(item);
+      // 每收到一批数据后再请求下一批
+      if (batch > 0 && batch != Long.MAX_VALUE && ++received % batch == 0) {
+        subscription.request(batch);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+      terminated.countDown();
+    }
+  }
+
+}
@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_publisher;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.reactive.Publisher;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  @Select("select * from item order by id")
+  Publisher<Item> streamItems();
+
+  @Select("select * from item order by id")
+  Publisher<Item> streamItemsWithRowBounds(RowBounds rowBounds);
+
+  @Delete("delete from item")
+  Publisher<Item> deleteItems();
+
+}
@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:multi_row_insert", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.setMultiRowInsertEnabled(true);
+    configuration.setMaxParametersPerStatement(4);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+  }
+
+  @Test
+  void shouldInsertRowsInChunksAndAssignKeys() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Item> items = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        Item item = new Item(null, "item" + i);
+        items.add(item);
+        mapper.insertItem(item);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      // 每条语句最多 4 个参数，每行一个参数
+      assertEquals(3, results.size());
+      assertEquals("insert into item (name) values (?), (?), (?), (?)", results.get(0).getSql());
+      assertArrayEquals(new int[] { 1, 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(2, results.get(2).getParameterObjects().size());
+      for (int i = 0; i < 10; i++) {
+        assertEquals(i + 1, items.get(i).getId());
+        assertEquals("item" + i, mapper.selectName(items.get(i).getId()));
+      }
+    }
+  }
+
+  @Test
+  void shouldKeepOrderWithOtherStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertItem(new Item(null, "first"));
+      mapper.insertItem(new Item(null, "second"));
+      mapper.updateItem(new Item(1, "updated"));
+      mapper.insertItem(new Item(null, "third"));
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals("updated", mapper.selectName(1));
+      assertEquals(3, mapper.countItems());
+    }
+  }
+
+  @Test
+  void shouldUseJdbcBatchWhenStatementHandlerIsIntercepted() {
+    ParameterizeCounter counter = new ParameterizeCounter();
+    sqlSessionFactory.getConfiguration().addInterceptor(counter);
+    assertInsertedThroughJdbcBatch(counter.calls);
+  }
+
+  @Test
+  void shouldUseJdbcBatchWhenParameterHandlerIsIntercepted() {
+    SetParametersCounter counter = new SetParametersCounter();
+    sqlSessionFactory.getConfiguration().addInterceptor(counter);
+    assertInsertedThroughJdbcBatch(counter.calls);
+  }
+
+  private void assertInsertedThroughJdbcBatch(AtomicInteger interceptedCalls) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertItem(new Item(null, "item" + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals("insert into item (name) values (?)", results.get(0).getSql());
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      // 每一行都经过了插件
+      assertEquals(3, interceptedCalls.get());
+      assertEquals(3, mapper.countItems());
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "parameterize", args = Statement.class))
+  public static class ParameterizeCounter implements Interceptor {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.incrementAndGet();
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts(@Signature(type = ParameterHandler.class, method = "setParameters", args = PreparedStatement.class))
+  public static class SetParametersCounter implements Interceptor {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.incrementAndGet();
+      return invocation.proceed();
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_select_batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NestedSelectBatchTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> executedSqls = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:nested_select_batch", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.setNestedSelectBatchSize(2);
+    configuration.addInterceptor(new SqlRecorder());
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/nested_select_batch/CreateDB.sql");
+  }
+
+  @Test
+  void shouldLoadNestedSelectsInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).selectBlogs();
+      assertBlogs(blogs);
+      assertEquals("jim", blogs.get(0).getAuthor().getName());
+      assertEquals("sally", blogs.get(1).getAuthor().getName());
+      assertSame(blogs.get(0).getAuthor(), blogs.get(2).getAuthor());
+      assertNull(blogs.get(3).getAuthor());
+      // 5 个博客按照每批 2 个加载文章，2 个不同的作者一次加载
+      assertEquals(1, countSqls("from blog"));
+      assertEquals(3, countSqls("from post where blog_id in"));
+      assertEquals(1, countSqls("from author where id in"));
+      assertEquals(0, countSqls("= ?"));
+    }
+  }
+
+  @Test
+  void shouldLoadOneByOneWithResultHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).selectBlogs(context -> blogs.add(context.getResultObject()));
+      assertBlogs(blogs);
+      assertEquals("sally", blogs.get(4).getAuthor().getName());
+      assertEquals(0, countSqls(" in "));
+    }
+  }
+
+  @Test
+  void shouldLoadInBatchesWithAnnotations() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertBlogs(sqlSession.getMapper(Mapper.class).selectBlogsWithAnnotations());
+      assertEquals(3, countSqls("from post where blog_id in"));
+    }
+  }
+
+  @Test
+  void shouldReuseLocallyCachedBatchResults() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertBlogs(mapper.selectBlogs());
+      assertBlogs(mapper.selectBlogsWithAnnotations());
+      // 第二次解析相同的父对象时，批量查询的结果直接从本地缓存中分组，不再逐行查询
+      assertEquals(2, countSqls("from blog"));
+      assertEquals(3, countSqls("from post where blog_id in"));
+      assertEquals(0, countSqls("= ?"));
+    }
+  }
+
+  @Test
+  void shouldLoadLazyPropertiesOfSiblingsTogether() {
+    List<Blog> blogs;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      blogs = sqlSession.getMapper(Mapper.class).selectBlogsLazily();
+      assertEquals(0, countSqls("from post"));
+      // 第一次触发时加载自己和下一个兄弟对象的文章
+      assertEquals("post1,post2", subjects(blogs.get(0)));
+      assertEquals("post3", subjects(blogs.get(1)));
+      assertEquals(1, countSqls("from post where blog_id in"));
+      assertEquals("", subjects(blogs.get(3)));
+      assertEquals("post4", subjects(blogs.get(2)));
+      assertEquals(2, countSqls("from post where blog_id in"));
+    }
+    // 会话关闭后使用新的执行器加载
+    assertEquals("post5,post6", subjects(blogs.get(4)));
+    assertEquals(3, countSqls("from post where blog_id in"));
+    assertEquals(0, countSqls("= ?"));
+  }
+
+  private void assertBlogs(List<Blog> blogs) {
+    assertEquals(5, blogs.size());
+    assertEquals("post1,post2", subjects(blogs.get(0)));
+    assertEquals("post3", subjects(blogs.get(1)));
+    assertEquals("post4", subjects(blogs.get(2)));
+    assertEquals("", subjects(blogs.get(3)));
+    assertEquals("post5,post6", subjects(blogs.get(4)));
+  }
+
+  private String subjects(Blog blog) {
+    return blog.getPosts().stream().map(Post::getSubject).collect(Collectors.joining(","));
+  }
+
+  private long countSqls(String fragment) {
+    return executedSqls.stream().filter(sql -> sql.contains(fragment)).count();
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  private class SqlRecorder implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      StatementHandler statementHandler = (StatementHandler) invocation.getTarget();
+      executedSqls.add(statementHandler.getBoundSql().getSql().replaceAll("\\s+", " "));
+      return invocation.proceed();
+    }
+  }
+
+}
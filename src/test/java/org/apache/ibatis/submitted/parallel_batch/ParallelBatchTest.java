@@ -0,0 +1,201 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ParallelBatchExecutorException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ParallelBatchCommitMode;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelBatchTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:parallel_batch", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.setParallelBatchThreads(2);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/parallel_batch/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFlushGroupsInParallelAndCommit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.PARALLEL_BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertAuthor(i, "author" + i);
+        if (i <= 3) {
+          mapper.insertBook(i, "book" + i);
+        }
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      // 结果按照语句第一次出现的顺序汇总
+      assertEquals(2, results.size());
+      assertEquals("org.apache.ibatis.submitted.parallel_batch.Mapper.insertAuthor", results.get(0).getMappedStatement().getId());
+      assertEquals(5, results.get(0).getUpdateCounts().length);
+      assertEquals("org.apache.ibatis.submitted.parallel_batch.Mapper.insertBook", results.get(1).getMappedStatement().getId());
+      assertEquals(3, results.get(1).getUpdateCounts().length);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(5, mapper.countAuthors());
+      assertEquals(3, mapper.countBooks());
+    }
+  }
+
+  @Test
+  void shouldFlushBeforeQuery() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.PARALLEL_BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertAuthor(1, "author1");
+      mapper.insertBook(1, "book1");
+      assertEquals(1, mapper.countAuthors());
+      assertEquals(1, mapper.countBooks());
+    }
+  }
+
+  @Test
+  void shouldCommitSucceededConnectionsPerConnection() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.PARALLEL_BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      insertWithDuplicateBook(mapper);
+      PersistenceException pe = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+      ParallelBatchExecutorException e = (ParallelBatchExecutorException) pe.getCause();
+      assertEquals(1, e.getSuccessfulBatchResults().size());
+      assertEquals(1, e.getFailures().size());
+      assertTrue(e.getFailures().containsKey("org.apache.ibatis.submitted.parallel_batch.Mapper.insertBook"));
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(2, mapper.countAuthors());
+      assertEquals(0, mapper.countBooks());
+    }
+  }
+
+  @Test
+  void shouldRollbackAllConnectionsInAllOrNothingMode() {
+    sqlSessionFactory.getConfiguration().setParallelBatchCommitMode(ParallelBatchCommitMode.ALL_OR_NOTHING);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.PARALLEL_BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      insertWithDuplicateBook(mapper);
+      PersistenceException pe = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+      ParallelBatchExecutorException e = (ParallelBatchExecutorException) pe.getCause();
+      assertTrue(e.getSuccessfulBatchResults().isEmpty());
+      assertEquals(1, e.getFailures().size());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(0, mapper.countAuthors());
+      assertEquals(0, mapper.countBooks());
+    }
+  }
+
+  @Test
+  void shouldApplyExecutorPluginsToWorkers() {
+    WorkerUpdateCounter counter = new WorkerUpdateCounter(null);
+    sqlSessionFactory.getConfiguration().addInterceptor(counter);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.PARALLEL_BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertAuthor(i, "author" + i);
+        mapper.insertBook(i, "book" + i);
+      }
+      sqlSession.flushStatements();
+    }
+    assertEquals(6, counter.updates.get());
+  }
+
+  @Test
+  void shouldReleaseEveryConnectionWhenAWorkerFails() throws Exception {
+    PooledDataSource dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:parallel_batch", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.setParallelBatchThreads(2);
+    configuration.addMapper(Mapper.class);
+    configuration.addInterceptor(new WorkerUpdateCounter("org.apache.ibatis.submitted.parallel_batch.Mapper.insertBook"));
+    SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession sqlSession = factory.openSession(ExecutorType.PARALLEL_BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertAuthor(1, "author1");
+      mapper.insertBook(1, "book1");
+      assertThrows(PersistenceException.class, sqlSession::flushStatements);
+    }
+    // 所有工作线程的连接都被回滚并归还了
+    assertEquals(0, dataSource.getPoolState().getActiveConnectionCount());
+    try (SqlSession sqlSession = factory.openSession()) {
+      assertEquals(0, sqlSession.getMapper(Mapper.class).countAuthors());
+    }
+    dataSource.forceCloseAll();
+  }
+
+  /**
+   * Counts the updates executed by the worker threads, and fails the updates of the given statement.
+   */
+  @Intercepts(@Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }))
+  public static class WorkerUpdateCounter implements Interceptor {
+    private final String failingStatementId;
+    private final AtomicInteger updates = new AtomicInteger();
+
+    WorkerUpdateCounter(String failingStatementId) {
+      this.failingStatementId = failingStatementId;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      if (Thread.currentThread().getName().startsWith("mybatis-parallel-batch-")) {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (ms.getId().equals(failingStatementId)) {
+          throw new AssertionError("Failing " + failingStatementId);
+        }
+        updates.incrementAndGet();
+      }
+      return invocation.proceed();
+    }
+  }
+
+  private void insertWithDuplicateBook(Mapper mapper) {
+    mapper.insertAuthor(1, "author1");
+    mapper.insertAuthor(2, "author2");
+    mapper.insertBook(1, "book1");
+    mapper.insertBook(1, "book1 again");
+  }
+
+}
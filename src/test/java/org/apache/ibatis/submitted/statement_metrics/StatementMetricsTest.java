@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.statement_metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.metrics.InMemoryStatementMetrics;
+import org.apache.ibatis.metrics.InMemoryStatementMetrics.StatementStatistics;
+import org.apache.ibatis.metrics.StatementPhase;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementMetricsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static InMemoryStatementMetrics metrics;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/statement_metrics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    metrics = (InMemoryStatementMetrics) sqlSessionFactory.getConfiguration().getStatementMetricsListener();
+  }
+
+  @BeforeEach
+  void resetDatabase() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/statement_metrics/CreateDB.sql");
+    metrics.reset();
+  }
+
+  @Test
+  void shouldReportEveryPhaseOfAQuery() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper mapper = sqlSession.getMapper(PersonMapper.class);
+      assertThat(mapper.findAll()).hasSize(3);
+    }
+
+    StatementStatistics stats = metrics.getStatistics(PersonMapper.class.getName() + ".findAll");
+    assertThat(metrics.getStatementIds()).containsExactly(PersonMapper.class.getName() + ".findAll");
+    for (StatementPhase phase : StatementPhase.values()) {
+      assertThat(stats.getLatency(phase).getCount()).as(phase.name()).isEqualTo(1);
+    }
+    assertThat(stats.getRows()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldReportCacheHitsAndMisses() {
+    String statementId = PersonMapper.class.getName() + ".findById";
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper mapper = sqlSession.getMapper(PersonMapper.class);
+      mapper.findById(1);
+      mapper.findById(1);
+    }
+    StatementStatistics stats = metrics.getStatistics(statementId);
+    assertThat(stats.getLocalCacheMisses()).isEqualTo(1);
+    assertThat(stats.getLocalCacheHits()).isEqualTo(1);
+    // 事务提交前二级缓存中还没有结果
+    assertThat(stats.getCacheMisses()).isEqualTo(2);
+    assertThat(stats.getCacheHits()).isZero();
+    assertThat(stats.getLatency(StatementPhase.EXECUTE).getCount()).isEqualTo(1);
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(PersonMapper.class).findById(1);
+    }
+    assertThat(stats.getCacheHits()).isEqualTo(1);
+    assertThat(stats.getLatency(StatementPhase.EXECUTE).getCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldReportUpdatedRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(PersonMapper.class).updateLastnameAfter(1, "Brown")).isEqualTo(2);
+      sqlSession.rollback(true);
+    }
+
+    StatementStatistics stats = metrics.getStatistics(PersonMapper.class.getName() + ".updateLastnameAfter");
+    assertThat(stats.getLatency(StatementPhase.EXECUTE).getCount()).isEqualTo(1);
+    assertThat(stats.getLatency(StatementPhase.PARAMETER_BINDING).getCount()).isEqualTo(1);
+    assertThat(stats.getLatency(StatementPhase.FETCH).getCount()).isZero();
+    assertThat(stats.getRows()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldNotReportWithoutListener() {
+    sqlSessionFactory.getConfiguration().setStatementMetricsListener(null);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(PersonMapper.class).findAll()).hasSize(3);
+    } finally {
+      sqlSessionFactory.getConfiguration().setStatementMetricsListener(metrics);
+    }
+    assertThat(metrics.getStatementIds()).isEmpty();
+  }
+
+}
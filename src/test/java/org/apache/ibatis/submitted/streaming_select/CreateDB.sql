@@ -0,0 +1,41 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table item if exists;
+drop table item_group if exists;
+
+create table item_group (
+  id int,
+  name varchar(20)
+);
+
+create table item (
+  id int,
+  group_id int,
+  name varchar(20)
+);
+
+insert into item_group (id, name) values (1, 'fruit');
+insert into item_group (id, name) values (2, 'vegetable');
+insert into item_group (id, name) values (3, 'grain');
+
+insert into item (id, group_id, name) values (1, 1, 'apple');
+insert into item (id, group_id, name) values (2, 1, 'banana');
+insert into item (id, group_id, name) values (3, 1, 'cherry');
+insert into item (id, group_id, name) values (4, 2, 'carrot');
+insert into item (id, group_id, name) values (5, 2, 'onion');
+insert into item (id, group_id, name) values (6, 3, 'rice');
+insert into item (id, group_id, name) values (7, 3, 'wheat');
@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.streaming_select;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.statement.StreamingHint;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StreamingSelectTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeEach
+  void setUp() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:streaming_select", "sa", "");
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.setDatabaseId("hsqldb");
+    configuration.addStreamingHint("hsqldb", (statement, fetchSize) -> {
+      fetchSizes.add(fetchSize);
+      StreamingHint.DEFAULT.apply(statement, fetchSize);
+    });
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/streaming_select/CreateDB.sql");
+  }
+
+  @Test
+  void shouldAdaptFetchSizeToObservedRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(7, mapper.selectItems().size());
+      sqlSession.clearCache();
+      assertEquals(7, mapper.selectItems().size());
+      // 观察到的行数很少时，fetch size 也不会低于初始值
+      assertEquals(Arrays.asList(100, 100), fetchSizes);
+    }
+  }
+
+  @Test
+  void shouldNotApplyHintWithoutStreaming() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(7, sqlSession.getMapper(Mapper.class).selectItemsWithoutStreaming().size());
+      assertTrue(fetchSizes.isEmpty());
+    }
+  }
+
+  @Test
+  void shouldHandOverCompleteGroupsToResultHandler() {
+    sqlSessionFactory.getConfiguration().setSafeResultHandlerEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<ItemGroup> groups = new ArrayList<>();
+      // 流式查询的嵌套结果映射按有序的结果处理，每个分组完成后立即交给 ResultHandler
+      mapper.selectGroups(context -> groups.add(context.getResultObject()));
+      assertGroups(groups);
+    }
+  }
+
+  @Test
+  void shouldStillCheckResultHandlerOfStreamingNestedResultMap() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      // 流式查询不会绕过 safeResultHandlerEnabled 的检查
+      PersistenceException e = assertThrows(PersistenceException.class, () -> mapper.selectGroups(context -> { }));
+      assertTrue(e.getMessage().contains("safeResultHandlerEnabled"));
+    }
+  }
+
+  @Test
+  void shouldHandOverCompleteGroupsToCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<ItemGroup> groups = new ArrayList<>();
+      try (Cursor<ItemGroup> cursor = sqlSession.getMapper(Mapper.class).selectGroupsWithCursor()) {
+        cursor.forEach(groups::add);
+      }
+      assertGroups(groups);
+    }
+  }
+
+  private void assertGroups(List<ItemGroup> groups) {
+    assertEquals(Arrays.asList("fruit", "vegetable", "grain"),
+        groups.stream().map(ItemGroup::getName).collect(Collectors.toList()));
+    assertEquals(Arrays.asList("apple", "banana", "cherry"), itemNames(groups.get(0)));
+    assertEquals(Arrays.asList("carrot", "onion"), itemNames(groups.get(1)));
+    assertEquals(Arrays.asList("rice", "wheat"), itemNames(groups.get(2)));
+  }
+
+  private List<String> itemNames(ItemGroup group) {
+    return group.getItems().stream().map(Item::getName).collect(Collectors.toList());
+  }
+
+}